@@ -1,4 +1,5 @@
 profile-shell: {
     name: "Simple Profile"
     bell: true
+    transcript-rows: 100000
 }
@@ -40,6 +40,11 @@ class ConfigVisitor : IVisitorCallback {
     return if (value.isValid()) value.asString() == "true" else null
   }
 
+  fun getNumberValue(path: Array<String>, name: String): Double? {
+    val value = this.getAttribute(path, name)
+    return if (value.isValid()) value.asNumber() else null
+  }
+
   override fun onStart() {
     currentContext = NeoLangContext("global")
     rootContext = currentContext
@@ -1,10 +1,14 @@
-#include <dirent.h>
+#include <errno.h>
 #include <fcntl.h>
 #include <jni.h>
+#include <pthread.h>
 #include <signal.h>
 #include <stdio.h>
 #include <stdlib.h>
+#include <sys/eventfd.h>
 #include <sys/ioctl.h>
+#include <sys/resource.h>
+#include <sys/syscall.h>
 #include <sys/wait.h>
 #include <termios.h>
 #include <unistd.h>
@@ -23,6 +27,144 @@ static int throw_runtime_exception(JNIEnv *env, char const *message) {
     return -1;
 }
 
+// The sigaction of the rt_sigaction(2) system call, with room for the sa_restorer of the architectures having it.
+struct kernel_sigaction {
+    void *handler;
+    unsigned long flags;
+    void *restorer;
+    uint64_t mask;
+};
+
+struct linux_dirent64 {
+    uint64_t d_ino;
+    int64_t d_off;
+    unsigned short d_reclen;
+    unsigned char d_type;
+    char d_name[];
+};
+
+static void write_string(int fd, char const *string) {
+    (void) write(fd, string, strlen(string));
+}
+
+/**
+ * Report a failed call in the child to the terminal, as perror() would without allocating.
+ */
+static void write_error(char const *call, char const *argument, int error) {
+    write_string(2, call);
+    write_string(2, "(\"");
+    write_string(2, argument);
+    write_string(2, "\"): ");
+    write_string(2, strerror(error));
+    write_string(2, "\n");
+}
+
+/**
+ * Close the file descriptors above stderr, listing them with getdents64(2) instead of opendir(3) which allocates.
+ */
+static void close_inherited_fds() {
+    int dir_fd = open("/proc/self/fd", O_RDONLY | O_DIRECTORY | O_CLOEXEC);
+    if (dir_fd < 0) return;
+    char buffer[1024] __attribute__((aligned(8)));
+    long length;
+    while ((length = syscall(__NR_getdents64, dir_fd, buffer, sizeof(buffer))) > 0) {
+        for (long offset = 0; offset < length;) {
+            struct linux_dirent64 *entry = (struct linux_dirent64 *) (buffer + offset);
+            offset += entry->d_reclen;
+            if (entry->d_name[0] < '0' || entry->d_name[0] > '9') continue;
+            int fd = 0;
+            for (char const *digit = entry->d_name; *digit; digit++) fd = 10 * fd + (*digit - '0');
+            if (fd > 2 && fd != dir_fd) close(fd);
+        }
+    }
+    close(dir_fd);
+}
+
+/**
+ * The child of vfork(), sharing the memory of the parent until it execs, so it only makes system calls and writes to
+ * its stack. Signal handlers installed by the parent would run in the shared memory, so those are reset to the default
+ * before signals are unblocked, through system calls since sigaction() may be wrapped, as by the signal chaining of
+ * ART, in code keeping state in memory.
+ */
+static void __neoterm_no_return exec_child(int ptm,
+                                           char const *devname,
+                                           char const *cmd,
+                                           char const *cwd,
+                                           char const *const *candidates,
+                                           char *const argv[],
+                                           char *const envp[]) {
+    for (int signal = 1; signal < 65; signal++) {
+        struct kernel_sigaction action = {};
+        if (syscall(__NR_rt_sigaction, signal, NULL, &action, sizeof(uint64_t)) != 0) continue;
+        if (action.handler == (void *) SIG_DFL || action.handler == (void *) SIG_IGN) continue;
+        struct kernel_sigaction default_action = {};
+        syscall(__NR_rt_sigaction, signal, &default_action, NULL, sizeof(uint64_t));
+    }
+    // Clear signals which the Android java process may have blocked:
+    uint64_t no_signals = 0;
+    syscall(__NR_rt_sigprocmask, SIG_SETMASK, &no_signals, NULL, sizeof(uint64_t));
+
+    close(ptm);
+    setsid();
+
+    int pts = open(devname, O_RDWR);
+    if (pts < 0) _exit(-1);
+
+    dup2(pts, 0);
+    dup2(pts, 1);
+    dup2(pts, 2);
+    close_inherited_fds();
+
+    if (chdir(cwd) != 0) write_error("chdir", cwd, errno);
+
+    int exec_errno = ENOENT;
+    for (char const *const *candidate = candidates; *candidate; candidate++) {
+        execve(*candidate, argv, envp);
+        // Like execvp(), report a file which is there but cannot be run rather than the last one not there:
+        if (exec_errno != EACCES) exec_errno = errno;
+    }
+    // Show terminal output about failing exec() call:
+    write_error("exec", cmd, exec_errno);
+    _exit(1);
+}
+
+/**
+ * The paths to try executing the command at, as execvp() would search the PATH of the environment of the child.
+ */
+static char **find_candidates(char const *cmd, char **envp) {
+    if (strchr(cmd, '/')) {
+        char **candidates = (char **) calloc(2, sizeof(char *));
+        if (candidates) candidates[0] = strdup(cmd);
+        return candidates;
+    }
+
+    char const *path = "/system/bin:/system/xbin";
+    if (envp) {
+        for (char **var = envp; *var; ++var) {
+            if (strncmp(*var, "PATH=", 5) == 0) path = *var + 5;
+        }
+    }
+
+    size_t count = 1;
+    for (char const *c = path; *c; c++) if (*c == ':') count++;
+    char **candidates = (char **) calloc(count + 1, sizeof(char *));
+    if (!candidates) return NULL;
+    size_t index = 0;
+    for (char const *dir = path;; dir++) {
+        char const *dir_end = strchrnul(dir, ':');
+        size_t dir_length = (size_t) (dir_end - dir);
+        // An empty element is the working directory:
+        if (dir_length == 0) {
+            candidates[index++] = strdup(cmd);
+        } else if (asprintf(&candidates[index], "%.*s/%s", (int) dir_length, dir, cmd) != -1) {
+            index++;
+        }
+        if (*dir_end == '\0') break;
+        dir = dir_end;
+    }
+    return candidates;
+}
+
 static int create_subprocess(JNIEnv *env,
                              char const *cmd,
                              char const *cwd,
@@ -60,57 +202,31 @@ static int create_subprocess(JNIEnv *env,
     struct winsize sz = {.ws_row = static_cast<unsigned short>(rows), .ws_col = static_cast<unsigned short>(columns)};
     ioctl(ptm, TIOCSWINSZ, &sz);
 
-    pid_t pid = fork();
+    // Everything the child needs is prepared before vfork(), which avoids copying the page tables of a large heap as
+    // fork() does, since the child may not allocate. The argv of execve() needs the command as argv[0] if no arguments:
+    char **candidates = find_candidates(cmd, envp);
+    if (!candidates) return throw_runtime_exception(env, "Couldn't allocate the paths of the command");
+    char *default_argv[] = {const_cast<char *>(cmd), NULL};
+    char *empty_envp[] = {NULL};
+
+    // Signals are blocked until the child has reset their handlers:
+    sigset_t all_signals, previous_signals;
+    sigfillset(&all_signals);
+    pthread_sigmask(SIG_SETMASK, &all_signals, &previous_signals);
+    pid_t pid = vfork();
+    if (pid == 0) {
+        exec_child(ptm, devname, cmd, cwd, candidates, argv ? argv : default_argv, envp ? envp : empty_envp);
+    }
+    pthread_sigmask(SIG_SETMASK, &previous_signals, NULL);
+
+    for (char **candidate = candidates; *candidate; ++candidate) free(*candidate);
+    free(candidates);
+
     if (pid < 0) {
         return throw_runtime_exception(env, "Fork failed");
-    } else if (pid > 0) {
+    } else {
         *pProcessId = (int) pid;
         return ptm;
-    } else {
-        // Clear signals which the Android java process may have blocked:
-        sigset_t signals_to_unblock;
-        sigfillset(&signals_to_unblock);
-        sigprocmask(SIG_UNBLOCK, &signals_to_unblock, 0);
-
-        close(ptm);
-        setsid();
-
-        int pts = open(devname, O_RDWR);
-        if (pts < 0) exit(-1);
-
-        dup2(pts, 0);
-        dup2(pts, 1);
-        dup2(pts, 2);
-
-        DIR *self_dir = opendir("/proc/self/fd");
-        if (self_dir != NULL) {
-            int self_dir_fd = dirfd(self_dir);
-            struct dirent *entry;
-            while ((entry = readdir(self_dir)) != NULL) {
-                int fd = atoi(entry->d_name);
-                if (fd > 2 && fd != self_dir_fd) close(fd);
-            }
-            closedir(self_dir);
-        }
-
-        clearenv();
-        if (envp) for (; *envp; ++envp) putenv(*envp);
-
-        if (chdir(cwd) != 0) {
-            char *error_message;
-            // No need to free asprintf()-allocated memory since doing execvp() or exit() below.
-            if (asprintf(&error_message, "chdir(\"%s\")", cwd) == -1)
-                error_message = const_cast<char *>("chdir()");
-            perror(error_message);
-            fflush(stderr);
-        }
-        execvp(cmd, argv);
-        // Show terminal output about failing exec() call:
-        char *error_message;
-        if (asprintf(&error_message, "exec(\"%s\")", cmd) == -1)
-            error_message = const_cast<char *>("exec()");;
-        perror(error_message);
-        _exit(1);
     }
 }
 
@@ -161,7 +277,7 @@ extern "C" JNIEXPORT jint JNICALL Java_com_thertxnetwork_andrinux_backend_JNI_cr
     char const *cmd_utf8 = env->GetStringUTFChars(cmd, NULL);
     int ptm = create_subprocess(env, cmd_utf8, cmd_cwd, argv, envp, &procId, rows, columns);
     env->ReleaseStringUTFChars(cmd, cmd_utf8);
-    env->ReleaseStringUTFChars(cmd, cmd_cwd);
+    env->ReleaseStringUTFChars(cwd, cmd_cwd);
 
     if (argv) {
         for (char **tmp = argv; *tmp; ++tmp) free(*tmp);
@@ -203,19 +319,77 @@ Java_com_thertxnetwork_andrinux_backend_JNI_setPtyUTF8Mode(JNIEnv *TERMUX_UNUSED
     }
 }
 
-extern "C" JNIEXPORT int JNICALL
-Java_com_thertxnetwork_andrinux_backend_JNI_waitFor(JNIEnv *TERMUX_UNUSED(env), jclass TERMUX_UNUSED(clazz),
-                                     jint pid) {
-    int status;
-    waitpid(pid, &status, 0);
-    if (WIFEXITED(status)) {
-        return WEXITSTATUS(status);
+// The eventfd signaled on SIGCHLD, and the handler which was installed before.
+static int child_exit_fd = -1;
+static struct sigaction previous_sigchld_action;
+
+static void handle_sigchld(int signal, siginfo_t *info, void *context) {
+    int saved_errno = errno;
+    uint64_t one = 1;
+    (void) write(child_exit_fd, &one, sizeof(one));
+    errno = saved_errno;
+
+    if (previous_sigchld_action.sa_flags & SA_SIGINFO) {
+        if (previous_sigchld_action.sa_sigaction) previous_sigchld_action.sa_sigaction(signal, info, context);
+    } else if (previous_sigchld_action.sa_handler != SIG_DFL && previous_sigchld_action.sa_handler != SIG_IGN) {
+        previous_sigchld_action.sa_handler(signal);
+    }
+}
+
+extern "C" JNIEXPORT jint JNICALL
+Java_com_thertxnetwork_andrinux_backend_JNI_openChildExitFd(JNIEnv *env, jclass TERMUX_UNUSED(clazz)) {
+    if (child_exit_fd != -1) {
+        struct sigaction current;
+        if (sigaction(SIGCHLD, NULL, &current) == 0 && (current.sa_flags & SA_SIGINFO)
+            && current.sa_sigaction == handle_sigchld) {
+            return child_exit_fd;
+        }
+        // Replaced since, so install it again, chained to the replacement.
+    } else {
+        int fd = eventfd(0, EFD_NONBLOCK | EFD_CLOEXEC);
+        if (fd < 0) return throw_runtime_exception(env, "eventfd() failed");
+        child_exit_fd = fd;
+    }
+    const int fd = child_exit_fd;
+
+    struct sigaction action = {};
+    action.sa_sigaction = handle_sigchld;
+    action.sa_flags = SA_SIGINFO | SA_RESTART | SA_NOCLDSTOP;
+    sigemptyset(&action.sa_mask);
+    if (sigaction(SIGCHLD, &action, &previous_sigchld_action) != 0)
+        return throw_runtime_exception(env, "sigaction() failed for SIGCHLD");
+    return fd;
+}
+
+extern "C" JNIEXPORT jboolean JNICALL
+Java_com_thertxnetwork_andrinux_backend_JNI_reap(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                  jint pid, jlongArray result_array) {
+    int status = 0;
+    struct rusage usage = {};
+    pid_t reaped;
+    do {
+        reaped = wait4(pid, &status, WNOHANG, &usage);
+    } while (reaped < 0 && errno == EINTR);
+    if (reaped == 0) return JNI_FALSE;
+
+    jlong result[4];
+    if (reaped < 0) {
+        // Reaped by someone else, or SIGCHLD is ignored: gone, with nothing known about it.
+        result[0] = 0;
+        memset(&usage, 0, sizeof(usage));
+    } else if (WIFEXITED(status)) {
+        result[0] = WEXITSTATUS(status);
     } else if (WIFSIGNALED(status)) {
-        return -WTERMSIG(status);
+        result[0] = -WTERMSIG(status);
     } else {
         // Should never happen - waitpid(2) says "One of the first three macros will evaluate to a non-zero (true) value".
-        return 0;
+        result[0] = 0;
     }
+    result[1] = (jlong) usage.ru_utime.tv_sec * 1000000 + usage.ru_utime.tv_usec;
+    result[2] = (jlong) usage.ru_stime.tv_sec * 1000000 + usage.ru_stime.tv_usec;
+    result[3] = usage.ru_maxrss;
+    env->SetLongArrayRegion(result_array, 0, 4, result);
+    return JNI_TRUE;
 }
 
 extern "C" JNIEXPORT void JNICALL
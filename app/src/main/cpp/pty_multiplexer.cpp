@@ -0,0 +1,186 @@
+#include <errno.h>
+#include <fcntl.h>
+#include <jni.h>
+#include <sys/epoll.h>
+#include <sys/eventfd.h>
+#include <unistd.h>
+
+#define TERMUX_UNUSED(x) x __attribute__((__unused__))
+
+// The events of a file descriptor as seen by the Java side, see PtyMultiplexer.EVENT_*.
+#define EVENT_READ 1
+#define EVENT_WRITE 2
+
+// The token of the eventfd waking the loop, which is not reported, and of the one signaled on SIGCHLD, which is.
+#define WAKE_TOKEN (-1)
+#define CHILD_EXIT_TOKEN (-2)
+
+// The ints of each record reported by poll(): the token, the events, and the offset and length of what was read.
+#define RECORD_INTS 4
+#define MAX_EVENTS 64
+
+static int throw_runtime_exception(JNIEnv *env, char const *message) {
+    jclass exClass = env->FindClass("java/lang/RuntimeException");
+    env->ThrowNew(exClass, message);
+    return -1;
+}
+
+static uint32_t to_epoll_events(jint events) {
+    uint32_t epoll_events = 0;
+    if (events & EVENT_READ) epoll_events |= EPOLLIN;
+    if (events & EVENT_WRITE) epoll_events |= EPOLLOUT;
+    return epoll_events;
+}
+
+static jint from_epoll_events(uint32_t epoll_events) {
+    jint events = 0;
+    // A hang up or error is reported as readable, so that the read finds out what it is:
+    if (epoll_events & (EPOLLIN | EPOLLHUP | EPOLLERR)) events |= EVENT_READ;
+    if (epoll_events & EPOLLOUT) events |= EVENT_WRITE;
+    return events;
+}
+
+/**
+ * Read from the file descriptor without blocking, up to the length or until nothing is left to read.
+ *
+ * @return the number of bytes read, or -1 at the end of input with nothing read.
+ */
+static jint read_available(int fd, jbyte *buffer, jint length) {
+    jint total = 0;
+    while (total < length) {
+        ssize_t n = read(fd, buffer + total, (size_t) (length - total));
+        if (n > 0) {
+            total += (jint) n;
+        } else if (n < 0 && errno == EINTR) {
+            continue;
+        } else if (n < 0 && errno == EAGAIN) {
+            break;
+        } else {
+            // End of input, which for a pty master is EIO once no process has the slave open anymore:
+            if (total == 0) return -1;
+            break;
+        }
+    }
+    return total;
+}
+
+extern "C" JNIEXPORT jint JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_createEpoll(JNIEnv *env, jclass TERMUX_UNUSED(clazz)) {
+    int epoll_fd = epoll_create1(EPOLL_CLOEXEC);
+    if (epoll_fd < 0) return throw_runtime_exception(env, "epoll_create1() failed");
+    return epoll_fd;
+}
+
+extern "C" JNIEXPORT jint JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_createWakeFd(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                                                   jint epoll_fd) {
+    int wake_fd = eventfd(0, EFD_NONBLOCK | EFD_CLOEXEC);
+    if (wake_fd < 0) return throw_runtime_exception(env, "eventfd() failed");
+    struct epoll_event event = {};
+    event.events = EPOLLIN;
+    event.data.u64 = (uint64_t) (int64_t) WAKE_TOKEN;
+    if (epoll_ctl(epoll_fd, EPOLL_CTL_ADD, wake_fd, &event) != 0) {
+        close(wake_fd);
+        return throw_runtime_exception(env, "epoll_ctl() failed for the eventfd");
+    }
+    return wake_fd;
+}
+
+extern "C" JNIEXPORT void JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_wake(JNIEnv *TERMUX_UNUSED(env), jclass TERMUX_UNUSED(clazz),
+                                                           jint wake_fd) {
+    uint64_t one = 1;
+    while (write(wake_fd, &one, sizeof(one)) < 0 && errno == EINTR);
+}
+
+extern "C" JNIEXPORT void JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_setNonBlocking(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                                                     jint fd) {
+    int flags = fcntl(fd, F_GETFL);
+    if (flags < 0 || fcntl(fd, F_SETFL, flags | O_NONBLOCK) != 0)
+        throw_runtime_exception(env, "fcntl() failed setting O_NONBLOCK");
+}
+
+extern "C" JNIEXPORT void JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_setEvents(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                                                jint epoll_fd, jint fd, jint token,
+                                                                jint old_events, jint new_events) {
+    struct epoll_event event = {};
+    event.events = to_epoll_events(new_events);
+    event.data.u64 = (uint64_t) (uint32_t) token;
+    int op = old_events == 0 ? EPOLL_CTL_ADD : (new_events == 0 ? EPOLL_CTL_DEL : EPOLL_CTL_MOD);
+    if (epoll_ctl(epoll_fd, op, fd, &event) != 0) throw_runtime_exception(env, "epoll_ctl() failed");
+}
+
+extern "C" JNIEXPORT jint JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_poll(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                                           jint epoll_fd, jint wake_fd, jint child_exit_fd,
+                                                           jintArray room_array, jintArray fd_array,
+                                                           jbyteArray buffer_array, jintArray result_array,
+                                                           jint timeout_millis) {
+    struct epoll_event events[MAX_EVENTS];
+    int max_events = env->GetArrayLength(result_array) / RECORD_INTS;
+    if (max_events > MAX_EVENTS) max_events = MAX_EVENTS;
+
+    int count;
+    do {
+        count = epoll_wait(epoll_fd, events, max_events, timeout_millis);
+    } while (count < 0 && errno == EINTR);
+    if (count < 0) return throw_runtime_exception(env, "epoll_wait() failed");
+
+    const jsize slots = env->GetArrayLength(fd_array);
+    jint *room = env->GetIntArrayElements(room_array, NULL);
+    jint *fds = env->GetIntArrayElements(fd_array, NULL);
+    jint results[MAX_EVENTS * RECORD_INTS];
+    const jint buffer_length = env->GetArrayLength(buffer_array);
+    // Only non-blocking reads are done while the buffer is held:
+    jbyte *buffer = (jbyte *) env->GetPrimitiveArrayCritical(buffer_array, NULL);
+
+    jint records = 0, offset = 0;
+    for (int i = 0; i < count; i++) {
+        const jint token = (jint) events[i].data.u64;
+        if (token == WAKE_TOKEN || token == CHILD_EXIT_TOKEN) {
+            uint64_t value;
+            while (read(token == WAKE_TOKEN ? wake_fd : child_exit_fd, &value, sizeof(value)) < 0 && errno == EINTR);
+            if (token == WAKE_TOKEN) continue;
+        }
+
+        const jint event_mask = from_epoll_events(events[i].events);
+        jint length = 0;
+        // Other tokens are the slots of pty masters:
+        const jint slot = token;
+        if (slot >= 0 && slot < slots && (event_mask & EVENT_READ)) {
+            jint to_read = room[slot];
+            if (to_read > buffer_length - offset) to_read = buffer_length - offset;
+            if (to_read > 0) length = read_available(fds[slot], buffer + offset, to_read);
+        }
+
+        jint *record = results + RECORD_INTS * records++;
+        record[0] = token;
+        record[1] = event_mask;
+        record[2] = offset;
+        record[3] = length;
+        if (length > 0) offset += length;
+    }
+
+    env->ReleasePrimitiveArrayCritical(buffer_array, buffer, 0);
+    env->ReleaseIntArrayElements(fd_array, fds, JNI_ABORT);
+    env->ReleaseIntArrayElements(room_array, room, JNI_ABORT);
+    env->SetIntArrayRegion(result_array, 0, records * RECORD_INTS, results);
+    return records;
+}
+
+extern "C" JNIEXPORT jint JNICALL
+Java_com_thertxnetwork_andrinux_backend_PtyMultiplexer_write(JNIEnv *env, jclass TERMUX_UNUSED(clazz),
+                                                            jint fd, jbyteArray buffer_array,
+                                                            jint offset, jint length) {
+    jbyte *buffer = (jbyte *) env->GetPrimitiveArrayCritical(buffer_array, NULL);
+    ssize_t written;
+    do {
+        written = write(fd, buffer + offset, (size_t) length);
+    } while (written < 0 && errno == EINTR);
+    const int write_errno = errno;
+    env->ReleasePrimitiveArrayCritical(buffer_array, buffer, JNI_ABORT);
+    if (written >= 0) return (jint) written;
+    return write_errno == EAGAIN ? 0 : -1;
+}
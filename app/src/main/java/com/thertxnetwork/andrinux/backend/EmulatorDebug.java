@@ -1,12 +0,0 @@
-package com.thertxnetwork.andrinux.backend;
-
-import android.util.Log;
-
-public final class EmulatorDebug {
-
-  /**
-   * The tag to use with {@link Log}.
-   */
-  public static final String LOG_TAG = "NeoTerm-Emulator";
-
-}
@@ -31,11 +31,21 @@ final class JNI {
   public static native void setPtyWindowSize(int fd, int rows, int cols);
 
   /**
-   * Causes the calling thread to wait for the process associated with the receiver to finish executing.
+   * Install a handler of SIGCHLD, chained to the one installed before if any, which signals the returned eventfd when
+   * a child process exits, so that {@link #reap(int, long[])} is called instead of waiting for each process. Returns
+   * the same eventfd if called again, installing the handler again if it has been replaced.
+   */
+  public static native int openChildExitFd();
+
+  /**
+   * Reap the process if it has exited, without waiting for it.
    *
-   * @return if >= 0, the exit status of the process. If < 0, the signal causing the process to stop negated.
+   * @param result where to write, if it has exited: the exit status if >= 0 or the signal causing the process to stop
+   *               negated, the user and system CPU time of the process in microseconds, and its largest resident set
+   *               size in kilobytes.
+   * @return whether the process has exited.
    */
-  public static native int waitFor(int processId);
+  public static native boolean reap(int processId, long[] result);
 
   /**
    * Close a file descriptor through the close(2) system call.
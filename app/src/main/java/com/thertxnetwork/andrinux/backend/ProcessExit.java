@@ -0,0 +1,57 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * The exit of the process of a session, as reaped by {@link JNI#reap(int, long[])}, with the resources it used.
+ */
+public final class ProcessExit {
+
+  private final int mExitStatus;
+  private final long mExitTimeMillis;
+  private final long mUserTimeMicros;
+  private final long mSystemTimeMicros;
+  private final long mMaxResidentKilobytes;
+
+  ProcessExit(long[] reaped, long exitTimeMillis) {
+    mExitStatus = (int) reaped[0];
+    mUserTimeMicros = reaped[1];
+    mSystemTimeMicros = reaped[2];
+    mMaxResidentKilobytes = reaped[3];
+    mExitTimeMillis = exitTimeMillis;
+  }
+
+  /**
+   * If >= 0, the exit status of the process. If < 0, the signal causing the process to stop negated.
+   */
+  public int getExitStatus() {
+    return mExitStatus;
+  }
+
+  /**
+   * When the process was reaped, as by {@link System#currentTimeMillis()}.
+   */
+  public long getExitTimeMillis() {
+    return mExitTimeMillis;
+  }
+
+  /**
+   * The CPU time of the process spent in user mode, in microseconds, including that of its reaped children.
+   */
+  public long getUserTimeMicros() {
+    return mUserTimeMicros;
+  }
+
+  /**
+   * The CPU time of the process spent in the kernel, in microseconds, including that of its reaped children.
+   */
+  public long getSystemTimeMicros() {
+    return mSystemTimeMicros;
+  }
+
+  /**
+   * The largest resident set size of the process, in kilobytes.
+   */
+  public long getMaxResidentKilobytes() {
+    return mMaxResidentKilobytes;
+  }
+
+}
@@ -0,0 +1,402 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transfers the I/O of the pseudoterminals of all sessions on a single thread, instead of a reader and a writer thread
+ * for each session. An epoll(7) loop in pty_multiplexer.cpp reads the output of all the ready pty masters in one call,
+ * each as much as the queue of its session has room for, and the output is then copied to the queues. Reading from a
+ * pty stops while its queue is full. Input written to the queues of the sessions is written to the pty masters without
+ * blocking, waiting for them to be writable as needed.
+ * <p>
+ * The loop also reaps the processes, when woken by the SIGCHLD handler of {@link JNI#openChildExitFd()}, instead of a
+ * thread waiting for each. C code is in pty_multiplexer.cpp.
+ */
+final class PtyMultiplexer {
+
+  static {
+    System.loadLibrary("neoterm");
+  }
+
+  /**
+   * Notified on the I/O thread, which must not be blocked.
+   */
+  interface Listener {
+    /**
+     * Output of the process has been written to the queue of the session.
+     */
+    void onProcessOutput();
+
+    /**
+     * The process has exited and been reaped.
+     */
+    void onProcessExited(ProcessExit exit);
+  }
+
+  /**
+   * A pty master and process transferred by the multiplexer, from {@link #register(int, int, ByteQueue, ByteQueue,
+   * Listener)} until {@link #unregister()}.
+   */
+  final class Registration {
+    final int mFileDescriptor;
+    final int mProcessId;
+    final ByteQueue mFromProcess;
+    final ByteQueue mToProcess;
+    final Listener mListener;
+
+    /**
+     * The state below is only accessed by the I/O thread, apart from {@link #mReadPaused}.
+     */
+    int mSlot = -1;
+    /**
+     * The events the pty master is in the epoll set for, 0 if it is not in it.
+     */
+    int mEvents;
+    boolean mEndOfInput, mOutputWritten;
+    final byte[] mInput = new byte[INPUT_BUFFER_BYTES];
+    /**
+     * The part of {@link #mInput} read from {@link #mToProcess} but not written to the pty yet.
+     */
+    int mInputOffset, mInputLength;
+    /**
+     * Set while reading from the pty is stopped since {@link #mFromProcess} is full, for {@link #outputRead()}.
+     */
+    volatile boolean mReadPaused;
+    final CountDownLatch mUnregistered = new CountDownLatch(1);
+
+    Registration(int fileDescriptor, int processId, ByteQueue fromProcess, ByteQueue toProcess, Listener listener) {
+      mFileDescriptor = fileDescriptor;
+      mProcessId = processId;
+      mFromProcess = fromProcess;
+      mToProcess = toProcess;
+      mListener = listener;
+    }
+
+    /**
+     * Signal that input has been written to the queue to the process.
+     */
+    void inputWritten() {
+      wake();
+    }
+
+    /**
+     * Signal that output has been read from the queue from the process, resuming reading from the pty if it was
+     * stopped for the queue being full.
+     */
+    void outputRead() {
+      if (mReadPaused) wake();
+    }
+
+    /**
+     * Stop transferring, waiting until the I/O thread no longer uses the file descriptor so that it may be closed.
+     */
+    void unregister() {
+      mRemovedRegistrations.add(this);
+      if (Thread.currentThread() == mThread) {
+        processRegistrations();
+        return;
+      }
+      wake();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          mUnregistered.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  static final int EVENT_READ = 1;
+  static final int EVENT_WRITE = 2;
+  /**
+   * The token of {@link JNI#openChildExitFd()}, those of the pty masters being their slots.
+   */
+  private static final int CHILD_EXIT_TOKEN = -2;
+  /**
+   * How often, while there are processes to reap, the handler of SIGCHLD is checked in case something replaced it, and
+   * the processes reaped in case a SIGCHLD was missed meanwhile.
+   */
+  private static final int CHILD_EXIT_CHECK_MILLIS = 5000;
+  /**
+   * The ints of each record reported by {@link #poll(int, int, int, int[], int[], byte[], int[], int)}.
+   */
+  private static final int RECORD_INTS = 4;
+  private static final int MAX_EVENTS = 64;
+  /**
+   * The most output read in one poll, for all sessions together.
+   */
+  private static final int READ_BUFFER_BYTES = 256 * 1024;
+  private static final int INPUT_BUFFER_BYTES = 4096;
+
+  private static PtyMultiplexer sInstance;
+
+  /**
+   * The multiplexer shared by all sessions, started on first use.
+   */
+  static synchronized PtyMultiplexer getInstance() {
+    if (sInstance == null) sInstance = new PtyMultiplexer();
+    return sInstance;
+  }
+
+  private final int mEpollFileDescriptor;
+  private final int mWakeFileDescriptor;
+  private final int mChildExitFileDescriptor;
+  private final Thread mThread;
+  /**
+   * Set from when the I/O thread is woken until it next polls, so that a burst of input wakes it once.
+   */
+  private final AtomicBoolean mWakePending = new AtomicBoolean();
+  private final ConcurrentLinkedQueue<Registration> mAddedRegistrations = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<Registration> mRemovedRegistrations = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The state below is only accessed by the I/O thread. The registrations are indexed by slot, free slots being null,
+   * and the slot of a registration indexes {@link #mRoom} and {@link #mFileDescriptors} for the native poll.
+   */
+  private final ArrayList<Registration> mSlots = new ArrayList<>();
+  /**
+   * The registrations whose process has not been reaped yet, by process id.
+   */
+  private final HashMap<Integer, Registration> mProcesses = new HashMap<>();
+  private final long[] mReaped = new long[4];
+  private int[] mRoom = new int[16];
+  private int[] mFileDescriptors = new int[16];
+  private final byte[] mReadBuffer = new byte[READ_BUFFER_BYTES];
+  private final int[] mResults = new int[MAX_EVENTS * RECORD_INTS];
+
+  PtyMultiplexer() {
+    mEpollFileDescriptor = createEpoll();
+    mWakeFileDescriptor = createWakeFd(mEpollFileDescriptor);
+    // The process class of the platform resets the handler of SIGCHLD to the default when initialized, so before:
+    for (String processClass : new String[]{"java.lang.ProcessImpl", "java.lang.UNIXProcess"}) {
+      try {
+        Class.forName(processClass, true, null);
+      } catch (ClassNotFoundException e) {
+        // Not the one of this platform.
+      }
+    }
+    mChildExitFileDescriptor = JNI.openChildExitFd();
+    setEvents(mEpollFileDescriptor, mChildExitFileDescriptor, CHILD_EXIT_TOKEN, 0, EVENT_READ);
+    mThread = new Thread(this::run, "TermSessionIO");
+    mThread.setDaemon(true);
+    mThread.start();
+  }
+
+  /**
+   * Start transferring the output of the pty master to the first queue and the input written to the second one to the
+   * pty master, which is made non-blocking, and reaping the process once it exits.
+   */
+  Registration register(int fileDescriptor, int processId, ByteQueue fromProcess, ByteQueue toProcess,
+                        Listener listener) {
+    setNonBlocking(fileDescriptor);
+    final Registration registration = new Registration(fileDescriptor, processId, fromProcess, toProcess, listener);
+    mAddedRegistrations.add(registration);
+    wake();
+    return registration;
+  }
+
+  private void wake() {
+    if (mWakePending.compareAndSet(false, true)) wake(mWakeFileDescriptor);
+  }
+
+  private void run() {
+    while (true) {
+      for (int slot = 0; slot < mSlots.size(); slot++) {
+        final Registration registration = mSlots.get(slot);
+        if (registration != null) mRoom[slot] = registration.mFromProcess.getFreeSpace();
+      }
+      final int records = poll(mEpollFileDescriptor, mWakeFileDescriptor, mChildExitFileDescriptor, mRoom,
+        mFileDescriptors, mReadBuffer, mResults, mProcesses.isEmpty() ? -1 : CHILD_EXIT_CHECK_MILLIS);
+      // Cleared before handling what woke the thread, so that whatever happens after is not missed:
+      mWakePending.set(false);
+      if (records == 0) {
+        JNI.openChildExitFd();
+        reapProcesses();
+      }
+
+      for (int i = 0; i < records; i++) {
+        final int token = mResults[RECORD_INTS * i];
+        if (token == CHILD_EXIT_TOKEN) {
+          reapProcesses();
+          continue;
+        }
+        final Registration registration = mSlots.get(token);
+        // Unregistered by the listener of an earlier record:
+        if (registration == null) continue;
+        final int length = mResults[RECORD_INTS * i + 3];
+        if (length > 0) {
+          // Never waits, since no more was read than the queue had room for:
+          registration.mFromProcess.write(mReadBuffer, mResults[RECORD_INTS * i + 2], length);
+          registration.mOutputWritten = true;
+        } else if (length == -1) {
+          registration.mEndOfInput = true;
+        }
+        if ((mResults[RECORD_INTS * i + 1] & EVENT_WRITE) != 0) writeInput(registration);
+      }
+
+      for (int slot = 0; slot < mSlots.size(); slot++) {
+        final Registration registration = mSlots.get(slot);
+        if (registration != null && registration.mOutputWritten) {
+          registration.mOutputWritten = false;
+          registration.mListener.onProcessOutput();
+        }
+      }
+
+      processRegistrations();
+      for (int slot = 0; slot < mSlots.size(); slot++) {
+        final Registration registration = mSlots.get(slot);
+        if (registration == null) continue;
+        writeInput(registration);
+        updateEvents(registration);
+      }
+    }
+  }
+
+  /**
+   * Write the input of the session to the pty master until it is all written or the pty would block.
+   */
+  private void writeInput(Registration registration) {
+    while (true) {
+      if (registration.mInputLength == 0) {
+        final int read = registration.mToProcess.read(registration.mInput, false);
+        if (read <= 0) return;
+        registration.mInputOffset = 0;
+        registration.mInputLength = read;
+      }
+      final int written = write(registration.mFileDescriptor, registration.mInput, registration.mInputOffset,
+        registration.mInputLength);
+      if (written == 0) return;
+      if (written < 0) {
+        // The pty is gone, drop the input as the writer thread did:
+        registration.mInputLength = 0;
+        continue;
+      }
+      registration.mInputOffset += written;
+      registration.mInputLength -= written;
+    }
+  }
+
+  /**
+   * Poll the pty master for reading while there is room for its output, and for writing while there is input which
+   * would have blocked.
+   */
+  private void updateEvents(Registration registration) {
+    int events = 0;
+    if (!registration.mEndOfInput) {
+      if (registration.mFromProcess.getFreeSpace() > 0) {
+        events |= EVENT_READ;
+      } else {
+        registration.mReadPaused = true;
+        // Unless the consumer read before seeing the flag:
+        if (registration.mFromProcess.getFreeSpace() > 0) events |= EVENT_READ;
+      }
+      if ((events & EVENT_READ) != 0) registration.mReadPaused = false;
+    }
+    if (registration.mInputLength > 0) events |= EVENT_WRITE;
+    if (events != registration.mEvents) {
+      setEvents(mEpollFileDescriptor, registration.mFileDescriptor, registration.mSlot, registration.mEvents, events);
+      registration.mEvents = events;
+    }
+  }
+
+  /**
+   * Reap the processes which have exited. Only the processes of the registrations are reaped, not any child, so as not
+   * to take the exits of processes started through {@link ProcessBuilder} from their waiting threads.
+   */
+  private void reapProcesses() {
+    // A copy, since a listener may unregister:
+    for (Registration registration : new ArrayList<>(mProcesses.values())) {
+      if (mProcesses.get(registration.mProcessId) == registration) reap(registration);
+    }
+  }
+
+  private void reap(Registration registration) {
+    if (!JNI.reap(registration.mProcessId, mReaped)) return;
+    mProcesses.remove(registration.mProcessId);
+    registration.mListener.onProcessExited(new ProcessExit(mReaped, System.currentTimeMillis()));
+  }
+
+  /**
+   * Add and remove the registrations requested by other threads.
+   */
+  private void processRegistrations() {
+    Registration registration;
+    while ((registration = mAddedRegistrations.poll()) != null) {
+      int slot = mSlots.indexOf(null);
+      if (slot == -1) {
+        slot = mSlots.size();
+        mSlots.add(null);
+        if (slot == mRoom.length) {
+          mRoom = Arrays.copyOf(mRoom, 2 * slot);
+          mFileDescriptors = Arrays.copyOf(mFileDescriptors, 2 * slot);
+        }
+      }
+      mSlots.set(slot, registration);
+      registration.mSlot = slot;
+      mFileDescriptors[slot] = registration.mFileDescriptor;
+      mProcesses.put(registration.mProcessId, registration);
+      // In case it exited before, its SIGCHLD having been handled already:
+      reap(registration);
+    }
+
+    // Registrations are always added before, having been queued before:
+    while ((registration = mRemovedRegistrations.poll()) != null) {
+      if (registration.mEvents != 0)
+        setEvents(mEpollFileDescriptor, registration.mFileDescriptor, registration.mSlot, registration.mEvents, 0);
+      mProcesses.remove(registration.mProcessId);
+      mSlots.set(registration.mSlot, null);
+      mRoom[registration.mSlot] = 0;
+      mFileDescriptors[registration.mSlot] = -1;
+      registration.mUnregistered.countDown();
+    }
+  }
+
+  private static native int createEpoll();
+
+  /**
+   * Create an eventfd added to the epoll set, for {@link #wake(int)}.
+   */
+  private static native int createWakeFd(int epollFileDescriptor);
+
+  private static native void wake(int wakeFileDescriptor);
+
+  private static native void setNonBlocking(int fileDescriptor);
+
+  /**
+   * Add the file descriptor to the epoll set, modify the events it is polled for, or remove it, depending on the old
+   * and new events of {@link #EVENT_READ} and {@link #EVENT_WRITE}.
+   */
+  private static native void setEvents(int epollFileDescriptor, int fileDescriptor, int token, int oldEvents,
+                                       int newEvents);
+
+  /**
+   * Wait for file descriptors of the epoll set to be ready, and read from the pty masters among them into the buffer
+   * without blocking, each pty up to its room. The eventfds of {@link #wake(int)} and {@link JNI#openChildExitFd()} are
+   * read from too, only the latter being reported.
+   *
+   * @param room            the most bytes to read from the pty master of each slot.
+   * @param fileDescriptors the pty master of each slot.
+   * @param results         where to write the records of the ready file descriptors: the token, the events, and the
+   *                        offset and length of what was read into the buffer, -1 at the end of input.
+   * @return the number of records.
+   */
+  private static native int poll(int epollFileDescriptor, int wakeFileDescriptor, int childExitFileDescriptor,
+                                 int[] room, int[] fileDescriptors, byte[] buffer, int[] results, int timeoutMillis);
+
+  /**
+   * Write to the file descriptor without blocking.
+   *
+   * @return the number of bytes written, 0 if it would block or -1 on error.
+   */
+  private static native int write(int fileDescriptor, byte[] buffer, int offset, int length);
+
+}
@@ -0,0 +1,190 @@
+package com.thertxnetwork.andrinux.backend;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shells spawned ahead of the sessions which will use them, so that opening a session does not wait for the shell to
+ * be spawned and to load its startup files. The shells idle on their pty until taken by a session with the same
+ * executable, working directory, arguments and environment, and are discarded after {@link #IDLE_TIMEOUT_MILLIS}.
+ * <p>
+ * Shells are spawned and discarded on a thread of the pool, and taken from any thread.
+ */
+final class ShellPool {
+
+  /**
+   * The most idle shells kept for each kind of session.
+   */
+  static final int MAX_SHELLS = 2;
+  private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  /**
+   * How long to wait between tries to reap a discarded shell, which exits some time after being killed.
+   */
+  private static final long REAP_RETRY_MILLIS = 1000;
+  private static final String LOG_TAG = "neoterm-shell-pool";
+
+  /**
+   * An idle shell, on the pty master of {@link #mFileDescriptor}.
+   */
+  static final class Shell {
+    final int mFileDescriptor;
+    final int mProcessId;
+
+    Shell(int fileDescriptor, int processId) {
+      mFileDescriptor = fileDescriptor;
+      mProcessId = processId;
+    }
+  }
+
+  /**
+   * What a shell is spawned with, which a session must match to take it.
+   */
+  private static final class Key {
+    final String mShellPath;
+    final String mCwd;
+    final String[] mArgs;
+    final String[] mEnv;
+
+    Key(String shellPath, String cwd, String[] args, String[] env) {
+      mShellPath = shellPath;
+      mCwd = cwd;
+      mArgs = args;
+      mEnv = env;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      final Key key = (Key) o;
+      return Objects.equals(mShellPath, key.mShellPath) && Objects.equals(mCwd, key.mCwd)
+        && Arrays.equals(mArgs, key.mArgs) && Arrays.equals(mEnv, key.mEnv);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Objects.hash(mShellPath, mCwd) + Arrays.hashCode(mArgs)) + Arrays.hashCode(mEnv);
+    }
+  }
+
+  private static ShellPool sInstance;
+
+  /**
+   * The pool shared by all sessions, started on first use.
+   */
+  static synchronized ShellPool getInstance() {
+    if (sInstance == null) sInstance = new ShellPool();
+    return sInstance;
+  }
+
+  private final ScheduledExecutorService mExecutor;
+  /**
+   * The idle shells, oldest first. Guarded by this.
+   */
+  private final HashMap<Key, ArrayDeque<Shell>> mShells = new HashMap<>();
+  private final long[] mReaped = new long[4];
+
+  private ShellPool() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "TermShellPool");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    mExecutor = executor;
+  }
+
+  /**
+   * Take an idle shell spawned for the given session, resizing its pty to the window.
+   *
+   * @return the shell, or null if there is none.
+   */
+  Shell take(String shellPath, String cwd, String[] args, String[] env, int rows, int columns) {
+    final Key key = new Key(shellPath, cwd, args, env);
+    while (true) {
+      final Shell shell;
+      synchronized (this) {
+        final ArrayDeque<Shell> shells = mShells.get(key);
+        shell = (shells == null) ? null : shells.pollFirst();
+      }
+      if (shell == null) return null;
+      // One which has exited meanwhile, as by being killed, is only reaped here:
+      synchronized (mReaped) {
+        if (JNI.reap(shell.mProcessId, mReaped)) {
+          JNI.close(shell.mFileDescriptor);
+          continue;
+        }
+      }
+      JNI.setPtyWindowSize(shell.mFileDescriptor, rows, columns);
+      return shell;
+    }
+  }
+
+  /**
+   * Spawn shells for the given session in the background until the given number of them are idle.
+   */
+  void fill(String shellPath, String cwd, String[] args, String[] env, int rows, int columns, int count) {
+    final Key key = new Key(shellPath, cwd, args, env);
+    final int size = Math.min(count, MAX_SHELLS);
+    mExecutor.execute(() -> {
+      while (true) {
+        synchronized (this) {
+          final ArrayDeque<Shell> shells = mShells.get(key);
+          if (shells != null && shells.size() >= size) return;
+        }
+        final Shell shell;
+        try {
+          int[] processId = new int[1];
+          int fileDescriptor = JNI.createSubprocess(shellPath, cwd, args, env, processId, rows, columns);
+          shell = new Shell(fileDescriptor, processId[0]);
+        } catch (RuntimeException e) {
+          Log.w(LOG_TAG, "Failed spawning an idle shell", e);
+          return;
+        }
+        synchronized (this) {
+          ArrayDeque<Shell> shells = mShells.get(key);
+          if (shells == null) mShells.put(key, shells = new ArrayDeque<>());
+          shells.addLast(shell);
+        }
+        mExecutor.schedule(() -> discard(key, shell), IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      }
+    });
+  }
+
+  /**
+   * Discard the shell if it has not been taken.
+   */
+  private void discard(Key key, Shell shell) {
+    synchronized (this) {
+      final ArrayDeque<Shell> shells = mShells.get(key);
+      if (shells == null || !shells.remove(shell)) return;
+      if (shells.isEmpty()) mShells.remove(key);
+    }
+    // Hanging up the pty lets the shell exit cleanly, and the kill makes sure it does:
+    JNI.close(shell.mFileDescriptor);
+    try {
+      Os.kill(shell.mProcessId, OsConstants.SIGKILL);
+    } catch (ErrnoException e) {
+      Log.w(LOG_TAG, "Failed sending SIGKILL: " + e.getMessage());
+    }
+    reap(shell);
+  }
+
+  private void reap(Shell shell) {
+    synchronized (mReaped) {
+      if (JNI.reap(shell.mProcessId, mReaped)) return;
+    }
+    mExecutor.schedule(() -> reap(shell), REAP_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+}
@@ -2,6 +2,7 @@ package com.thertxnetwork.andrinux.backend;
 
 import android.annotation.SuppressLint;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
 import android.system.ErrnoException;
 import android.system.Os;
@@ -9,15 +10,20 @@ import android.system.OsConstants;
 import android.util.Log;
 
 import java.io.*;
-import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A terminal session, consisting of a process coupled to a terminal interface.
  * <p>
  * The subprocess will be executed by the constructor, and when the size is made known by a call to
- * {@link #updateSize(int, int)} terminal emulation will begin and threads will be spawned to handle the subprocess I/O.
+ * {@link #updateSize(int, int)} terminal emulation will begin and the subprocess I/O will be transferred by the
+ * {@link PtyMultiplexer} shared by all sessions.
  * All terminal emulation and callback methods will be performed on the main thread.
  * <p>
  * The child process may be exited forcefully by using the {@link #finishIfRunning()} method.
@@ -26,6 +32,21 @@ import java.util.UUID;
  */
 public class TerminalSession extends TerminalOutput {
 
+  static {
+    // The emulator, in the Android-free :terminal-core module, logs through this:
+    EmulatorDebug.setLogger(new EmulatorDebug.Logger() {
+      @Override
+      public void warn(String message, Throwable error) {
+        Log.w(EmulatorDebug.LOG_TAG, message, error);
+      }
+
+      @Override
+      public void error(String message, Throwable error) {
+        Log.e(EmulatorDebug.LOG_TAG, message, error);
+      }
+    });
+  }
+
   /**
    * Callback to be invoked when a {@link TerminalSession} changes.
    */
@@ -42,49 +63,112 @@ public class TerminalSession extends TerminalOutput {
 
     void onColorsChanged(TerminalSession session);
 
-  }
+    /**
+     * Notified on the main thread while a paste longer than {@link TerminalSession#LARGE_PASTE_CHARS} is slowly written,
+     * and once when it is finished, whether complete or cancelled, if its progress was notified before.
+     */
+    void onPasteProgress(TerminalSession session, int pastedChars, int totalChars, boolean finished);
 
-  @SuppressWarnings("JavaReflectionMemberAccess")
-  private static FileDescriptor wrapFileDescriptor(int fileDescriptor) {
-    FileDescriptor result = new FileDescriptor();
-    try {
-      Field descriptorField;
-      try {
-        descriptorField = FileDescriptor.class.getDeclaredField("descriptor");
-      } catch (NoSuchFieldException e) {
-        // For desktop java:
-        descriptorField = FileDescriptor.class.getDeclaredField("fd");
-      }
-      descriptorField.setAccessible(true);
-      descriptorField.set(result, fileDescriptor);
-    } catch (NoSuchFieldException | IllegalAccessException | IllegalArgumentException e) {
-      Log.wtf(EmulatorDebug.LOG_TAG, "Error accessing FileDescriptor#descriptor private field", e);
-      System.exit(1);
-    }
-    return result;
   }
 
   private static final int MSG_NEW_INPUT = 1;
+  private static final int MSG_SCREEN_CHANGED = 2;
   private static final int MSG_PROCESS_EXITED = 4;
+  private static final int MSG_SYNCHRONIZED_UPDATE_TIMEOUT = 8;
+
+  /**
+   * The number of rows kept by the emulator of a session unless overridden by {@link #getTranscriptRows()}.
+   */
+  public static final int DEFAULT_TRANSCRIPT_ROWS = 2000;
+
+  /**
+   * The capacity of the queue of process output, large enough for the I/O thread to keep reading a burst of output
+   * while the main thread is busy drawing.
+   */
+  private static final int PROCESS_TO_TERMINAL_QUEUE_BYTES = 64 * 1024;
+  /**
+   * The capacity of the queue of input to the process, large enough to take a typical paste at once.
+   */
+  private static final int TERMINAL_TO_PROCESS_QUEUE_BYTES = 16 * 1024;
+  /**
+   * The most process output the emulator thread appends at once, bounding how long it holds the emulator lock.
+   */
+  private static final int EMULATOR_THREAD_CHUNK_BYTES = 16 * 1024;
+  /**
+   * The longest a screen change is held back while the application is in a synchronized update, in case it never ends
+   * the update.
+   */
+  private static final int SYNCHRONIZED_UPDATE_TIMEOUT_MILLIS = 150;
+  /**
+   * The length of a paste, in characters, above which its progress is notified, see
+   * {@link SessionChangedCallback#onPasteProgress(TerminalSession, int, int, boolean)}.
+   */
+  public static final int LARGE_PASTE_CHARS = 64 * 1024;
+  /**
+   * The bytes of a paste encoded and written at once.
+   */
+  private static final int PASTE_CHUNK_BYTES = 4096;
+  /**
+   * The least time between notifications of the progress of a paste, the first one included, so that a paste which
+   * the process reads quickly is not notified at all.
+   */
+  private static final long PASTE_PROGRESS_INTERVAL_NANOS = 200_000_000L;
 
   public final String mHandle = UUID.randomUUID().toString();
 
+  /**
+   * The emulator, which is also the lock guarding its state if {@link #isEmulatorThreadEnabled()}: it is then modified
+   * on a thread of its own while synchronized on it, and reading it from the main thread needs to synchronize on it.
+   */
   private TerminalEmulator mEmulator;
+  /**
+   * Whether a {@link #MSG_SCREEN_CHANGED} has been sent by the emulator thread but not yet handled, so that any number
+   * of appends are signaled to the main thread once.
+   */
+  private final AtomicBoolean mScreenChangedPending = new AtomicBoolean();
+  /**
+   * The spill of the transcript of {@link #mEmulator}, or null if it has none.
+   */
+  private TranscriptSpill mTranscriptSpill;
+  /**
+   * The recording of the output of the session, or null if not recording.
+   */
+  private AsciicastRecorder mRecorder;
 
   /**
-   * A queue written to from a separate thread when the process outputs, and read by main thread to process by
-   * terminal emulator.
+   * A queue written to from the I/O thread when the process outputs, and read by main thread to process by terminal
+   * emulator.
    */
-  private final ByteQueue mProcessToTerminalIOQueue = new ByteQueue(4096);
+  private final ByteQueue mProcessToTerminalIOQueue = new ByteQueue(PROCESS_TO_TERMINAL_QUEUE_BYTES);
   /**
-   * A queue written to from the main thread due to user interaction, and read by another thread which forwards by
-   * writing to the {@link #mTerminalFileDescriptor}.
+   * A queue written to from the main thread due to user interaction, and read by the I/O thread which forwards by
+   * writing to the {@link #mTerminalFileDescriptor}. Writes are synchronized on the queue, since the queue allows a
+   * single producer and {@link #write(byte[], int, int)} may be called from other threads than the main one.
    */
-  private final ByteQueue mTerminalToProcessIOQueue = new ByteQueue(4096);
+  private final ByteQueue mTerminalToProcessIOQueue = new ByteQueue(TERMINAL_TO_PROCESS_QUEUE_BYTES);
   /**
    * Buffer to write translate code points into utf8 before writing to mTerminalToProcessIOQueue
    */
   private final byte[] mUtf8InputBuffer = new byte[5];
+  /**
+   * Guards {@link #mInputExecutor}, {@link #mPendingInputTasks} and {@link #mPastes}.
+   */
+  private final Object mInputLock = new Object();
+  /**
+   * The thread writing pastes to {@link #mTerminalToProcessIOQueue}, waiting for room in the queue instead of the
+   * caller of {@link #paste(String)}, and the input written while a paste is in progress after it. Created on the
+   * first paste.
+   */
+  private ExecutorService mInputExecutor;
+  /**
+   * The number of tasks of {@link #mInputExecutor} not yet run through: while there are any, input is written by the
+   * executor too so that it stays in order.
+   */
+  private int mPendingInputTasks;
+  /**
+   * The pastes in progress or waiting, for {@link #cancelPaste()}.
+   */
+  private final ArrayList<PasteEncoder> mPastes = new ArrayList<>();
 
   public SessionChangedCallback getSessionChangedCallback() {
     return mChangeCallback;
@@ -101,9 +185,13 @@ public class TerminalSession extends TerminalOutput {
   private int mShellPid;
 
   /**
-   * The exit status of the executablePath process. Only valid if ${@link #mShellPid} is -1.
+   * The exit of the executablePath process. Only valid if ${@link #mShellPid} is -1.
    */
-  private int mShellExitStatus;
+  private ProcessExit mShellExit;
+  /**
+   * When the executablePath process was started, as by {@link System#currentTimeMillis()}.
+   */
+  private long mShellStartTimeMillis;
 
   /**
    * The file descriptor referencing the master half of a pseudo-terminal pair, resulting from calling
@@ -111,6 +199,11 @@ public class TerminalSession extends TerminalOutput {
    */
   private int mTerminalFileDescriptor;
 
+  /**
+   * The transfer of the I/O of {@link #mTerminalFileDescriptor} by the {@link PtyMultiplexer}.
+   */
+  private PtyMultiplexer.Registration mPty;
+
   /**
    * Set by the application for user identification of session, not by terminal.
    */
@@ -125,17 +218,28 @@ public class TerminalSession extends TerminalOutput {
       if (msg.what == MSG_NEW_INPUT && isRunning()) {
         int bytesRead = mProcessToTerminalIOQueue.read(mReceiveBuffer, false);
         if (bytesRead > 0) {
+          mPty.outputRead();
           mEmulator.append(mReceiveBuffer, bytesRead);
-          notifyScreenUpdate();
+          if (shouldNotifyAfterAppend(mEmulator.isScreenUpdateHeld())) notifyScreenUpdate();
+          // The I/O thread signals once for all it wrote to the queue at once, so continue after other messages:
+          if (bytesRead == mReceiveBuffer.length) sendEmptyMessage(MSG_NEW_INPUT);
         }
+      } else if (msg.what == MSG_SCREEN_CHANGED) {
+        mScreenChangedPending.set(false);
+        notifyScreenUpdate();
+      } else if (msg.what == MSG_SYNCHRONIZED_UPDATE_TIMEOUT) {
+        notifyScreenUpdate();
       } else if (msg.what == MSG_PROCESS_EXITED) {
-        int exitCode = (Integer) msg.obj;
-        cleanupResources(exitCode);
+        ProcessExit exit = (ProcessExit) msg.obj;
+        int exitCode = exit.getExitStatus();
+        cleanupResources(exit);
         mChangeCallback.onSessionFinished(TerminalSession.this);
 
         String exitDescription = getExitDescription(exitCode);
         byte[] bytesToWrite = exitDescription.getBytes(StandardCharsets.UTF_8);
-        mEmulator.append(bytesToWrite, bytesToWrite.length);
+        synchronized (mEmulator) {
+          mEmulator.append(bytesToWrite, bytesToWrite.length);
+        }
         notifyScreenUpdate();
       }
     }
@@ -163,7 +267,9 @@ public class TerminalSession extends TerminalOutput {
       initializeEmulator(columns, rows);
     } else {
       JNI.setPtyWindowSize(mTerminalFileDescriptor, rows, columns);
-      mEmulator.resize(columns, rows);
+      synchronized (mEmulator) {
+        mEmulator.resize(columns, rows);
+      }
     }
   }
 
@@ -174,6 +280,39 @@ public class TerminalSession extends TerminalOutput {
     return (mEmulator == null) ? null : mEmulator.getTitle();
   }
 
+  /**
+   * The number of rows kept by the emulator, including the screen. Rows of a long transcript are kept frozen and
+   * compressed by {@link TerminalBuffer}, so this may be in the hundreds of thousands. At least the rows of the screen
+   * and {@link TerminalBuffer#MAX_UNFROZEN_TRANSCRIPT_ROWS} more are kept, whatever this returns.
+   */
+  protected int getTranscriptRows() {
+    return DEFAULT_TRANSCRIPT_ROWS;
+  }
+
+  /**
+   * Whether to run the emulator on a thread of its own instead of the main thread, see {@link #mEmulator} for the
+   * locking this requires.
+   */
+  protected boolean isEmulatorThreadEnabled() {
+    return false;
+  }
+
+  /**
+   * Create where to keep the rows beyond {@link #getTranscriptRows()} instead of dropping them, or return null for no
+   * such spill. The spill is deleted on {@link #release()}.
+   */
+  protected TranscriptSpill createTranscriptSpill() {
+    return null;
+  }
+
+  /**
+   * The number of shells like the one of this session to keep spawned ahead by the {@link ShellPool}, at most
+   * {@link ShellPool#MAX_SHELLS}, so that the next such session starts at once. None by default.
+   */
+  protected int getShellPoolSize() {
+    return 0;
+  }
+
   /**
    * Set the terminal emulator's window size and start terminal emulation.
    *
@@ -181,62 +320,177 @@ public class TerminalSession extends TerminalOutput {
    * @param rows    The number of rows in the terminal window.
    */
   public void initializeEmulator(int columns, int rows) {
-    mEmulator = new TerminalEmulator(this, columns, rows, /* transcript= */2000);
+    mTranscriptSpill = createTranscriptSpill();
+    final int totalRows = Math.max(rows + TerminalBuffer.MAX_UNFROZEN_TRANSCRIPT_ROWS, getTranscriptRows());
+    mEmulator = new TerminalEmulator(this, columns, rows, totalRows, mTranscriptSpill);
+
+    final int shellPoolSize = getShellPoolSize();
+    final ShellPool.Shell shell = (shellPoolSize > 0)
+      ? ShellPool.getInstance().take(mShellPath, mCwd, mArgs, mEnv, rows, columns) : null;
+    if (shell != null) {
+      mTerminalFileDescriptor = shell.mFileDescriptor;
+      mShellPid = shell.mProcessId;
+    } else {
+      int[] processId = new int[1];
+      mTerminalFileDescriptor = JNI.createSubprocess(mShellPath, mCwd, mArgs, mEnv, processId, rows, columns);
+      mShellPid = processId[0];
+    }
+    mShellStartTimeMillis = System.currentTimeMillis();
+    if (shellPoolSize > 0) {
+      ShellPool.getInstance().fill(mShellPath, mCwd, mArgs, mEnv, rows, columns, shellPoolSize);
+    }
 
-    int[] processId = new int[1];
-    mTerminalFileDescriptor = JNI.createSubprocess(mShellPath, mCwd, mArgs, mEnv, processId, rows, columns);
-    mShellPid = processId[0];
+    final boolean emulatorThread = isEmulatorThreadEnabled();
 
-    final FileDescriptor terminalFileDescriptorWrapped = wrapFileDescriptor(mTerminalFileDescriptor);
+    mPty = PtyMultiplexer.getInstance().register(mTerminalFileDescriptor, mShellPid, mProcessToTerminalIOQueue,
+      mTerminalToProcessIOQueue, new PtyMultiplexer.Listener() {
+        @Override
+        public void onProcessOutput() {
+          if (!emulatorThread) mMainThreadHandler.sendEmptyMessage(MSG_NEW_INPUT);
+        }
 
-    new Thread("TermSessionInputReader[pid=" + mShellPid + "]") {
-      @Override
-      public void run() {
-        try (InputStream termIn = new FileInputStream(terminalFileDescriptorWrapped)) {
-          final byte[] buffer = new byte[4096];
+        @Override
+        public void onProcessExited(ProcessExit exit) {
+          mMainThreadHandler.sendMessage(mMainThreadHandler.obtainMessage(MSG_PROCESS_EXITED, exit));
+        }
+      });
+
+    if (emulatorThread) {
+      new Thread("TermSessionEmulator[pid=" + mShellPid + "]") {
+        @Override
+        public void run() {
+          final byte[] buffer = new byte[EMULATOR_THREAD_CHUNK_BYTES];
           while (true) {
-            int read = termIn.read(buffer);
+            int read = mProcessToTerminalIOQueue.read(buffer, true);
             if (read == -1) return;
-            if (!mProcessToTerminalIOQueue.write(buffer, 0, read)) return;
-            mMainThreadHandler.sendEmptyMessage(MSG_NEW_INPUT);
+            mPty.outputRead();
+            final boolean screenUpdateHeld;
+            synchronized (mEmulator) {
+              mEmulator.append(buffer, read);
+              screenUpdateHeld = mEmulator.isScreenUpdateHeld();
+            }
+            if (shouldNotifyAfterAppend(screenUpdateHeld) && !mScreenChangedPending.getAndSet(true))
+              mMainThreadHandler.sendEmptyMessage(MSG_SCREEN_CHANGED);
           }
-        } catch (Exception e) {
-          // Ignore, just shutting down.
         }
-      }
-    }.start();
+      }.start();
+    }
+  }
 
-    new Thread("TermSessionOutputWriter[pid=" + mShellPid + "]") {
-      @Override
-      public void run() {
-        final byte[] buffer = new byte[4096];
-        try (FileOutputStream termOut = new FileOutputStream(terminalFileDescriptorWrapped)) {
-          while (true) {
-            int bytesToWrite = mTerminalToProcessIOQueue.read(buffer, true);
-            if (bytesToWrite == -1) return;
-            termOut.write(buffer, 0, bytesToWrite);
-          }
-        } catch (IOException e) {
-          // Ignore.
+  /**
+   * Write data to the executablePath process, after any paste in progress.
+   */
+  @Override
+  public void write(byte[] data, int offset, int count) {
+    if (mShellPid > 0) {
+      synchronized (mInputLock) {
+        if (mPendingInputTasks > 0) {
+          final byte[] input = Arrays.copyOfRange(data, offset, offset + count);
+          submitInputTask(() -> writeToProcess(input, 0, input.length));
+          return;
         }
       }
-    }.start();
+      writeToProcess(data, offset, count);
+    }
+  }
 
-    new Thread("TermSessionWaiter[pid=" + mShellPid + "]") {
-      @Override
-      public void run() {
-        int processExitCode = JNI.waitFor(mShellPid);
-        mMainThreadHandler.sendMessage(mMainThreadHandler.obtainMessage(MSG_PROCESS_EXITED, processExitCode));
+  /**
+   * Paste the text, see {@link TerminalEmulator#createPaste(CharSequence)}, without waiting for the process to read it:
+   * it is encoded and written in chunks by a thread of the session as the process reads it. Input written meanwhile is
+   * written after the paste, which may be cancelled by {@link #cancelPaste()}.
+   */
+  public void paste(String text) {
+    if (mShellPid <= 0) return;
+    final PasteEncoder paste;
+    synchronized (mEmulator) {
+      paste = mEmulator.createPaste(text);
+    }
+    synchronized (mInputLock) {
+      if (submitInputTask(() -> writePaste(paste))) mPastes.add(paste);
+    }
+  }
+
+  /**
+   * Cancel the pastes in progress or waiting. What has already been written of a paste is still read by the process,
+   * followed by the end of the paste in bracketed paste mode.
+   */
+  public void cancelPaste() {
+    synchronized (mInputLock) {
+      for (PasteEncoder paste : mPastes) paste.cancel();
+    }
+  }
+
+  /**
+   * Write to {@link #mTerminalToProcessIOQueue} a half of it at most at a time, signaling the I/O thread after each
+   * part so that it is reading the queue by the time a write waits for room.
+   */
+  private boolean writeToProcess(byte[] data, int offset, int count) {
+    synchronized (mTerminalToProcessIOQueue) {
+      final int maxPart = mTerminalToProcessIOQueue.getCapacity() / 2;
+      for (int end = offset + count; offset < end; ) {
+        final int part = Math.min(end - offset, maxPart);
+        if (!mTerminalToProcessIOQueue.write(data, offset, part)) return false;
+        mPty.inputWritten();
+        offset += part;
       }
-    }.start();
+      return true;
+    }
   }
 
   /**
-   * Write data to the executablePath process.
+   * Run the task on {@link #mInputExecutor} after the tasks before, unless the process has exited. Must be called with
+   * {@link #mInputLock} held.
+   *
+   * @return whether the task was submitted.
    */
-  @Override
-  public void write(byte[] data, int offset, int count) {
-    if (mShellPid > 0) mTerminalToProcessIOQueue.write(data, offset, count);
+  private boolean submitInputTask(Runnable task) {
+    if (!isRunning()) return false;
+    if (mInputExecutor == null) {
+      final String threadName = "TermSessionInputWriter[pid=" + mShellPid + "]";
+      mInputExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+    }
+    mPendingInputTasks++;
+    mInputExecutor.execute(() -> {
+      try {
+        task.run();
+      } finally {
+        synchronized (mInputLock) {
+          mPendingInputTasks--;
+        }
+      }
+    });
+    return true;
+  }
+
+  /**
+   * Encode and write the paste on {@link #mInputExecutor}, notifying its progress if long enough.
+   */
+  private void writePaste(PasteEncoder paste) {
+    final int totalChars = paste.getLength();
+    final boolean largePaste = totalChars > LARGE_PASTE_CHARS;
+    boolean progressNotified = false;
+    long lastProgressTime = System.nanoTime();
+    try {
+      final byte[] buffer = new byte[PASTE_CHUNK_BYTES];
+      int length;
+      while ((length = paste.encode(buffer)) != -1) {
+        if (!writeToProcess(buffer, 0, length)) return;
+        if (largePaste && System.nanoTime() - lastProgressTime >= PASTE_PROGRESS_INTERVAL_NANOS) {
+          lastProgressTime = System.nanoTime();
+          progressNotified = true;
+          final int pastedChars = paste.getEncodedLength();
+          runOnMainThread(() -> mChangeCallback.onPasteProgress(this, pastedChars, totalChars, false));
+        }
+      }
+    } finally {
+      synchronized (mInputLock) {
+        mPastes.remove(paste);
+      }
+      if (progressNotified) {
+        final int pastedChars = paste.getEncodedLength();
+        runOnMainThread(() -> mChangeCallback.onPasteProgress(this, pastedChars, totalChars, true));
+      }
+    }
   }
 
   /**
@@ -282,6 +536,21 @@ public class TerminalSession extends TerminalOutput {
     return mEmulator;
   }
 
+  /**
+   * Decide, on the thread which appended to the emulator, whether to notify of the screen change now. While the
+   * emulator holds screen updates, see {@link TerminalEmulator#isScreenUpdateHeld()}, the change is instead notified
+   * after {@link #SYNCHRONIZED_UPDATE_TIMEOUT_MILLIS} unless the update ends before.
+   */
+  private boolean shouldNotifyAfterAppend(boolean screenUpdateHeld) {
+    if (!screenUpdateHeld) {
+      mMainThreadHandler.removeMessages(MSG_SYNCHRONIZED_UPDATE_TIMEOUT);
+      return true;
+    }
+    if (!mMainThreadHandler.hasMessages(MSG_SYNCHRONIZED_UPDATE_TIMEOUT))
+      mMainThreadHandler.sendEmptyMessageDelayed(MSG_SYNCHRONIZED_UPDATE_TIMEOUT, SYNCHRONIZED_UPDATE_TIMEOUT_MILLIS);
+    return false;
+  }
+
   /**
    * Notify the {@link #mChangeCallback} that the screen has changed.
    */
@@ -293,7 +562,9 @@ public class TerminalSession extends TerminalOutput {
    * Reset state for terminal emulator state.
    */
   public void reset() {
-    mEmulator.reset();
+    synchronized (mEmulator) {
+      mEmulator.reset();
+    }
     notifyScreenUpdate();
   }
 
@@ -311,6 +582,54 @@ public class TerminalSession extends TerminalOutput {
     }
   }
 
+  /**
+   * Record the output of the session, and its resizes, from now on to an asciicast file, replacing any recording in
+   * progress. See {@link AsciicastPlayer} to play it back.
+   */
+  public void startRecording(File file) throws IOException {
+    stopRecording();
+    final OutputStream out = new FileOutputStream(file);
+    synchronized (mEmulator) {
+      mRecorder = new AsciicastRecorder(out, mEmulator.mColumns, mEmulator.mRows);
+      mEmulator.setRecorder(mRecorder);
+    }
+  }
+
+  /**
+   * Stop a recording in progress, if any, waiting for it to be written.
+   *
+   * @throws IOException if writing the recording failed.
+   */
+  public void stopRecording() throws IOException {
+    final AsciicastRecorder recorder;
+    synchronized (mEmulator) {
+      recorder = mRecorder;
+      mRecorder = null;
+      mEmulator.setRecorder(null);
+    }
+    if (recorder != null) recorder.close();
+  }
+
+  /**
+   * Release what the session keeps beyond the lifetime of its process, such as the spill of its transcript. Called
+   * when the session is removed, after which its transcript may no longer be read.
+   */
+  public void release() {
+    if (mRecorder != null) {
+      try {
+        stopRecording();
+      } catch (IOException e) {
+        Log.w(EmulatorDebug.LOG_TAG, "Failed writing session recording", e);
+      }
+    }
+    if (mTranscriptSpill != null) {
+      synchronized (mEmulator) {
+        mTranscriptSpill.close();
+      }
+      mTranscriptSpill = null;
+    }
+  }
+
   protected String getExitDescription(int exitCode) {
     String exitDescription = "\r\n[Process completed";
     if (exitCode > 0) {
@@ -327,21 +646,37 @@ public class TerminalSession extends TerminalOutput {
   /**
    * Cleanup resources when the process exits.
    */
-  private void cleanupResources(int exitStatus) {
+  private void cleanupResources(ProcessExit exit) {
     synchronized (this) {
       mShellPid = -1;
-      mShellExitStatus = exitStatus;
+      mShellExit = exit;
     }
 
-    // Stop the reader and writer threads, and close the I/O streams
+    // Stop the transfer of I/O before closing the pty, whose file descriptor may then be reused
+    mPty.unregister();
     mTerminalToProcessIOQueue.close();
     mProcessToTerminalIOQueue.close();
+    synchronized (mInputLock) {
+      if (mInputExecutor != null) mInputExecutor.shutdown();
+    }
     JNI.close(mTerminalFileDescriptor);
   }
 
+  /**
+   * Run a callback on the main thread, now if already on it, since the emulator calls back on its own thread if
+   * {@link #isEmulatorThreadEnabled()}.
+   */
+  private void runOnMainThread(Runnable runnable) {
+    if (Looper.myLooper() == mMainThreadHandler.getLooper()) {
+      runnable.run();
+    } else {
+      mMainThreadHandler.post(runnable);
+    }
+  }
+
   @Override
   public void titleChanged(String oldTitle, String newTitle) {
-    mChangeCallback.onTitleChanged(this);
+    runOnMainThread(() -> mChangeCallback.onTitleChanged(this));
   }
 
   public synchronized boolean isRunning() {
@@ -352,22 +687,36 @@ public class TerminalSession extends TerminalOutput {
    * Only valid if not {@link #isRunning()}.
    */
   public synchronized int getExitStatus() {
-    return mShellExitStatus;
+    return (mShellExit == null) ? 0 : mShellExit.getExitStatus();
+  }
+
+  /**
+   * The exit of the process, with its time and the resources the process used, or null while {@link #isRunning()}.
+   */
+  public synchronized ProcessExit getProcessExit() {
+    return mShellExit;
+  }
+
+  /**
+   * When the process was started, as by {@link System#currentTimeMillis()}, or 0 if not started yet.
+   */
+  public long getStartTimeMillis() {
+    return mShellStartTimeMillis;
   }
 
   @Override
   public void clipboardText(String text) {
-    mChangeCallback.onClipboardText(this, text);
+    runOnMainThread(() -> mChangeCallback.onClipboardText(this, text));
   }
 
   @Override
   public void onBell() {
-    mChangeCallback.onBell(this);
+    runOnMainThread(() -> mChangeCallback.onBell(this));
   }
 
   @Override
   public void onColorsChanged() {
-    mChangeCallback.onColorsChanged(this);
+    runOnMainThread(() -> mChangeCallback.onColorsChanged(this));
   }
 
   public int getPid() {
@@ -137,7 +137,9 @@ open class NeoColorScheme : CodeGenObject, ConfigFileBasedObject {
       scheme.updateWith(foregroundColor, backgroundColor, cursorColor, color)
       val session = view.currentSession
       if (session != null && session.emulator != null) {
-        session.emulator.setColorScheme(scheme)
+        synchronized(session.emulator) {
+          session.emulator.setColorScheme(scheme)
+        }
       }
       view.setBackgroundColor(TerminalColors.parse(backgroundColor))
     }
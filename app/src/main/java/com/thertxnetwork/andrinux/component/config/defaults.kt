@@ -5,6 +5,11 @@ import android.content.Context
 
 object DefaultValues {
   const val fontSize = 30
+  const val transcriptRows = 2000
+  const val enableTranscriptSpill = false
+  const val transcriptSpillMegabytes = 256
+  const val enableEmulatorThread = false
+  const val shellPoolSize = 0
 
   const val enableBell = false
   const val enableVibrate = false
@@ -88,6 +93,10 @@ object NeoTermPath {
   val PROFILE_PATH: String
     get() = "$CUSTOM_PATH/profile"
 
+  @get:JvmStatic
+  val TRANSCRIPT_SPILL_PATH: String
+    get() = "$ROOT_PATH/transcript"
+
   @get:JvmStatic
   val SOURCE_FILE: String
     get() = "$USR_PATH/etc/apt/sources.list"
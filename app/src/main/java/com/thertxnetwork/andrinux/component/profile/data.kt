@@ -60,6 +60,10 @@ abstract class NeoProfile : CodeGenObject, ConfigFileBasedObject {
     return getProfileBoolean(key) ?: fallback
   }
 
+  protected fun ConfigVisitor.getProfileInt(key: String, fallback: Int): Int {
+    return getProfileInt(key) ?: fallback
+  }
+
   protected fun ConfigVisitor.getProfileString(key: String): String? {
     return this.getStringValue(profileMetaPath, key)
   }
@@ -67,4 +71,8 @@ abstract class NeoProfile : CodeGenObject, ConfigFileBasedObject {
   protected fun ConfigVisitor.getProfileBoolean(key: String): Boolean? {
     return this.getBooleanValue(profileMetaPath, key)
   }
+
+  protected fun ConfigVisitor.getProfileInt(key: String): Int? {
+    return this.getNumberValue(profileMetaPath, key)?.toInt()
+  }
 }
@@ -5,6 +5,7 @@ import com.thertxnetwork.andrinux.neolang.frontend.ConfigVisitor
 import com.thertxnetwork.andrinux.App
 import com.thertxnetwork.andrinux.R
 import com.thertxnetwork.andrinux.backend.TerminalSession
+import com.thertxnetwork.andrinux.backend.TranscriptSpill
 import com.thertxnetwork.andrinux.bridge.SessionId
 import com.thertxnetwork.andrinux.component.ComponentManager
 import com.thertxnetwork.andrinux.component.colorscheme.ColorSchemeComponent
@@ -14,7 +15,9 @@ import com.thertxnetwork.andrinux.component.config.NeoTermPath
 import com.thertxnetwork.andrinux.component.font.FontComponent
 import com.thertxnetwork.andrinux.component.profile.NeoProfile
 import com.thertxnetwork.andrinux.frontend.session.terminal.TermSessionCallback
+import com.thertxnetwork.andrinux.utils.NLog
 import java.io.File
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * @author kiva
@@ -99,6 +102,11 @@ class ShellProfile : NeoProfile() {
     private const val FONT = "font"
     private const val COLOR_SCHEME = "color-scheme"
     private const val WORD_BASED_IME = "word-based-ime"
+    private const val TRANSCRIPT_ROWS = "transcript-rows"
+    private const val TRANSCRIPT_SPILL = "transcript-spill"
+    private const val TRANSCRIPT_SPILL_MEGABYTES = "transcript-spill-megabytes"
+    private const val EMULATOR_THREAD = "emulator-thread"
+    private const val SHELL_POOL = "shell-pool"
 
     fun create(): ShellProfile {
       return ShellProfile()
@@ -119,6 +127,12 @@ class ShellProfile : NeoProfile() {
   var enableExtraKeys = DefaultValues.enableExtraKeys
   var enableWordBasedIme = DefaultValues.enableWordBasedIme
 
+  var transcriptRows = DefaultValues.transcriptRows
+  var enableTranscriptSpill = DefaultValues.enableTranscriptSpill
+  var transcriptSpillMegabytes = DefaultValues.transcriptSpillMegabytes
+  var enableEmulatorThread = DefaultValues.enableEmulatorThread
+  var shellPoolSize = DefaultValues.shellPoolSize
+
   var profileFont: String
   var profileColorScheme: String
 
@@ -153,6 +167,16 @@ class ShellProfile : NeoProfile() {
     enableBackKeyToEscape = configVisitor.getProfileBoolean(BACK_KEY_TO_ESC, enableBackKeyToEscape)
     enableExtraKeys = configVisitor.getProfileBoolean(EXTRA_KEYS, enableExtraKeys)
     enableWordBasedIme = configVisitor.getProfileBoolean(WORD_BASED_IME, enableWordBasedIme)
+    transcriptRows = configVisitor.getProfileInt(TRANSCRIPT_ROWS)?.let {
+      if (it > 0) it else {
+        NLog.w("Profile", "Ignoring non-positive $TRANSCRIPT_ROWS: $it")
+        null
+      }
+    } ?: transcriptRows
+    enableTranscriptSpill = configVisitor.getProfileBoolean(TRANSCRIPT_SPILL, enableTranscriptSpill)
+    transcriptSpillMegabytes = configVisitor.getProfileInt(TRANSCRIPT_SPILL_MEGABYTES, transcriptSpillMegabytes)
+    enableEmulatorThread = configVisitor.getProfileBoolean(EMULATOR_THREAD, enableEmulatorThread)
+    shellPoolSize = configVisitor.getProfileInt(SHELL_POOL, shellPoolSize)
     profileFont = configVisitor.getProfileString(FONT, profileFont)
     profileColorScheme = configVisitor.getProfileString(COLOR_SCHEME, profileColorScheme)
   }
@@ -177,6 +201,28 @@ open class ShellTermSession private constructor(
     sendInitialCommand(initialCommand)
   }
 
+  override fun getTranscriptRows(): Int {
+    return shellProfile.transcriptRows
+  }
+
+  override fun isEmulatorThreadEnabled(): Boolean {
+    return shellProfile.enableEmulatorThread
+  }
+
+  override fun getShellPoolSize(): Int {
+    return shellProfile.shellPoolSize
+  }
+
+  override fun createTranscriptSpill(): TranscriptSpill? {
+    if (!shellProfile.enableTranscriptSpill) {
+      return null
+    }
+    return TranscriptSpill(
+      File(NeoTermPath.TRANSCRIPT_SPILL_PATH, mHandle),
+      shellProfile.transcriptSpillMegabytes * 1024L * 1024L
+    )
+  }
+
   override fun getExitDescription(exitCode: Int): String {
     val builder = StringBuilder("\r\n[")
     val context = App.get()
@@ -203,6 +249,14 @@ open class ShellTermSession private constructor(
   }
 
   class Builder {
+    companion object {
+      /**
+       * The environment of new sessions apart from PWD, by whether for the system shell and with the execve(2) wrapper,
+       * which only depends on what does not change while the app runs.
+       */
+      private val environments = ConcurrentHashMap<Pair<Boolean, Boolean>, Array<String>>()
+    }
+
     private var executablePath: String? = null
     private var cwd: String? = null
     private var args: MutableList<String>? = null
@@ -325,8 +379,18 @@ open class ShellTermSession private constructor(
 
 
     private fun buildEnvironment(cwd: String?, systemShell: Boolean): Array<String> {
-      val selectedCwd = cwd ?: NeoTermPath.HOME_PATH
       File(NeoTermPath.HOME_PATH).mkdirs()
+      val environment = environments.getOrPut(Pair(systemShell, shellProfile.enableExecveWrapper)) {
+        buildBaseEnvironment(systemShell)
+      }
+      if (systemShell) {
+        return environment
+      }
+      val selectedCwd = cwd ?: NeoTermPath.HOME_PATH
+      return environment + "PWD=$selectedCwd"
+    }
+
+    private fun buildBaseEnvironment(systemShell: Boolean): Array<String> {
 
       val termEnv = "TERM=xterm-256color"
       val homeEnv = "HOME=" + NeoTermPath.HOME_PATH
@@ -354,7 +418,6 @@ open class ShellTermSession private constructor(
         val langEnv = "LANG=en_US.UTF-8"
         val pathEnv = "PATH=" + buildPathEnv()
         val ldEnv = "LD_LIBRARY_PATH=" + buildLdLibraryEnv()
-        val pwdEnv = "PWD=$selectedCwd"
         val tmpdirEnv = "TMPDIR=${NeoTermPath.USR_PATH}/tmp"
 
 
@@ -366,7 +429,7 @@ open class ShellTermSession private constructor(
         }
 
         arrayOf(
-          termEnv, homeEnv, ps1Env, ldEnv, langEnv, pathEnv, pwdEnv,
+          termEnv, homeEnv, ps1Env, ldEnv, langEnv, pathEnv,
           androidRootEnv, androidDataEnv, externalStorageEnv,
           tmpdirEnv, neotermIdEnv, originPathEnv, originLdEnv,
           ldPreloadEnv, prefixEnv, colorterm
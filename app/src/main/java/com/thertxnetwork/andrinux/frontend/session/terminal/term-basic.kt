@@ -33,6 +33,9 @@ open class BasicSessionCallback(var terminalView: TerminalView) : TerminalSessio
       terminalView.onScreenUpdated()
     }
   }
+
+  override fun onPasteProgress(session: TerminalSession?, pastedChars: Int, totalChars: Int, finished: Boolean) {
+  }
 }
 
 class BasicViewClient(val terminalView: TerminalView) : TerminalViewClient {
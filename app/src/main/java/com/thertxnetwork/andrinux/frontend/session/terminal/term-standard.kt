@@ -12,6 +12,7 @@ import android.view.KeyEvent
 import android.view.MotionEvent
 import android.view.View
 import android.view.inputmethod.InputMethodManager
+import com.google.android.material.snackbar.Snackbar
 import com.thertxnetwork.andrinux.BuildConfig
 import com.thertxnetwork.andrinux.R
 import com.thertxnetwork.andrinux.backend.KeyHandler
@@ -188,14 +189,12 @@ class TermViewClient(val context: Context) : TerminalViewClient {
       if (resultingKeyCode != -1) {
         if (session != null) {
           val term = session.emulator
-          session.write(
-            KeyHandler.getCode(
-              resultingKeyCode,
-              0,
-              term.isCursorKeysApplicationMode,
-              term.isKeypadApplicationMode
-            )
-          )
+          KeyHandler.getCodeBytes(
+            resultingKeyCode,
+            0,
+            term.isCursorKeysApplicationMode,
+            term.isKeypadApplicationMode
+          )?.let { session.write(it) }
         }
       } else if (resultingCodePoint != -1) {
         session?.writeCodePoint(altDown, resultingCodePoint)
@@ -287,6 +286,8 @@ class TermSessionCallback : TerminalSession.SessionChangedCallback {
 
   var bellController: BellController? = null
 
+  private var pasteSnackbar: Snackbar? = null
+
   override fun onTextChanged(changedSession: TerminalSession?) {
     termSessionData?.termView?.onScreenUpdated()
   }
@@ -326,6 +327,25 @@ class TermSessionCallback : TerminalSession.SessionChangedCallback {
       termView.onScreenUpdated()
     }
   }
+
+  override fun onPasteProgress(session: TerminalSession?, pastedChars: Int, totalChars: Int, finished: Boolean) {
+    val termView = termSessionData?.termView
+    if (finished || termView == null) {
+      pasteSnackbar?.dismiss()
+      pasteSnackbar = null
+      return
+    }
+
+    val text = termView.context.getString(R.string.paste_progress, (pastedChars * 100L / totalChars).toInt())
+    val snackbar = pasteSnackbar
+    if (snackbar == null) {
+      pasteSnackbar = Snackbar.make(termView, text, Snackbar.LENGTH_INDEFINITE)
+        .setAction(android.R.string.cancel) { session?.cancelPaste() }
+        .apply { show() }
+    } else {
+      snackbar.setText(text)
+    }
+  }
 }
 
 class BellController {
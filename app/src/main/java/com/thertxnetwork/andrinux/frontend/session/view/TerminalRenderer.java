@@ -3,9 +3,12 @@ package com.thertxnetwork.andrinux.frontend.session.view;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 import com.thertxnetwork.andrinux.backend.*;
 
+import java.util.Arrays;
+
 /**
  * Renderer of a {@link TerminalEmulator} into a {@link Canvas}.
  * <p/>
@@ -42,6 +45,16 @@ final class TerminalRenderer {
 
   private final float[] asciiMeasures = new float[127];
 
+  /**
+   * The text of the row being rendered, as the java chars of each cell one after another.
+   */
+  private char[] mLineChars = new char[256];
+
+  /**
+   * The clip bounds of the canvas being rendered to, outside of which rows are not drawn.
+   */
+  private final Rect mClipBounds = new Rect();
+
   public TerminalRenderer(int textSize, Typeface typeface) {
     mTextSize = textSize;
     mTypeface = typeface;
@@ -63,10 +76,12 @@ final class TerminalRenderer {
   }
 
   /**
-   * Render the terminal to a canvas with at a specified row scroll, and an optional rectangular selection.
+   * Render the terminal to a canvas with at a specified row scroll, and an optional rectangular selection. Only the
+   * rows intersecting the clip bounds of the canvas are drawn, see {@link #getRowTop(int)}.
    */
   public final void render(TerminalEmulator mEmulator, Canvas canvas, int topRow,
                            int selectionY1, int selectionY2, int selectionX1, int selectionX2) {
+    if (!canvas.getClipBounds(mClipBounds)) return;
     final boolean reverseVideo = mEmulator.isReverseVideo();
     final int endRow = topRow + mEmulator.mRows;
     final int columns = mEmulator.mColumns;
@@ -83,6 +98,7 @@ final class TerminalRenderer {
     float heightOffset = mFontLineSpacingAndAscent;
     for (int row = topRow; row < endRow; row++) {
       heightOffset += mFontLineSpacing;
+      if (heightOffset <= mClipBounds.top || heightOffset - mFontLineSpacing >= mClipBounds.bottom) continue;
 
       final int cursorX = (row == cursorRow && cursorVisible) ? cursorCol : -1;
       int selx1 = -1, selx2 = -1;
@@ -91,9 +107,8 @@ final class TerminalRenderer {
         selx2 = (row == selectionY2) ? selectionX2 : mEmulator.mColumns;
       }
 
-      TerminalRow lineObject = screen.allocateFullLineIfNecessary(screen.externalToInternalRow(row));
-      final char[] line = lineObject.mText;
-      final int charsUsedInLine = lineObject.getSpaceUsed();
+      TerminalRow lineObject = screen.getRow(row);
+      char[] line = mLineChars;
 
       long lastRunStyle = 0;
       boolean lastRunInsideCursor = false;
@@ -104,14 +119,18 @@ final class TerminalRenderer {
       float measuredWidthForRun = 0.f;
 
       for (int column = 0; column < columns; ) {
-        final char charAtIndex = line[currentCharIndex];
-        final boolean charIsHighsurrogate = Character.isHighSurrogate(charAtIndex);
-        final int charsForCodePoint = charIsHighsurrogate ? 2 : 1;
-        final int codePoint = charIsHighsurrogate ? Character.toCodePoint(charAtIndex, line[currentCharIndex + 1]) : charAtIndex;
-        final int codePointWcWidth = WcWidth.width(codePoint);
+        final int codePoint = lineObject.getCodePoint(column);
+        final int charsForCodePoint = Character.charCount(codePoint);
+        final int codePointWcWidth = lineObject.getWidth(column);
         final boolean insideCursor = (column >= selx1 && column <= selx2) || (cursorX == column || (codePointWcWidth == 2 && cursorX == column + 1));
         final long style = lineObject.getStyle(column);
 
+        // Copy the text of the cell, including combining chars, so that it is drawn as part of the run.
+        final int charsForCell = lineObject.getCharCount(column);
+        if (currentCharIndex + charsForCell > line.length)
+          mLineChars = line = Arrays.copyOf(line, Math.max(2 * line.length, currentCharIndex + charsForCell));
+        lineObject.getChars(column, line, currentCharIndex);
+
         // Check if the measured text width for this code point is not the same as that expected by wcwidth().
         // This could happen for some fonts which are not truly monospace, or for more exotic characters such as
         // smileys which android font renders as wide.
@@ -139,13 +158,10 @@ final class TerminalRenderer {
           lastRunFontWidthMismatch = fontWidthMismatch;
         }
         measuredWidthForRun += measuredCodePointWidth;
+        // Combining chars are treated as part of the last non-combining code point, instead of e.g. being
+        // considered inside the cursorColor in the next run.
         column += codePointWcWidth;
-        currentCharIndex += charsForCodePoint;
-        while (currentCharIndex < charsUsedInLine && WcWidth.width(line, currentCharIndex) <= 0) {
-          // Eat combining chars so that they are treated as part of the last non-combining code point,
-          // instead of e.g. being considered inside the cursorColor in the next run.
-          currentCharIndex += Character.isHighSurrogate(line[currentCharIndex]) ? 2 : 1;
-        }
+        currentCharIndex += charsForCell;
       }
 
       final int columnWidthSinceLastRun = columns - lastRunStartColumn;
@@ -156,6 +172,14 @@ final class TerminalRenderer {
     }
   }
 
+  /**
+   * Return the top of a row on the screen, counted from the top row rendered, in pixels. The row extends
+   * {@link #mFontLineSpacing} down from there.
+   */
+  int getRowTop(int row) {
+    return mFontLineSpacingAndAscent + row * mFontLineSpacing;
+  }
+
   private void drawTextRun(Canvas canvas, char[] text, int[] palette, float y, int startColumn, int runWidthColumns,
                            int startCharIndex, int runWidthChars, float mes, int cursor, int cursorStyle,
                            long textStyle, boolean reverseVideo) {
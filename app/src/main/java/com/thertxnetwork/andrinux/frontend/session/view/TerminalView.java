@@ -25,6 +25,8 @@ import com.thertxnetwork.andrinux.R;
 import com.thertxnetwork.andrinux.backend.*;
 import com.thertxnetwork.andrinux.component.completion.OnAutoCompleteListener;
 
+import java.util.Arrays;
+
 /**
  * View displaying and interacting with a {@link TerminalSession}.
  */
@@ -35,6 +37,11 @@ public final class TerminalView extends View {
    */
   private static final boolean LOG_KEY_EVENTS = false;
 
+  /**
+   * The time spent reflowing the transcript after a resize in each frame, see {@link TerminalEmulator#continueReflow(long)}.
+   */
+  private static final long REFLOW_NANOS_PER_FRAME = 4_000_000;
+
   /**
    * The currently displayed terminal session, whose emulator is {@link #mEmulator}.
    */
@@ -92,6 +99,38 @@ public final class TerminalView extends View {
 
   private boolean mAccessibilityEnabled;
 
+  /**
+   * Whether a frame callback applying the screen updates is posted, coalescing any number of {@link #onScreenUpdated()}
+   * calls until the next frame.
+   */
+  private boolean mScreenUpdateScheduled;
+  private long mScreenUpdateNotifications;
+  private long mScreenUpdateFrames;
+  private final Choreographer.FrameCallback mScreenUpdateCallback = new Choreographer.FrameCallback() {
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      mScreenUpdateScheduled = false;
+      mScreenUpdateFrames++;
+      boolean reflowPending = false;
+      if (mEmulator != null) {
+        synchronized (mEmulator) {
+          reflowPending = mEmulator.continueReflow(System.nanoTime() + REFLOW_NANOS_PER_FRAME);
+        }
+      }
+      applyScreenUpdate();
+      if (reflowPending) scheduleScreenUpdate();
+    }
+  };
+
+  /**
+   * What the screen was drawn with as of the last {@link #invalidateScreenDamage(boolean)}, besides the rows which the
+   * buffer tracks itself.
+   */
+  private TerminalBuffer mDamageScreen;
+  private int mDamageCursorRow = -1;
+  private boolean mDamageReverseVideo;
+  private int[] mDamageColors;
+
   public TerminalView(Context context) {
     super(context);
     commonInit(context);
@@ -116,7 +155,7 @@ public final class TerminalView extends View {
       public boolean onUp(MotionEvent e) {
         mScrollRemainder = 0.0f;
         // 只有在没有选中文字的时候可以发送鼠标事件： !isSelectingText
-        if (mEmulator != null && mEmulator.isMouseTrackingActive() && !mIsSelectingText && !scrolledWithFinger) {
+        if (mEmulator != null && isMouseTrackingActive() && !mIsSelectingText && !scrolledWithFinger) {
           // Quick event processing when mouse tracking is active - do not wait for check of double tapping
           // for zooming.
           sendMouseEventCode(e, TerminalEmulator.MOUSE_LEFT_BUTTON, true);
@@ -135,7 +174,7 @@ public final class TerminalView extends View {
           return true;
         }
         requestFocus();
-        if (!mEmulator.isMouseTrackingActive()) {
+        if (!isMouseTrackingActive()) {
           if (!e.isFromSource(InputDevice.SOURCE_MOUSE)) {
             mClient.onSingleTapUp(e);
             return true;
@@ -149,7 +188,7 @@ public final class TerminalView extends View {
         // 如果在选择文字时，不允许滑动屏幕，因为文字选择器需要滑动
         if (mEmulator == null || mIsSelectingText) return true;
 
-        if (mEmulator.isMouseTrackingActive() && e.isFromSource(InputDevice.SOURCE_MOUSE)) {
+        if (isMouseTrackingActive() && e.isFromSource(InputDevice.SOURCE_MOUSE)) {
           // If moving with mouse pointer while pressing button, report that instead of scroll.
           // This means that we never report moving with button press-events for touch input,
           // since we cannot just start sending these events without a starting press event,
@@ -184,12 +223,16 @@ public final class TerminalView extends View {
         // Do not start scrolling until last fling has been taken care of:
         if (!mScroller.isFinished()) return true;
 
-        final boolean mouseTrackingAtStartOfFling = mEmulator.isMouseTrackingActive();
+        final boolean mouseTrackingAtStartOfFling = isMouseTrackingActive();
         float SCALE = 0.25f;
         if (mouseTrackingAtStartOfFling) {
           mScroller.fling(0, 0, 0, -(int) (velocityY * SCALE), 0, 0, -mEmulator.mRows / 2, mEmulator.mRows / 2);
         } else {
-          mScroller.fling(0, mTopRow, 0, -(int) (velocityY * SCALE), 0, 0, -mEmulator.getScreen().getActiveTranscriptRows(), 0);
+          final int transcriptRows;
+          synchronized (mEmulator) {
+            transcriptRows = mEmulator.getScreen().getActiveTranscriptRows();
+          }
+          mScroller.fling(0, mTopRow, 0, -(int) (velocityY * SCALE), 0, 0, -transcriptRows, 0);
         }
 
         post(new Runnable() {
@@ -197,7 +240,7 @@ public final class TerminalView extends View {
 
           @Override
           public void run() {
-            if (mouseTrackingAtStartOfFling != mEmulator.isMouseTrackingActive()) {
+            if (mouseTrackingAtStartOfFling != isMouseTrackingActive()) {
               mScroller.abortAnimation();
               return;
             }
@@ -233,7 +276,7 @@ public final class TerminalView extends View {
       // e.g in vim, we can change window size with fingers moving.
       @Override
       public boolean onDoubleTapEvent(MotionEvent e) {
-        if (mEmulator.isMouseTrackingActive() && !e.isFromSource(InputDevice.SOURCE_MOUSE)) {
+        if (isMouseTrackingActive() && !e.isFromSource(InputDevice.SOURCE_MOUSE)) {
           switch (e.getAction()) {
             case MotionEvent.ACTION_DOWN:
               doubleTapX = e.getX();
@@ -442,67 +485,154 @@ public final class TerminalView extends View {
     return mEmulator == null ? 1 : mEmulator.getScreen().getActiveRows() + mTopRow - mEmulator.mRows;
   }
 
+  /**
+   * Called when the emulator screen has changed, which is applied at the next frame, or once attached to a window.
+   */
   public void onScreenUpdated() {
-    if (mEmulator == null) return;
-    boolean skipScrolling = false;
-    boolean isScreenHeld = false;
+    mScreenUpdateNotifications++;
+    scheduleScreenUpdate();
+  }
 
-    // currentScroll 记录了当前滚动到的位置
-    // expectedScroll 记录了假设一直跟随输出滚动在最底部时的滚动位置
-    // 如果二者不一样，即 mTop != 0，则说明用户在脚本输出的时候滚动了屏幕
-    // 很有可能时用户需要观察上面脚本的输出结果
-    // 那么这个时候我们就不跟随输出滚动屏幕
-    // int currentScroll = computeVerticalScrollOffset();
-    // int expectedScroll = mEmulator.getScreen().getActiveRows() - mEmulator.mRows;
+  /**
+   * The number of {@link #onScreenUpdated()} calls, see {@link #getScreenUpdateFrames()}.
+   */
+  public long getScreenUpdateNotifications() {
+    return mScreenUpdateNotifications;
+  }
 
-    if (mTopRow != 0) {
-      isScreenHeld = true;
+  /**
+   * The number of frames in which screen updates were applied.
+   */
+  public long getScreenUpdateFrames() {
+    return mScreenUpdateFrames;
+  }
+
+  private void scheduleScreenUpdate() {
+    if (mEmulator == null || mScreenUpdateScheduled || !isAttachedToWindow()) return;
+    mScreenUpdateScheduled = true;
+    Choreographer.getInstance().postFrameCallback(mScreenUpdateCallback);
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    // Catch up with what changed while not attached.
+    scheduleScreenUpdate();
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    if (mScreenUpdateScheduled) {
+      Choreographer.getInstance().removeFrameCallback(mScreenUpdateCallback);
+      mScreenUpdateScheduled = false;
     }
+  }
+
+  /**
+   * Apply the scroll counter of the emulator and invalidate what changed of the view.
+   */
+  private void applyScreenUpdate() {
+    if (mEmulator == null) return;
+    // The emulator may be appended to on a thread of its own, see TerminalSession#isEmulatorThreadEnabled().
+    synchronized (mEmulator) {
+      final int previousTopRow = mTopRow;
+      // The transcript may have fewer rows after being reflowed:
+      mTopRow = Math.max(mTopRow, -mEmulator.getScreen().getActiveTranscriptRows());
+      boolean skipScrolling = false;
+      boolean isScreenHeld = false;
+
+      // currentScroll 记录了当前滚动到的位置
+      // expectedScroll 记录了假设一直跟随输出滚动在最底部时的滚动位置
+      // 如果二者不一样，即 mTop != 0，则说明用户在脚本输出的时候滚动了屏幕
+      // 很有可能时用户需要观察上面脚本的输出结果
+      // 那么这个时候我们就不跟随输出滚动屏幕
+      // int currentScroll = computeVerticalScrollOffset();
+      // int expectedScroll = mEmulator.getScreen().getActiveRows() - mEmulator.mRows;
+
+      if (mTopRow != 0) {
+        isScreenHeld = true;
+      }
 
-    if (mIsSelectingText || isScreenHeld) {
-      // Do not scroll when selecting text.
-      int rowsInHistory = mEmulator.getScreen().getActiveTranscriptRows();
-      int rowShift = mEmulator.getScrollCounter();
-      if (-mTopRow + rowShift > rowsInHistory) {
-        // .. unless we're hitting the end of history transcript, in which
-        // case we abort text selection and scroll to end.
+      if (mIsSelectingText || isScreenHeld) {
+        // Do not scroll when selecting text.
+        int rowsInHistory = mEmulator.getScreen().getActiveTranscriptRows();
+        int rowShift = mEmulator.getScrollCounter();
+        if (-mTopRow + rowShift > rowsInHistory) {
+          // .. unless we're hitting the end of history transcript, in which
+          // case we abort text selection and scroll to end.
+
+          // 只当是因为选择文字而停止滚动时才取消选择文字
+          if (mIsSelectingText) {
+            toggleSelectingText(null);
+          }
+        } else {
+          skipScrolling = true;
+          mTopRow -= rowShift;
+          mSelY1 -= rowShift;
+          mSelY2 -= rowShift;
+        }
 
-        // 只当是因为选择文字而停止滚动时才取消选择文字
-        if (mIsSelectingText) {
-          toggleSelectingText(null);
+        // 不滚动屏幕，但要让滚动条显示来告诉用户脚本在输出
+        if (isScreenHeld) {
+          awakenScrollBars();
         }
-      } else {
-        skipScrolling = true;
-        mTopRow -= rowShift;
-        mSelY1 -= rowShift;
-        mSelY2 -= rowShift;
       }
 
-      // 不滚动屏幕，但要让滚动条显示来告诉用户脚本在输出
-      if (isScreenHeld) {
-        awakenScrollBars();
+      if (!skipScrolling && mTopRow != 0) {
+        // Scroll down if not already there.
+        if (mTopRow < -3) {
+          // Awaken scroll bars only if scrolling a noticeable amount
+          // - we do not want visible scroll bars during normal typing
+          // of one row at a time.
+          awakenScrollBars();
+        }
+        mTopRow = 0;
       }
-    }
 
-    if (!skipScrolling && mTopRow != 0) {
-      // Scroll down if not already there.
-      if (mTopRow < -3) {
-        // Awaken scroll bars only if scrolling a noticeable amount
-        // - we do not want visible scroll bars during normal typing
-        // of one row at a time.
-        awakenScrollBars();
+      mEmulator.clearScrollCounter();
+      invalidateScreenDamage(previousTopRow != 0 || mTopRow != 0 || mIsSelectingText);
+
+      // Basic accessibility service
+      String contentText = mEmulator.getScreen()
+        .getSelectedText(0, mTopRow, mEmulator.mColumns, mTopRow + mEmulator.mRows);
+      if (mAccessibilityEnabled) {
+        setContentDescription(contentText);
       }
-      mTopRow = 0;
     }
+  }
 
-    mEmulator.clearScrollCounter();
-    invalidate();
+  /**
+   * Invalidate the rows changed since the last call and those with the cursor before and after, or all of the view if
+   * asked to or if the screen scrolled or changed as a whole. Called while synchronized on {@link #mEmulator}.
+   */
+  private void invalidateScreenDamage(boolean invalidateAll) {
+    final TerminalBuffer screen = mEmulator.getScreen();
+    final int[] colors = mEmulator.mColors.mCurrentColors;
+    final boolean reverseVideo = mEmulator.isReverseVideo();
+    final int cursorRow = mEmulator.isShowingCursor() ? mEmulator.getCursorRow() : -1;
+
+    if (invalidateAll || screen != mDamageScreen || screen.getDamageShift() != 0 || reverseVideo != mDamageReverseVideo
+      || !Arrays.equals(colors, mDamageColors)) {
+      invalidate();
+    } else {
+      final int width = getWidth();
+      for (int row = 0; row < mEmulator.mRows; row++) {
+        if (row == cursorRow || row == mDamageCursorRow || screen.isRowDamaged(row)) {
+          int top = mRenderer.getRowTop(row);
+          invalidate(0, top, width, top + mRenderer.mFontLineSpacing);
+        }
+      }
+    }
 
-    // Basic accessibility service
-    String contentText = mEmulator.getScreen()
-      .getSelectedText(0, mTopRow, mEmulator.mColumns, mTopRow + mEmulator.mRows);
-    if (mAccessibilityEnabled) {
-      setContentDescription(contentText);
+    screen.clearDamage();
+    mDamageScreen = screen;
+    mDamageCursorRow = cursorRow;
+    mDamageReverseVideo = reverseVideo;
+    if (mDamageColors == null || mDamageColors.length != colors.length) {
+      mDamageColors = colors.clone();
+    } else {
+      System.arraycopy(colors, 0, mDamageColors, 0, colors.length);
     }
   }
 
@@ -553,7 +683,18 @@ public final class TerminalView extends View {
         mMouseScrollStartY = y;
       }
     }
-    mEmulator.sendMouseEvent(button, x, y, pressed);
+    synchronized (mEmulator) {
+      mEmulator.sendMouseEvent(button, x, y, pressed);
+    }
+  }
+
+  /**
+   * Whether the emulator reports mouse events, read under its lock as it may be run on a thread of its own.
+   */
+  private boolean isMouseTrackingActive() {
+    synchronized (mEmulator) {
+      return mEmulator.isMouseTrackingActive();
+    }
   }
 
   /**
@@ -562,15 +703,22 @@ public final class TerminalView extends View {
   void doScroll(MotionEvent event, int rowsDown) {
     boolean up = rowsDown < 0;
     int amount = Math.abs(rowsDown);
+    final boolean mouseTracking, alternateBuffer;
+    final int transcriptRows;
+    synchronized (mEmulator) {
+      mouseTracking = mEmulator.isMouseTrackingActive();
+      alternateBuffer = mEmulator.isAlternateBufferActive();
+      transcriptRows = mEmulator.getScreen().getActiveTranscriptRows();
+    }
     for (int i = 0; i < amount; i++) {
-      if (mEmulator.isMouseTrackingActive()) {
+      if (mouseTracking) {
         sendMouseEventCode(event, up ? TerminalEmulator.MOUSE_WHEELUP_BUTTON : TerminalEmulator.MOUSE_WHEELDOWN_BUTTON, true);
-      } else if (mEmulator.isAlternateBufferActive()) {
+      } else if (alternateBuffer) {
         // Send up and down key events for scrolling, which is what some terminals do to make scroll work in
         // e.g. less, which shifts to the alt screen without mouse handling.
         handleKeyCode(up ? KeyEvent.KEYCODE_DPAD_UP : KeyEvent.KEYCODE_DPAD_DOWN, 0);
       } else {
-        mTopRow = Math.min(0, Math.max(-(mEmulator.getScreen().getActiveTranscriptRows()), mTopRow + (up ? -1 : 1)));
+        mTopRow = Math.min(0, Math.max(-transcriptRows, mTopRow + (up ? -1 : 1)));
         if (!awakenScrollBars()) invalidate();
       }
     }
@@ -656,7 +804,7 @@ public final class TerminalView extends View {
         return true;
       } else if (ev.isButtonPressed(MotionEvent.BUTTON_TERTIARY)) {
         pasteFromClipboard();
-      } else if (mEmulator.isMouseTrackingActive()) { // BUTTON_PRIMARY.
+      } else if (isMouseTrackingActive()) { // BUTTON_PRIMARY.
         switch (ev.getAction()) {
           case MotionEvent.ACTION_DOWN:
           case MotionEvent.ACTION_UP:
@@ -682,7 +830,7 @@ public final class TerminalView extends View {
     ClipData clipData = clipboard.getPrimaryClip();
     if (clipData != null) {
       CharSequence paste = clipData.getItemAt(0).coerceToText(getContext());
-      if (!TextUtils.isEmpty(paste)) mEmulator.paste(paste.toString());
+      if (!TextUtils.isEmpty(paste)) mTermSession.paste(paste.toString());
     }
   }
 
@@ -848,7 +996,12 @@ public final class TerminalView extends View {
    */
   public boolean handleKeyCode(int keyCode, int keyMod) {
     TerminalEmulator term = mTermSession.getEmulator();
-    String code = KeyHandler.getCode(keyCode, keyMod, term.isCursorKeysApplicationMode(), term.isKeypadApplicationMode());
+    final boolean cursorApp, keypadApplication;
+    synchronized (term) {
+      cursorApp = term.isCursorKeysApplicationMode();
+      keypadApplication = term.isKeypadApplicationMode();
+    }
+    byte[] code = KeyHandler.getCodeBytes(keyCode, keyMod, cursorApp, keypadApplication);
     if (code == null) return false;
     mTermSession.write(code);
     scrollToBottomIfNeeded();
@@ -922,6 +1075,8 @@ public final class TerminalView extends View {
       mTopRow = 0;
       scrollTo(0, 0);
       invalidate();
+      // Reflow the rest of the transcript in the frames to come:
+      scheduleScreenUpdate();
     }
   }
 
@@ -930,7 +1085,10 @@ public final class TerminalView extends View {
     if (mEmulator == null) {
       canvas.drawColor(0XFF000000);
     } else {
-      mRenderer.render(mEmulator, canvas, mTopRow, mSelY1, mSelY2, mSelX1, mSelX2);
+      synchronized (mEmulator) {
+        mTopRow = Math.max(mTopRow, -mEmulator.getScreen().getActiveTranscriptRows());
+        mRenderer.render(mEmulator, canvas, mTopRow, mSelY1, mSelY2, mSelX1, mSelX2);
+      }
 
       if (mIsSelectingText) {
         final int gripHandleWidth = mLeftSelectionHandle.getIntrinsicWidth();
@@ -972,14 +1130,16 @@ public final class TerminalView extends View {
       mSelX1 = mSelX2 = cx;
       mSelY1 = mSelY2 = cy;
 
-      TerminalBuffer screen = mEmulator.getScreen();
-      if (!" ".equals(screen.getSelectedText(mSelX1, mSelY1, mSelX1, mSelY1))) {
-        // Selecting something other than whitespace. Expand to word.
-        while (mSelX1 > 0 && !"".equals(screen.getSelectedText(mSelX1 - 1, mSelY1, mSelX1 - 1, mSelY1))) {
-          mSelX1--;
-        }
-        while (mSelX2 < mEmulator.mColumns - 1 && !"".equals(screen.getSelectedText(mSelX2 + 1, mSelY1, mSelX2 + 1, mSelY1))) {
-          mSelX2++;
+      synchronized (mEmulator) {
+        TerminalBuffer screen = mEmulator.getScreen();
+        if (!" ".equals(screen.getSelectedText(mSelX1, mSelY1, mSelX1, mSelY1))) {
+          // Selecting something other than whitespace. Expand to word.
+          while (mSelX1 > 0 && !"".equals(screen.getSelectedText(mSelX1 - 1, mSelY1, mSelX1 - 1, mSelY1))) {
+            mSelX1--;
+          }
+          while (mSelX2 < mEmulator.mColumns - 1 && !"".equals(screen.getSelectedText(mSelX2 + 1, mSelY1, mSelX2 + 1, mSelY1))) {
+            mSelX2++;
+          }
         }
       }
 
@@ -1015,7 +1175,10 @@ public final class TerminalView extends View {
 
           switch (item.getItemId()) {
             case 1:
-              String selectedText = mEmulator.getSelectedText(mSelX1, mSelY1, mSelX2, mSelY2).trim();
+              String selectedText;
+              synchronized (mEmulator) {
+                selectedText = mEmulator.getSelectedText(mSelX1, mSelY1, mSelX2, mSelY2).trim();
+              }
               mTermSession.clipboardText(selectedText);
               break;
             case 2:
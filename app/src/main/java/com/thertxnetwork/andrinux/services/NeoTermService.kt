@@ -16,12 +16,14 @@ import androidx.core.app.ServiceCompat
 import com.thertxnetwork.andrinux.R
 import com.thertxnetwork.andrinux.backend.EmulatorDebug
 import com.thertxnetwork.andrinux.backend.TerminalSession
+import com.thertxnetwork.andrinux.component.config.NeoTermPath
 import com.thertxnetwork.andrinux.component.session.ShellParameter
 import com.thertxnetwork.andrinux.component.session.XParameter
 import com.thertxnetwork.andrinux.component.session.XSession
 import com.thertxnetwork.andrinux.ui.term.NeoTermActivity
 import com.thertxnetwork.andrinux.utils.NLog
 import com.thertxnetwork.andrinux.utils.Terminals
+import java.io.File
 
 
 /**
@@ -41,6 +43,8 @@ class NeoTermService : Service() {
 
   override fun onCreate() {
     super.onCreate()
+    // Sessions do not outlive the service, any transcript spilled to disk is left over from a killed process:
+    File(NeoTermPath.TRANSCRIPT_SPILL_PATH).deleteRecursively()
     createNotificationChannel()
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
       ServiceCompat.startForeground(
@@ -78,8 +82,10 @@ class NeoTermService : Service() {
   override fun onDestroy() {
     ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE)
 
-    for (i in mTerminalSessions.indices)
+    for (i in mTerminalSessions.indices) {
       mTerminalSessions[i].finishIfRunning()
+      mTerminalSessions[i].release()
+    }
     mTerminalSessions.clear()
   }
 
@@ -99,6 +105,7 @@ class NeoTermService : Service() {
     val indexOfRemoved = mTerminalSessions.indexOf(sessionToRemove)
     if (indexOfRemoved >= 0) {
       mTerminalSessions.removeAt(indexOfRemoved)
+      sessionToRemove.release()
       updateNotification()
     }
     return indexOfRemoved
@@ -0,0 +1,231 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNoException;
+
+/**
+ * Tests of {@link PtyMultiplexer} against real pseudoterminals, which need libneoterm built for the host, as by
+ * "cmake -S app -B app/build/host-jni && cmake --build app/build/host-jni", and are skipped without it.
+ */
+public class PtyMultiplexerTest {
+
+  private static final String[] ENV = {"PATH=/usr/local/bin:/usr/bin:/bin"};
+  private static final int PRODUCERS = 8;
+  private static final int BYTES_PER_PRODUCER = 4 * 1024 * 1024;
+
+  @BeforeClass
+  public static void loadLibrary() {
+    try {
+      System.loadLibrary("neoterm");
+    } catch (UnsatisfiedLinkError e) {
+      assumeNoException(e);
+    }
+  }
+
+  /**
+   * A process on a pty registered with the multiplexer.
+   */
+  private static final class Session implements PtyMultiplexer.Listener {
+    final ByteQueue mFromProcess = new ByteQueue(64 * 1024);
+    final ByteQueue mToProcess = new ByteQueue(16 * 1024);
+    final BlockingQueue<ProcessExit> mExit = new ArrayBlockingQueue<>(1);
+    final int mFileDescriptor;
+    final int mProcessId;
+    final PtyMultiplexer.Registration mPty;
+
+    Session(String... command) {
+      this("/", ENV, command);
+    }
+
+    Session(String cwd, String[] env, String... command) {
+      int[] processId = new int[1];
+      mFileDescriptor = JNI.createSubprocess(command[0], cwd, command, env, processId, 24, 80);
+      mProcessId = processId[0];
+      mPty = PtyMultiplexer.getInstance().register(mFileDescriptor, mProcessId, mFromProcess, mToProcess, this);
+    }
+
+    @Override
+    public void onProcessOutput() {
+    }
+
+    @Override
+    public void onProcessExited(ProcessExit exit) {
+      mExit.add(exit);
+    }
+
+    int read(byte[] buffer) {
+      int read = mFromProcess.read(buffer, true);
+      mPty.outputRead();
+      return read;
+    }
+
+    void write(byte[] data) {
+      for (int offset = 0; offset < data.length; ) {
+        int part = Math.min(data.length - offset, mToProcess.getCapacity() / 2);
+        assertTrue(mToProcess.write(data, offset, part));
+        mPty.inputWritten();
+        offset += part;
+      }
+    }
+
+    void readUntil(String text) throws InterruptedException {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!output.toString(StandardCharsets.UTF_8).contains(text)) {
+        assertTrue("timed out waiting for " + text, System.nanoTime() < deadline);
+        int read = mFromProcess.read(buffer, false);
+        if (read > 0) {
+          mPty.outputRead();
+          output.write(buffer, 0, read);
+        } else {
+          Thread.sleep(1);
+        }
+      }
+    }
+
+    ProcessExit kill() throws Exception {
+      new ProcessBuilder("kill", "-9", Integer.toString(mProcessId)).start().waitFor();
+      return waitForExit();
+    }
+
+    ProcessExit waitForExit() throws InterruptedException {
+      ProcessExit exit = mExit.poll(10, TimeUnit.SECONDS);
+      assertNotNull("exit not reported", exit);
+      return exit;
+    }
+
+    void close() {
+      mPty.unregister();
+      mFromProcess.close();
+      mToProcess.close();
+      JNI.close(mFileDescriptor);
+    }
+  }
+
+  @Test
+  public void concurrentProducers() throws Exception {
+    List<Session> sessions = new ArrayList<>();
+    List<Thread> consumers = new ArrayList<>();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (int i = 0; i < PRODUCERS; i++) {
+      final byte[] line = ("line " + i + "\r\n").getBytes(StandardCharsets.US_ASCII);
+      final Session session = new Session("yes", "line " + i);
+      final boolean slowConsumer = (i == 0);
+      sessions.add(session);
+      Thread consumer = new Thread(() -> {
+        try {
+          // Small reads keep the queue full at times, pausing reading from the pty:
+          byte[] buffer = new byte[slowConsumer ? 512 : 8192];
+          long position = 0;
+          while (position < BYTES_PER_PRODUCER) {
+            int read = session.read(buffer);
+            assertTrue(read > 0);
+            for (int j = 0; j < read; j++, position++) {
+              if (buffer[j] != line[(int) (position % line.length)]) fail("unexpected output at " + position);
+            }
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      consumers.add(consumer);
+      consumer.start();
+    }
+
+    for (Thread consumer : consumers) {
+      consumer.join(TimeUnit.SECONDS.toMillis(60));
+      assertFalse("consumer did not finish", consumer.isAlive());
+    }
+    if (failure.get() != null) throw new AssertionError(failure.get());
+
+    for (Session session : sessions) {
+      ProcessExit exit = session.kill();
+      assertEquals(-9, exit.getExitStatus());
+      // Writing megabytes of output takes some CPU time:
+      assertTrue(exit.getUserTimeMicros() + exit.getSystemTimeMicros() > 0);
+      assertTrue(exit.getMaxResidentKilobytes() > 0);
+      session.close();
+    }
+  }
+
+  @Test
+  public void inputIsWrittenWithoutBlocking() throws Exception {
+    Session session = new Session("sh", "-c", "stty -echo; echo ready; exec cat");
+    session.readUntil("ready\r\n");
+
+    // Far more than the pty and the queue hold, so that the I/O thread waits for the pty to be writable:
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; input.length() < 512 * 1024; i++) input.append("input line ").append(i).append('\n');
+    Thread writer = new Thread(() -> session.write(input.toString().getBytes(StandardCharsets.US_ASCII)));
+    writer.start();
+
+    String expected = input.toString().replace("\n", "\r\n");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    while (output.size() < expected.length()) output.write(buffer, 0, session.read(buffer));
+    writer.join();
+    assertEquals(expected, output.toString(StandardCharsets.US_ASCII));
+
+    session.write(new byte[]{4});
+    assertEquals(0, session.waitForExit().getExitStatus());
+    session.close();
+  }
+
+  @Test
+  public void exitIsReported() throws Exception {
+    long startTime = System.currentTimeMillis();
+    Session session = new Session("sh", "-c", "echo done; exit 3");
+    session.readUntil("done\r\n");
+    ProcessExit exit = session.waitForExit();
+    assertEquals(3, exit.getExitStatus());
+    assertTrue(exit.getExitTimeMillis() >= startTime);
+    session.close();
+  }
+
+  @Test
+  public void exitsOfManyProcessesAreReported() throws Exception {
+    // Processes exiting together, whose SIGCHLDs coalesce:
+    List<Session> sessions = new ArrayList<>();
+    for (int i = 0; i < 16; i++) sessions.add(new Session("sh", "-c", "exit " + i));
+    for (int i = 0; i < sessions.size(); i++) {
+      assertEquals(i, sessions.get(i).waitForExit().getExitStatus());
+      sessions.get(i).close();
+    }
+    // A process started otherwise is not reaped by the multiplexer:
+    Process process = new ProcessBuilder("sh", "-c", "exit 7").start();
+    assertEquals(7, process.waitFor());
+  }
+
+  @Test
+  public void spawnUsesPathWorkingDirectoryAndEnvironment() throws Exception {
+    // The command is looked up in the PATH of the environment given, skipping what is not there:
+    String[] env = {"PATH=/nonexistent:/usr/bin:/bin", "GREETING=hello"};
+    Session session = new Session("/tmp", env, "sh", "-c", "echo \"$GREETING $(pwd)\"; grep SigBlk /proc/self/status");
+    // No signal blocked by the JVM, nor while spawning, is left blocked:
+    session.readUntil("hello /tmp\r\nSigBlk:\t0000000000000000\r\n");
+    assertEquals(0, session.waitForExit().getExitStatus());
+    session.close();
+  }
+
+  @Test
+  public void failedExecIsReported() throws Exception {
+    Session session = new Session("no-such-command");
+    session.readUntil("exec(\"no-such-command\"): No such file or directory\r\n");
+    assertEquals(1, session.waitForExit().getExitStatus());
+    session.close();
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.AsciicastPlayer;
+import com.thertxnetwork.andrinux.backend.AsciicastRecorder;
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays an asciicast recording into a new {@link TerminalEmulator} as fast as possible.
+ * <p>
+ * The recording is read from the file given as the {@code recording} parameter, e.g. one made with
+ * {@code TerminalSession.startRecording}, or else made by recording a generated stream through
+ * {@link AsciicastRecorder}. The {@code bytes} counter reports the throughput in bytes of output per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AsciicastReplayBenchmark {
+
+  @Param("")
+  public String recording;
+
+  @Param(PtyStreams.VIM)
+  public String stream;
+
+  private AsciicastPlayer mPlayer;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class PlayedBytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    if (recording.isEmpty()) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      TerminalEmulator emulator = new TerminalEmulator(new NullTerminalOutput(), 120, 40, 2000);
+      try (AsciicastRecorder recorder = new AsciicastRecorder(out, 120, 40)) {
+        emulator.setRecorder(recorder);
+        byte[] data = PtyStreams.generate(stream, 1 << 20);
+        byte[] chunk = new byte[4096];
+        for (int offset = 0; offset < data.length; offset += chunk.length) {
+          int length = Math.min(chunk.length, data.length - offset);
+          System.arraycopy(data, offset, chunk, 0, length);
+          emulator.append(chunk, length);
+        }
+      }
+      mPlayer = AsciicastPlayer.read(new ByteArrayInputStream(out.toByteArray()));
+    } else {
+      try (InputStream in = new FileInputStream(recording)) {
+        mPlayer = AsciicastPlayer.read(in);
+      }
+    }
+  }
+
+  @Benchmark
+  public TerminalEmulator play(PlayedBytes counter) throws InterruptedException {
+    TerminalEmulator emulator = new TerminalEmulator(new NullTerminalOutput(), mPlayer.getColumns(), mPlayer.getRows(), 2000);
+    mPlayer.play(emulator, false);
+    counter.bytes += mPlayer.getOutputBytes();
+    return emulator;
+  }
+
+}
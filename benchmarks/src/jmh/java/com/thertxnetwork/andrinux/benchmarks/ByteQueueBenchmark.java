@@ -0,0 +1,76 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.ByteQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes bytes from a producer thread to the benchmark thread through {@link ByteQueue} and through the queue it
+ * replaced, {@link LegacyByteQueue}, the way {@code TerminalSession} passes process output: the producer writes 4 KiB
+ * chunks, as read from the pty, and the consumer reads up to 4 KiB at a time.
+ * <p>
+ * The {@code bytes} counter reports the throughput in bytes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ByteQueueBenchmark {
+
+  private static final String LEGACY = "legacy";
+  private static final String LOCK_FREE = "lockfree";
+
+  @Param({LEGACY, LOCK_FREE})
+  public String queue;
+
+  @Param({"4096", "65536"})
+  public int capacity;
+
+  @Param("16777216")
+  public int transferBytes;
+
+  private final byte[] mChunk = new byte[4096];
+  private final byte[] mReceiveBuffer = new byte[4096];
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class TransferredBytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Benchmark
+  public long transfer(TransferredBytes counter) throws InterruptedException {
+    long received = 0;
+    if (LEGACY.equals(queue)) {
+      final LegacyByteQueue legacyQueue = new LegacyByteQueue(capacity);
+      Thread producer = startProducer(() -> {
+        for (int written = 0; written < transferBytes; written += mChunk.length)
+          legacyQueue.write(mChunk, 0, mChunk.length);
+      });
+      while (received < transferBytes) received += legacyQueue.read(mReceiveBuffer, true);
+      producer.join();
+    } else {
+      final ByteQueue lockFreeQueue = new ByteQueue(capacity);
+      Thread producer = startProducer(() -> {
+        for (int written = 0; written < transferBytes; written += mChunk.length)
+          lockFreeQueue.write(mChunk, 0, mChunk.length);
+      });
+      while (received < transferBytes) received += lockFreeQueue.read(mReceiveBuffer, true);
+      producer.join();
+    }
+    counter.bytes += received;
+    return received;
+  }
+
+  private static Thread startProducer(Runnable producer) {
+    Thread thread = new Thread(producer, "ByteQueueBenchmark-producer");
+    thread.start();
+    return thread;
+  }
+
+}
@@ -1,16 +1,17 @@
-package com.thertxnetwork.andrinux.backend;
+package com.thertxnetwork.andrinux.benchmarks;
 
 /**
- * A circular byte buffer allowing one producer and one consumer thread.
+ * The {@code synchronized}, {@code wait()} and {@code notify()} based queue which the backend used before the lock-free
+ * {@link com.thertxnetwork.andrinux.backend.ByteQueue}, kept as the baseline for {@link ByteQueueBenchmark}.
  */
-final class ByteQueue {
+final class LegacyByteQueue {
 
   private final byte[] mBuffer;
   private int mHead;
   private int mStoredBytes;
   private boolean mOpen = true;
 
-  public ByteQueue(int size) {
+  LegacyByteQueue(int size) {
     mBuffer = new byte[size];
   }
 
@@ -0,0 +1,80 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import com.thertxnetwork.andrinux.backend.Utf8Decoder;
+
+/**
+ * The byte at a time UTF-8 decoding which {@link TerminalEmulator} did before {@link Utf8Decoder}, writing the code
+ * points to an array instead of processing them, kept as the baseline for {@link Utf8DecoderBenchmark}.
+ */
+final class LegacyUtf8Decoder {
+
+  private byte mUtf8ToFollow, mUtf8Index;
+  private final byte[] mUtf8InputBuffer = new byte[4];
+  private int[] mOutput;
+  private int mCount;
+
+  /**
+   * @param output where to write the code points, at least twice as long as the input.
+   * @return the number of code points written.
+   */
+  int decode(byte[] input, int length, int[] output) {
+    mOutput = output;
+    mCount = 0;
+    for (int i = 0; i < length; i++) processByte(input[i]);
+    return mCount;
+  }
+
+  private void processByte(byte byteToProcess) {
+    if (mUtf8ToFollow > 0) {
+      if ((byteToProcess & 0b11000000) == 0b10000000) {
+        // 10xxxxxx, a continuation byte.
+        mUtf8InputBuffer[mUtf8Index++] = byteToProcess;
+        if (--mUtf8ToFollow == 0) {
+          byte firstByteMask = (byte) (mUtf8Index == 2 ? 0b00011111 : (mUtf8Index == 3 ? 0b00001111 : 0b00000111));
+          int codePoint = (mUtf8InputBuffer[0] & firstByteMask);
+          for (int i = 1; i < mUtf8Index; i++)
+            codePoint = ((codePoint << 6) | (mUtf8InputBuffer[i] & 0b00111111));
+          if (((codePoint <= 0b1111111) && mUtf8Index > 1) || (codePoint < 0b11111111111 && mUtf8Index > 2)
+            || (codePoint < 0b1111111111111111 && mUtf8Index > 3)) {
+            // Overlong encoding.
+            codePoint = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+          }
+
+          mUtf8Index = mUtf8ToFollow = 0;
+
+          if (codePoint < 0x80 || codePoint > 0x9F) {
+            switch (Character.getType(codePoint)) {
+              case Character.UNASSIGNED:
+              case Character.SURROGATE:
+                codePoint = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+            }
+            mOutput[mCount++] = codePoint;
+          }
+        }
+      } else {
+        // Not a UTF-8 continuation byte so replace the entire sequence up to now with the replacement char:
+        mUtf8Index = mUtf8ToFollow = 0;
+        mOutput[mCount++] = Utf8Decoder.MALFORMED;
+        processByte(byteToProcess);
+      }
+    } else {
+      if ((byteToProcess & 0b10000000) == 0) { // The leading bit is not set so it is a 7-bit ASCII character.
+        mOutput[mCount++] = byteToProcess;
+        return;
+      } else if ((byteToProcess & 0b11100000) == 0b11000000) { // 110xxxxx, a two-byte sequence.
+        mUtf8ToFollow = 1;
+      } else if ((byteToProcess & 0b11110000) == 0b11100000) { // 1110xxxx, a three-byte sequence.
+        mUtf8ToFollow = 2;
+      } else if ((byteToProcess & 0b11111000) == 0b11110000) { // 11110xxx, a four-byte sequence.
+        mUtf8ToFollow = 3;
+      } else {
+        // Not a valid UTF-8 sequence start, signal invalid data:
+        mOutput[mCount++] = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+        return;
+      }
+      mUtf8InputBuffer[mUtf8Index++] = byteToProcess;
+    }
+  }
+
+}
@@ -1,11 +1,10 @@
-package com.thertxnetwork.andrinux.backend;
+package com.thertxnetwork.andrinux.benchmarks;
 
 /**
- * Implementation of wcwidth(3) for Unicode 9.
- * <p>
- * Implementation from https://github.com/jquast/wcwidth but we return 0 for unprintable characters.
+ * The binary search implementation of wcwidth(3) for Unicode 9 which the backend used before the generated
+ * two-stage table, kept as the baseline for {@link WcWidthBenchmark}.
  */
-public final class WcWidth {
+final class LegacyWcWidth {
 
   // From https://github.com/jquast/wcwidth/blob/master/wcwidth/table_zero.py
   // t commit 0d7de112202cc8b2ebe9232ff4a5c954f19d561a (2016-07-02):
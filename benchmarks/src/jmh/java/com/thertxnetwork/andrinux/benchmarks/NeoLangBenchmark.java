@@ -0,0 +1,52 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.neolang.frontend.AstVisitor;
+import com.thertxnetwork.andrinux.neolang.frontend.ConfigVisitor;
+import com.thertxnetwork.andrinux.neolang.frontend.NeoLangAst;
+import com.thertxnetwork.andrinux.neolang.frontend.NeoLangParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing and parsing of the color scheme and extra keys configurations bundled with the app, followed by building
+ * the {@link ConfigVisitor} as the config component does when loading them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NeoLangBenchmark {
+
+  @Param({"colors/Default.nl", "colors/Dracula.nl", "colors/Material.nl", "colors/SolarizedDark.nl", "colors/SolarizedLight.nl",
+    "eks/default.nl", "eks/vim.nl"})
+  public String file;
+
+  private String mProgram;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream in = NeoLangBenchmark.class.getClassLoader().getResourceAsStream(file)) {
+      if (in == null) throw new IOException("Missing resource: " + file);
+      mProgram = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Benchmark
+  public NeoLangAst parse() {
+    NeoLangParser parser = new NeoLangParser();
+    parser.setInputSource(mProgram);
+    return parser.parse();
+  }
+
+  @Benchmark
+  public ConfigVisitor parseAndVisit() {
+    AstVisitor visitor = parse().visit().getVisitor(ConfigVisitor.class);
+    if (visitor == null) throw new IllegalStateException("No visitor for " + file);
+    visitor.start();
+    return visitor.getCallback();
+  }
+
+}
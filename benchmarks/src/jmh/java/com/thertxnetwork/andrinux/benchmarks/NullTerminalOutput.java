@@ -0,0 +1,30 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalOutput;
+
+/**
+ * A {@link TerminalOutput} which discards everything, standing in for a session without a process attached.
+ */
+public final class NullTerminalOutput extends TerminalOutput {
+
+  @Override
+  public void write(byte[] data, int offset, int count) {
+  }
+
+  @Override
+  public void titleChanged(String oldTitle, String newTitle) {
+  }
+
+  @Override
+  public void clipboardText(String text) {
+  }
+
+  @Override
+  public void onBell() {
+  }
+
+  @Override
+  public void onColorsChanged() {
+  }
+
+}
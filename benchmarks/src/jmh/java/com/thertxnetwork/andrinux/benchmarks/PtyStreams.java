@@ -0,0 +1,299 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Deterministic stand-ins for recorded pseudo-terminal output, as a shell process would write it to the pty master.
+ * <p>
+ * Every stream is generated from a fixed seed so that runs are comparable between builds.
+ */
+public final class PtyStreams {
+
+  public static final String ASCII_LOG = "ascii";
+  public static final String COLOR_LS = "ls";
+  public static final String HTOP = "htop";
+  public static final String VIM = "vim";
+  public static final String LESS = "less";
+  public static final String CJK_EMOJI = "cjk";
+  public static final String CJK_TEXT = "cjk-text";
+  public static final String CYRILLIC = "cyrillic";
+  public static final String EMOJI_TEXT = "emoji";
+
+  private static final String[] LOG_LEVELS = {"DEBUG", "INFO ", "WARN ", "ERROR"};
+  private static final String[] LS_COLORS = {"0", "01;34", "01;32", "01;36", "00;31", "01;35", "38;5;208", "38;2;152;195;121"};
+  private static final String[] FILE_SUFFIXES = {".txt", ".sh", ".c", ".java", ".tar.gz", "", ".png", ".so"};
+  private static final String CJK = "漢字仮名交じり文中文字符測試한국어텍스트入力";
+  private static final String[] EMOJI = {"😀", "🚀", "🎉", "👍🏽", "👨‍👩‍👧", "❤️", "é", "ñ̃"};
+  private static final String CJK_PUNCTUATION = "、。，「」：";
+  private static final String[] CYRILLIC_WORDS = {"и", "в", "не", "что", "терминал", "строка", "файл", "процесс",
+    "сборка", "ошибка", "завершена", "успешно", "каталог", "пользователь", "Москва", "обновление"};
+  private static final String[] EMOJI_SEQUENCES = {"😀", "😂", "🚀", "🎉", "🔥", "👍", "👍🏽", "👋🏿", "👨‍👩‍👧", "🏳️‍🌈",
+    "🇯🇵", "🇺🇦", "❤️", "✅", "⚠️", "🐧"};
+
+  private PtyStreams() {
+  }
+
+  /**
+   * Generate the named stream (one of the constants of this class), of approximately the given size in bytes.
+   */
+  public static byte[] generate(String name, int approximateBytes) {
+    switch (name) {
+      case ASCII_LOG:
+        return asciiLog(approximateBytes);
+      case COLOR_LS:
+        return colorLs(approximateBytes);
+      case HTOP:
+        return htop(approximateBytes);
+      case VIM:
+        return vim(approximateBytes);
+      case LESS:
+        return less(approximateBytes);
+      case CJK_EMOJI:
+        return cjkEmoji(approximateBytes);
+      case CJK_TEXT:
+        return cjkText(approximateBytes);
+      case CYRILLIC:
+        return cyrillic(approximateBytes);
+      case EMOJI_TEXT:
+        return emojiText(approximateBytes);
+      default:
+        throw new IllegalArgumentException("Unknown stream: " + name);
+    }
+  }
+
+  /**
+   * Build log style output: long lines of printable ASCII terminated by CRLF.
+   */
+  public static byte[] asciiLog(int approximateBytes) {
+    Random random = new Random(1);
+    StringBuilder builder = new StringBuilder(approximateBytes + 256);
+    for (int line = 0; builder.length() < approximateBytes; line++) {
+      builder.append('[').append(line).append("] ").append(LOG_LEVELS[random.nextInt(LOG_LEVELS.length)])
+        .append(" com.example.build.Task").append(random.nextInt(100)).append(" - compiling src/main/java/com/example/Foo")
+        .append(line).append(".java (").append(random.nextInt(1000)).append(" ms)");
+      for (int i = random.nextInt(12); i > 0; i--) builder.append(" -Xlint:unchecked");
+      builder.append("\r\n");
+    }
+    return bytes(builder);
+  }
+
+  /**
+   * Output of {@code ls --color}: short SGR-colored file names in columns.
+   */
+  public static byte[] colorLs(int approximateBytes) {
+    Random random = new Random(2);
+    StringBuilder builder = new StringBuilder(approximateBytes + 256);
+    for (int i = 0; builder.length() < approximateBytes; i++) {
+      builder.append("\033[").append(LS_COLORS[random.nextInt(LS_COLORS.length)]).append('m')
+        .append("file_").append(i).append(FILE_SUFFIXES[random.nextInt(FILE_SUFFIXES.length)]).append("\033[0m  ");
+      if (i % 6 == 5) builder.append("\r\n");
+    }
+    return bytes(builder);
+  }
+
+  /**
+   * Full-screen {@code htop}-like redraws in the alternate screen buffer: cursor positioning, colored meters and
+   * process rows, and erase in line.
+   */
+  public static byte[] htop(int approximateBytes) {
+    Random random = new Random(3);
+    StringBuilder builder = new StringBuilder(approximateBytes + 4096);
+    builder.append("\033[?1049h\033[?25l\033[H\033[2J");
+    while (builder.length() < approximateBytes) {
+      for (int cpu = 0; cpu < 4; cpu++) {
+        int usage = random.nextInt(60);
+        builder.append("\033[").append(cpu + 1).append(";3H\033[1;36m").append(cpu).append("\033[0;1m[\033[32m");
+        for (int i = 0; i < usage; i++) builder.append('|');
+        builder.append("\033[0m\033[K\033[").append(cpu + 1).append(";70H").append(usage).append(".0%]");
+      }
+      builder.append("\033[6;1H\033[30;42m  PID USER      PRI  NI  VIRT   RES   SHR S CPU% MEM%   TIME+  Command\033[K\033[0m");
+      for (int row = 7; row <= 40; row++) {
+        builder.append("\033[").append(row).append(";1H");
+        if (row == 7 + random.nextInt(30)) builder.append("\033[30;46m");
+        builder.append(String.format("%5d root       20   0 %5dM %5dM %4dM S %4.1f %4.1f  0:%02d.%02d /usr/bin/process-%d",
+          1000 + random.nextInt(9000), random.nextInt(9999), random.nextInt(999), random.nextInt(99), random.nextFloat() * 100,
+          random.nextFloat() * 10, random.nextInt(60), random.nextInt(100), row));
+        builder.append("\033[K\033[0m");
+      }
+    }
+    builder.append("\033[?25h\033[?1049l");
+    return bytes(builder);
+  }
+
+  /**
+   * Editing in a {@code vim}-like application: scroll regions, scrolling, insert and delete of lines and characters,
+   * erase operations and line drawing characters.
+   */
+  public static byte[] vim(int approximateBytes) {
+    Random random = new Random(4);
+    StringBuilder builder = new StringBuilder(approximateBytes + 4096);
+    builder.append("\033[?1049h\033[H\033[2J");
+    while (builder.length() < approximateBytes) {
+      builder.append("\033[1;").append(20 + random.nextInt(20)).append('r');
+      for (int edit = random.nextInt(20); edit >= 0; edit--) {
+        builder.append("\033[").append(1 + random.nextInt(40)).append(';').append(1 + random.nextInt(100)).append('H');
+        builder.append("\033[").append(random.nextBoolean() ? "0" : "1;33").append('m');
+        builder.append("    if (mCursorRow + ").append(random.nextInt(100)).append(" < mBottomMargin) mCursorRow++;");
+        switch (random.nextInt(10)) {
+          case 0:
+            builder.append("\033[K");
+            break;
+          case 1:
+            builder.append("\033[3L");
+            break;
+          case 2:
+            builder.append("\033[2M");
+            break;
+          case 3:
+            builder.append("\033[4@");
+            break;
+          case 4:
+            builder.append("\033[3P");
+            break;
+          case 5:
+            builder.append("\033[2S");
+            break;
+          case 6:
+            builder.append("\033[T");
+            break;
+          case 7:
+            builder.append("\r\n\r\n\r\n");
+            break;
+          case 8:
+            builder.append("\033M");
+            break;
+          default:
+            builder.append("\033(0lqqqqk\033(B");
+            break;
+        }
+      }
+      builder.append("\033[r\033[40;1H\033[7m-- INSERT --\033[0m\033[K");
+    }
+    builder.append("\033[?1049l");
+    return bytes(builder);
+  }
+
+  /**
+   * Paging through source code in a {@code less}-like pager in the alternate screen buffer: a scroll region above
+   * the prompt line, scrolled forward by line feeds at its bottom margin, a line or a page at a time, and backward by
+   * reverse index at its top margin.
+   */
+  public static byte[] less(int approximateBytes) {
+    Random random = new Random(6);
+    StringBuilder builder = new StringBuilder(approximateBytes + 4096);
+    builder.append("\033[?1049h\033[H\033[2J\033[1;39r");
+    int topLine = 0;
+    while (builder.length() < approximateBytes) {
+      int lines = random.nextBoolean() ? 1 : 1 + random.nextInt(39);
+      if (random.nextInt(4) == 0) {
+        for (int i = Math.min(lines, topLine); i > 0; i--) {
+          builder.append("\033[H\033M");
+          appendSourceLine(builder, --topLine);
+        }
+      } else {
+        builder.append("\033[39;1H");
+        for (int i = 0; i < lines; i++) {
+          builder.append("\r\n");
+          appendSourceLine(builder, topLine + 39 + i);
+        }
+        topLine += lines;
+      }
+      builder.append("\033[40;1H\033[7mSource.java lines ").append(topLine + 1).append('-').append(topLine + 39)
+        .append("\033[0m\033[K");
+    }
+    builder.append("\033[r\033[?1049l");
+    return bytes(builder);
+  }
+
+  /**
+   * A line of Java-like source code, blank for about one line in five, depending only on its number.
+   */
+  private static void appendSourceLine(StringBuilder builder, int line) {
+    Random random = new Random(line);
+    if (random.nextInt(5) == 0) return;
+    for (int i = random.nextInt(6); i > 0; i--) builder.append("  ");
+    builder.append("if (mCursorRow + ").append(random.nextInt(100)).append(" < mBottomMargin) mCursorRow++; // ")
+      .append(line);
+  }
+
+  /**
+   * Lines mixing CJK ideographs, hangul, emoji (including modifiers and ZWJ sequences) and combining characters.
+   */
+  public static byte[] cjkEmoji(int approximateBytes) {
+    Random random = new Random(5);
+    StringBuilder builder = new StringBuilder(approximateBytes / 2 + 256);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(approximateBytes + 256);
+    while (out.size() < approximateBytes) {
+      builder.setLength(0);
+      for (int i = 5 + random.nextInt(100); i > 0; i--) {
+        int kind = random.nextInt(10);
+        if (kind < 6) {
+          builder.append(CJK.charAt(random.nextInt(CJK.length())));
+        } else if (kind < 8) {
+          builder.append(EMOJI[random.nextInt(EMOJI.length)]);
+        } else {
+          builder.append("abc ");
+        }
+      }
+      builder.append("\r\n");
+      byte[] line = bytes(builder);
+      out.write(line, 0, line.length);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Lines of CJK ideographs, kana and hangul with CJK punctuation, without any 7-bit ASCII but the line endings.
+   */
+  public static byte[] cjkText(int approximateBytes) {
+    Random random = new Random(7);
+    StringBuilder builder = new StringBuilder(approximateBytes / 3 + 256);
+    while (builder.length() * 3 < approximateBytes) {
+      for (int i = 10 + random.nextInt(50); i > 0; i--) {
+        builder.append(random.nextInt(12) == 0 ? CJK_PUNCTUATION.charAt(random.nextInt(CJK_PUNCTUATION.length()))
+          : CJK.charAt(random.nextInt(CJK.length())));
+      }
+      builder.append("\r\n");
+    }
+    return bytes(builder);
+  }
+
+  /**
+   * Lines of Russian words, two bytes a letter, separated by spaces and punctuation.
+   */
+  public static byte[] cyrillic(int approximateBytes) {
+    Random random = new Random(8);
+    StringBuilder builder = new StringBuilder(approximateBytes / 2 + 256);
+    while (builder.length() * 2 < approximateBytes) {
+      for (int i = 3 + random.nextInt(15); i > 0; i--) {
+        builder.append(CYRILLIC_WORDS[random.nextInt(CYRILLIC_WORDS.length)]);
+        builder.append(random.nextInt(8) == 0 ? ", " : " ");
+      }
+      builder.append("\r\n");
+    }
+    return bytes(builder);
+  }
+
+  /**
+   * Lines of emoji, including modifiers, flags and ZWJ sequences, with a space now and then.
+   */
+  public static byte[] emojiText(int approximateBytes) {
+    Random random = new Random(9);
+    StringBuilder builder = new StringBuilder(approximateBytes / 2 + 256);
+    while (builder.length() * 2 < approximateBytes) {
+      for (int i = 5 + random.nextInt(30); i > 0; i--) {
+        builder.append(EMOJI_SEQUENCES[random.nextInt(EMOJI_SEQUENCES.length)]);
+        if (random.nextInt(4) == 0) builder.append(' ');
+      }
+      builder.append("\r\n");
+    }
+    return bytes(builder);
+  }
+
+  private static byte[] bytes(CharSequence text) {
+    return text.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+}
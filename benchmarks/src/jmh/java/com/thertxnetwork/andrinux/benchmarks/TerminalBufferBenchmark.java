@@ -0,0 +1,49 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations on a terminal with a full 2000 row transcript: reflow of all rows on a column change, and extracting
+ * the whole transcript as text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TerminalBufferBenchmark {
+
+  private static final int TRANSCRIPT_ROWS = 2000;
+
+  @Param({PtyStreams.ASCII_LOG, PtyStreams.COLOR_LS, PtyStreams.CJK_EMOJI})
+  public String stream;
+
+  private TerminalEmulator mEmulator;
+  private boolean mWide;
+
+  @Setup
+  public void setUp() {
+    mEmulator = new TerminalEmulator(new NullTerminalOutput(), 80, 24, TRANSCRIPT_ROWS);
+    byte[] output = PtyStreams.generate(stream, 512 * 1024);
+    mEmulator.append(output, output.length);
+    if (mEmulator.getScreen().getActiveTranscriptRows() < TRANSCRIPT_ROWS - 24)
+      throw new IllegalStateException("Transcript not filled by stream " + stream);
+  }
+
+  /**
+   * Reflow the whole transcript, alternating between 80 and 100 columns.
+   */
+  @Benchmark
+  public TerminalEmulator resize() {
+    mWide = !mWide;
+    mEmulator.resize(mWide ? 100 : 80, 24);
+    return mEmulator;
+  }
+
+  @Benchmark
+  public String getTranscriptText() {
+    return mEmulator.getScreen().getTranscriptText();
+  }
+
+}
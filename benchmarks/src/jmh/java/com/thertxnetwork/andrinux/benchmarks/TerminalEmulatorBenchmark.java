@@ -0,0 +1,57 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays pty output streams through {@link TerminalEmulator#append(byte[], int)} in 4 KiB chunks, the same way
+ * {@code TerminalSession} feeds the emulator.
+ * <p>
+ * The {@code bytes} counter reports the throughput in bytes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TerminalEmulatorBenchmark {
+
+  @Param({PtyStreams.ASCII_LOG, PtyStreams.COLOR_LS, PtyStreams.HTOP, PtyStreams.VIM, PtyStreams.LESS, PtyStreams.CJK_EMOJI,
+    PtyStreams.CJK_TEXT, PtyStreams.CYRILLIC, PtyStreams.EMOJI_TEXT})
+  public String stream;
+
+  @Param("1048576")
+  public int streamBytes;
+
+  private byte[] mStream;
+  private final byte[] mChunk = new byte[4096];
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ReplayedBytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    mStream = PtyStreams.generate(stream, streamBytes);
+  }
+
+  @Benchmark
+  public TerminalEmulator append(ReplayedBytes counter) {
+    TerminalEmulator emulator = new TerminalEmulator(new NullTerminalOutput(), 120, 40, 2000);
+    for (int offset = 0; offset < mStream.length; offset += mChunk.length) {
+      int length = Math.min(mChunk.length, mStream.length - offset);
+      System.arraycopy(mStream, offset, mChunk, 0, length);
+      emulator.append(mChunk, length);
+    }
+    counter.bytes += mStream.length;
+    return emulator;
+  }
+
+}
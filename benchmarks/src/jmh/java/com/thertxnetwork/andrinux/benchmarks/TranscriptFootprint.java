@@ -0,0 +1,40 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalBuffer;
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Memory accounting of a session: replays each of the benchmark streams into a 200x50 terminal with a 2000 row
+ * transcript, or as many rows as given as the first argument, and reports the bytes retained by its
+ * {@link TerminalBuffer}.
+ * <p>
+ * Only the newest rows of the transcript are {@link com.thertxnetwork.andrinux.backend.TerminalRow}:s, with run-length
+ * encoded styles, while older rows are frozen into packed and deflated blocks. Run with
+ * {@code ./gradlew :benchmarks:transcriptFootprint}, or {@code --args=100000} for a long transcript.
+ */
+public final class TranscriptFootprint {
+
+  private static final int COLUMNS = 200;
+  private static final int ROWS = 50;
+  private static final int TRANSCRIPT_ROWS = 2000;
+
+  private TranscriptFootprint() {
+  }
+
+  public static void main(String[] args) {
+    final int transcriptRows = (args.length > 0) ? Integer.parseInt(args[0]) : TRANSCRIPT_ROWS;
+    System.out.printf("%-8s %8s %18s %14s%n", "stream", "rows", "buffer", "bytes per row");
+    for (String stream : new String[]{PtyStreams.ASCII_LOG, PtyStreams.COLOR_LS, PtyStreams.HTOP, PtyStreams.VIM, PtyStreams.CJK_EMOJI}) {
+      TerminalEmulator emulator = new TerminalEmulator(new NullTerminalOutput(), COLUMNS, ROWS, transcriptRows);
+      // Enough output to fill the transcript with rows of ~100 bytes:
+      byte[] output = PtyStreams.generate(stream, Math.max(2 * 1024 * 1024, 128 * transcriptRows));
+      emulator.append(output, output.length);
+
+      long rows = emulator.getScreen().getActiveRows();
+      long bufferBytes = GraphLayout.parseInstance(emulator.getScreen()).totalSize();
+      System.out.printf("%-8s %8d %18d %14d%n", stream, rows, bufferBytes, bufferBytes / rows);
+    }
+  }
+
+}
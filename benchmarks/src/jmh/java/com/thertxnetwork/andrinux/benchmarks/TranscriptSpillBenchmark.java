@@ -0,0 +1,67 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.TerminalBuffer;
+import com.thertxnetwork.andrinux.backend.TerminalEmulator;
+import com.thertxnetwork.andrinux.backend.TranscriptSpill;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scroll latency into a 1M row transcript whose rows beyond the 2000 kept in memory are spilled to disk: reading a
+ * screen of text at a random position, which mostly reads and inflates blocks from the spill, and at a position moving
+ * one row up at a time, which mostly reads blocks already unpacked.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TranscriptSpillBenchmark {
+
+  private static final int COLUMNS = 80;
+  private static final int ROWS = 24;
+  private static final int TRANSCRIPT_ROWS = 2000;
+
+  @Param("1000000")
+  public int historyRows;
+
+  private File mDirectory;
+  private TranscriptSpill mSpill;
+  private TerminalEmulator mEmulator;
+  private final SplittableRandom mRandom = new SplittableRandom(1);
+  private int mTopRow;
+
+  @Setup
+  public void setUp() throws IOException {
+    mDirectory = Files.createTempDirectory("transcript-spill").toFile();
+    mSpill = new TranscriptSpill(mDirectory, Long.MAX_VALUE);
+    mEmulator = new TerminalEmulator(new NullTerminalOutput(), COLUMNS, ROWS, TRANSCRIPT_ROWS, mSpill);
+    byte[] output = PtyStreams.asciiLog(16 * 1024 * 1024);
+    while (mEmulator.getScreen().getActiveTranscriptRows() < historyRows)
+      mEmulator.append(output, output.length);
+  }
+
+  @TearDown
+  public void tearDown() {
+    mSpill.close();
+    mDirectory.delete();
+  }
+
+  @Benchmark
+  public String randomScreen() {
+    TerminalBuffer screen = mEmulator.getScreen();
+    int topRow = -mRandom.nextInt(screen.getActiveTranscriptRows() + 1);
+    return screen.getSelectedText(0, topRow, COLUMNS - 1, topRow + ROWS - 1);
+  }
+
+  @Benchmark
+  public String scrollUp() {
+    TerminalBuffer screen = mEmulator.getScreen();
+    if (--mTopRow < -screen.getActiveTranscriptRows()) mTopRow = 0;
+    return screen.getSelectedText(0, mTopRow, COLUMNS - 1, mTopRow + ROWS - 1);
+  }
+
+}
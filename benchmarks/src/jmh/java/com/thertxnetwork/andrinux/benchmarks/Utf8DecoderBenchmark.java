@@ -0,0 +1,68 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.Utf8Decoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the UTF-8 of non-Latin streams in 4 KiB chunks, as {@link com.thertxnetwork.andrinux.backend.TerminalEmulator}
+ * receives them, through {@link Utf8Decoder} against the byte at a time decoding it replaced, {@link LegacyUtf8Decoder}.
+ * 7-bit ASCII bytes between the runs of {@link Utf8Decoder} are copied as they are, the same way the emulator takes
+ * them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Utf8DecoderBenchmark {
+
+  @Param({PtyStreams.CJK_TEXT, PtyStreams.CYRILLIC, PtyStreams.EMOJI_TEXT, PtyStreams.CJK_EMOJI})
+  public String stream;
+
+  private byte[] mStream;
+  private final byte[] mChunk = new byte[4096];
+  private final int[] mCodePoints = new int[2 * 4096];
+  private final int[] mDecodedCodePoints = new int[1024];
+
+  @Setup
+  public void setUp() {
+    mStream = PtyStreams.generate(stream, 256 * 1024);
+  }
+
+  @Benchmark
+  public int runs() {
+    Utf8Decoder decoder = new Utf8Decoder();
+    int sum = 0;
+    for (int offset = 0; offset < mStream.length; offset += mChunk.length) {
+      int length = Math.min(mChunk.length, mStream.length - offset);
+      System.arraycopy(mStream, offset, mChunk, 0, length);
+      int count = 0;
+      int i = 0;
+      while (i < length) {
+        if (mChunk[i] >= 0 && !decoder.isInSequence()) {
+          mCodePoints[count++] = mChunk[i++];
+        } else {
+          i = decoder.decode(mChunk, i, length, mDecodedCodePoints);
+          System.arraycopy(mDecodedCodePoints, 0, mCodePoints, count, decoder.getDecodedCount());
+          count += decoder.getDecodedCount();
+        }
+      }
+      sum += mCodePoints[count - 1];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int byteAtATime() {
+    LegacyUtf8Decoder decoder = new LegacyUtf8Decoder();
+    int sum = 0;
+    for (int offset = 0; offset < mStream.length; offset += mChunk.length) {
+      int length = Math.min(mChunk.length, mStream.length - offset);
+      System.arraycopy(mStream, offset, mChunk, 0, length);
+      int count = decoder.decode(mChunk, length, mCodePoints);
+      sum += mCodePoints[count - 1];
+    }
+    return sum;
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.thertxnetwork.andrinux.benchmarks;
+
+import com.thertxnetwork.andrinux.backend.WcWidth;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WcWidth#width(int)} against the binary search implementation it replaced, {@link LegacyWcWidth}, over the
+ * code points of the benchmark streams and over code points spread across all of Unicode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WcWidthBenchmark {
+
+  private static final String RANDOM = "random";
+
+  @Param({PtyStreams.ASCII_LOG, PtyStreams.CJK_EMOJI, RANDOM})
+  public String codePoints;
+
+  private int[] mCodePoints;
+
+  @Setup
+  public void setUp() {
+    if (RANDOM.equals(codePoints)) {
+      mCodePoints = new Random(6).ints(64 * 1024, 0, Character.MAX_CODE_POINT + 1).toArray();
+    } else {
+      mCodePoints = new String(PtyStreams.generate(codePoints, 256 * 1024), StandardCharsets.UTF_8).codePoints().toArray();
+    }
+  }
+
+  @Benchmark
+  public int table() {
+    int sum = 0;
+    for (int codePoint : mCodePoints) sum += WcWidth.width(codePoint);
+    return sum;
+  }
+
+  @Benchmark
+  public int binarySearch() {
+    int sum = 0;
+    for (int codePoint : mCodePoints) sum += LegacyWcWidth.width(codePoint);
+    return sum;
+  }
+
+}
@@ -0,0 +1,298 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A recording in the asciicast v2 format, as written by {@link AsciicastRecorder} or asciinema, read into memory to be
+ * played back into a {@link TerminalEmulator}.
+ * <p>
+ * Only the output and resize events of a recording are played, input and marker events being ignored.
+ */
+public final class AsciicastPlayer {
+
+  private static final class Event {
+    final long mNanos;
+    /**
+     * The output as UTF-8, or null for a resize to {@link #mColumns} and {@link #mRows}.
+     */
+    final byte[] mOutput;
+    final int mColumns, mRows;
+
+    Event(long nanos, byte[] output, int columns, int rows) {
+      mNanos = nanos;
+      mOutput = output;
+      mColumns = columns;
+      mRows = rows;
+    }
+  }
+
+  private final int mColumns, mRows;
+  private final List<Event> mEvents;
+  private final long mOutputBytes;
+
+  private AsciicastPlayer(int columns, int rows, List<Event> events) {
+    mColumns = columns;
+    mRows = rows;
+    mEvents = events;
+    long outputBytes = 0;
+    for (Event event : events)
+      if (event.mOutput != null) outputBytes += event.mOutput.length;
+    mOutputBytes = outputBytes;
+  }
+
+  /**
+   * Read a recording, without closing the stream.
+   */
+  public static AsciicastPlayer read(InputStream in) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    String line = reader.readLine();
+    if (line == null) throw new IOException("Empty asciicast recording");
+    Object header = new JsonParser(line, 1).parse();
+    if (!(header instanceof Map) || !Double.valueOf(2).equals(((Map<?, ?>) header).get("version")))
+      throw new IOException("Not an asciicast v2 header: " + line);
+    final int columns = getInt(((Map<?, ?>) header).get("width"), line, 1);
+    final int rows = getInt(((Map<?, ?>) header).get("height"), line, 1);
+
+    List<Event> events = new ArrayList<>();
+    for (int lineNumber = 2; (line = reader.readLine()) != null; lineNumber++) {
+      if (line.isEmpty()) continue;
+      Object value = new JsonParser(line, lineNumber).parse();
+      if (!(value instanceof List) || ((List<?>) value).size() != 3 || !(((List<?>) value).get(0) instanceof Double)
+        || !(((List<?>) value).get(1) instanceof String) || !(((List<?>) value).get(2) instanceof String))
+        throw new IOException("Invalid asciicast event at line " + lineNumber + ": " + line);
+      final List<?> event = (List<?>) value;
+      final long nanos = (long) ((Double) event.get(0) * 1e9);
+      final String data = (String) event.get(2);
+      switch ((String) event.get(1)) {
+        case "o":
+          events.add(new Event(nanos, data.getBytes(StandardCharsets.UTF_8), 0, 0));
+          break;
+        case "r":
+          int separator = data.indexOf('x');
+          if (separator < 0) throw new IOException("Invalid asciicast resize at line " + lineNumber + ": " + line);
+          try {
+            events.add(new Event(nanos, null, Integer.parseInt(data.substring(0, separator)),
+              Integer.parseInt(data.substring(separator + 1))));
+          } catch (NumberFormatException e) {
+            throw new IOException("Invalid asciicast resize at line " + lineNumber + ": " + line);
+          }
+          break;
+        default:
+          // Input and markers do not change the screen.
+          break;
+      }
+    }
+    return new AsciicastPlayer(columns, rows, events);
+  }
+
+  private static int getInt(Object value, String line, int lineNumber) throws IOException {
+    if (!(value instanceof Double)) throw new IOException("Missing number at line " + lineNumber + ": " + line);
+    return ((Double) value).intValue();
+  }
+
+  /**
+   * The size of the terminal at the start of the recording.
+   */
+  public int getColumns() {
+    return mColumns;
+  }
+
+  public int getRows() {
+    return mRows;
+  }
+
+  /**
+   * The total length of the output events, in bytes of UTF-8.
+   */
+  public long getOutputBytes() {
+    return mOutputBytes;
+  }
+
+  /**
+   * The time of the last event, in nanoseconds since the start of the recording.
+   */
+  public long getDurationNanos() {
+    return mEvents.isEmpty() ? 0 : mEvents.get(mEvents.size() - 1).mNanos;
+  }
+
+  /**
+   * Play the recording into an emulator, which should have the size of the start of the recording.
+   *
+   * @param originalSpeed whether to wait before each event until its time since the start of playing, or else to play
+   *                      it as fast as possible.
+   */
+  public void play(TerminalEmulator emulator, boolean originalSpeed) throws InterruptedException {
+    final long startNanos = System.nanoTime();
+    for (Event event : mEvents) {
+      if (originalSpeed) {
+        long delay = startNanos + event.mNanos - System.nanoTime();
+        if (delay > 0) TimeUnit.NANOSECONDS.sleep(delay);
+      }
+      if (event.mOutput != null) {
+        emulator.append(event.mOutput, event.mOutput.length);
+      } else {
+        emulator.resize(event.mColumns, event.mRows);
+      }
+    }
+  }
+
+  /**
+   * A parser of the JSON values of a line of a recording, with numbers parsed as doubles.
+   */
+  private static final class JsonParser {
+    private final String mText;
+    private final int mLineNumber;
+    private int mPosition;
+
+    JsonParser(String text, int lineNumber) {
+      mText = text;
+      mLineNumber = lineNumber;
+    }
+
+    Object parse() throws IOException {
+      Object value = parseValue();
+      skipWhitespace();
+      if (mPosition != mText.length()) throw error();
+      return value;
+    }
+
+    private Object parseValue() throws IOException {
+      skipWhitespace();
+      if (mPosition == mText.length()) throw error();
+      final char c = mText.charAt(mPosition);
+      switch (c) {
+        case '{': {
+          Map<String, Object> object = new HashMap<>();
+          mPosition++;
+          if (skipWhitespace() == '}') {
+            mPosition++;
+            return object;
+          }
+          do {
+            skipWhitespace();
+            String key = parseString();
+            if (skipWhitespace() != ':') throw error();
+            mPosition++;
+            object.put(key, parseValue());
+          } while (endOfListIs('}'));
+          return object;
+        }
+        case '[': {
+          List<Object> array = new ArrayList<>();
+          mPosition++;
+          if (skipWhitespace() == ']') {
+            mPosition++;
+            return array;
+          }
+          do {
+            array.add(parseValue());
+          } while (endOfListIs(']'));
+          return array;
+        }
+        case '"':
+          return parseString();
+        default:
+          if (mText.startsWith("true", mPosition)) {
+            mPosition += 4;
+            return Boolean.TRUE;
+          } else if (mText.startsWith("false", mPosition)) {
+            mPosition += 5;
+            return Boolean.FALSE;
+          } else if (mText.startsWith("null", mPosition)) {
+            mPosition += 4;
+            return null;
+          }
+          int end = mPosition;
+          while (end < mText.length() && "+-0123456789.eE".indexOf(mText.charAt(end)) >= 0)
+            end++;
+          try {
+            Double number = Double.valueOf(mText.substring(mPosition, end));
+            mPosition = end;
+            return number;
+          } catch (NumberFormatException e) {
+            throw error();
+          }
+      }
+    }
+
+    /**
+     * After an element of an object or array, return whether another follows, or else consume the closing character.
+     */
+    private boolean endOfListIs(char closing) throws IOException {
+      final char c = skipWhitespace();
+      mPosition++;
+      if (c == ',') return true;
+      if (c == closing) return false;
+      throw error();
+    }
+
+    private String parseString() throws IOException {
+      if (mPosition == mText.length() || mText.charAt(mPosition) != '"') throw error();
+      StringBuilder result = new StringBuilder();
+      for (mPosition++; mPosition < mText.length(); mPosition++) {
+        char c = mText.charAt(mPosition);
+        if (c == '"') {
+          mPosition++;
+          return result.toString();
+        } else if (c != '\\') {
+          result.append(c);
+          continue;
+        }
+        if (++mPosition == mText.length()) break;
+        c = mText.charAt(mPosition);
+        switch (c) {
+          case 'b':
+            result.append('\b');
+            break;
+          case 'f':
+            result.append('\f');
+            break;
+          case 'n':
+            result.append('\n');
+            break;
+          case 'r':
+            result.append('\r');
+            break;
+          case 't':
+            result.append('\t');
+            break;
+          case 'u':
+            if (mPosition + 4 >= mText.length()) throw error();
+            try {
+              result.append((char) Integer.parseInt(mText.substring(mPosition + 1, mPosition + 5), 16));
+            } catch (NumberFormatException e) {
+              throw error();
+            }
+            mPosition += 4;
+            break;
+          default:
+            result.append(c);
+        }
+      }
+      throw error();
+    }
+
+    /**
+     * Skip whitespace and return the character after it, or 0 at the end of the line.
+     */
+    private char skipWhitespace() {
+      while (mPosition < mText.length() && Character.isWhitespace(mText.charAt(mPosition)))
+        mPosition++;
+      return mPosition < mText.length() ? mText.charAt(mPosition) : 0;
+    }
+
+    private IOException error() {
+      return new IOException("Invalid JSON at line " + mLineNumber + ", column " + (mPosition + 1) + ": " + mText);
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * A recording of the output and resizes of a {@link TerminalEmulator} in the asciicast v2 format of asciinema, see
+ * {@link TerminalEmulator#setRecorder(AsciicastRecorder)} and {@link AsciicastPlayer}.
+ * <p>
+ * The recording thread only copies each event into a {@link ByteQueue}, from which a thread of its own formats and
+ * writes the events, so recording adds little to appending. Output is written as UTF-8 text as asciicast requires, a
+ * sequence split between two appends being decoded as a whole in the later event, and invalid UTF-8 becoming U+FFFD.
+ * <p>
+ * The record methods must not be called concurrently, which holds when called by the emulator as it is confined to a
+ * thread or a lock.
+ */
+public final class AsciicastRecorder implements Closeable {
+
+  /**
+   * The capacity of the queue of events, beyond which recording waits for the writer thread.
+   */
+  private static final int QUEUE_BYTES = 256 * 1024;
+  /**
+   * The bytes of an event in the queue before its data: the type, the nanoseconds since the start of the recording,
+   * and two arguments, the length of the data of an output event or the new size of a resize event.
+   */
+  private static final int EVENT_HEADER_BYTES = 17;
+  private static final byte EVENT_OUTPUT = 'o';
+  private static final byte EVENT_RESIZE = 'r';
+  private static final byte EVENT_END = 'e';
+
+  private final ByteQueue mQueue = new ByteQueue(QUEUE_BYTES);
+  private final ByteBuffer mEventHeader = ByteBuffer.allocate(EVENT_HEADER_BYTES);
+  private final long mStartNanos = System.nanoTime();
+  private final Thread mWriterThread;
+  private volatile IOException mWriteError;
+  private boolean mClosed;
+
+  /**
+   * Start recording to the stream, which is closed with the recorder.
+   *
+   * @param columns the size of the terminal when the recording starts.
+   */
+  public AsciicastRecorder(OutputStream out, int columns, int rows) {
+    final long timestamp = System.currentTimeMillis() / 1000;
+    mWriterThread = new Thread(() -> writeEvents(out, columns, rows, timestamp), "AsciicastRecorder");
+    mWriterThread.start();
+  }
+
+  public void recordOutput(byte[] data, int offset, int length) {
+    if (mClosed || length <= 0) return;
+    if (queueEvent(EVENT_OUTPUT, length, 0)) mQueue.write(data, offset, length);
+  }
+
+  public void recordResize(int columns, int rows) {
+    if (!mClosed) queueEvent(EVENT_RESIZE, columns, rows);
+  }
+
+  private boolean queueEvent(byte type, int argument1, int argument2) {
+    mEventHeader.clear();
+    mEventHeader.put(type).putLong(System.nanoTime() - mStartNanos).putInt(argument1).putInt(argument2);
+    return mQueue.write(mEventHeader.array(), 0, EVENT_HEADER_BYTES);
+  }
+
+  /**
+   * Stop recording, waiting for the events recorded until now to be written.
+   *
+   * @throws IOException if writing the recording failed, in which case recording stopped at the failure.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!mClosed) {
+      mClosed = true;
+      queueEvent(EVENT_END, 0, 0);
+      try {
+        mWriterThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (mWriteError != null) throw mWriteError;
+  }
+
+  private void writeEvents(OutputStream out, int columns, int rows, long timestamp) {
+    final ByteBuffer header = ByteBuffer.allocate(EVENT_HEADER_BYTES);
+    final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    // The output of an event, after what remains of a UTF-8 sequence split at the end of the previous event:
+    ByteBuffer input = ByteBuffer.allocate(4096);
+    CharBuffer text = CharBuffer.allocate(4096);
+
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)) {
+      writer.write("{\"version\": 2, \"width\": " + columns + ", \"height\": " + rows + ", \"timestamp\": " + timestamp + "}\n");
+      while (readFully(header.array(), EVENT_HEADER_BYTES)) {
+        header.clear();
+        final byte type = header.get();
+        final String time = String.format(Locale.US, "%.6f", header.getLong() / 1e9);
+        final int argument1 = header.getInt();
+        final int argument2 = header.getInt();
+        if (type == EVENT_END) {
+          break;
+        } else if (type == EVENT_RESIZE) {
+          writer.write("[" + time + ", \"r\", \"" + argument1 + "x" + argument2 + "\"]\n");
+          continue;
+        }
+
+        if (input.remaining() < argument1) {
+          ByteBuffer larger = ByteBuffer.allocate(input.position() + argument1);
+          input.flip();
+          input = larger.put(input);
+        }
+        if (!readFully(input.array(), input.position(), argument1)) break;
+        input.position(input.position() + argument1);
+
+        input.flip();
+        if (text.capacity() < input.remaining()) text = CharBuffer.allocate(input.remaining());
+        text.clear();
+        decoder.decode(input, text, false);
+        input.compact();
+        text.flip();
+        if (text.hasRemaining()) {
+          writer.write("[" + time + ", \"o\", ");
+          writeJsonString(writer, text);
+          writer.write("]\n");
+        }
+      }
+    } catch (IOException e) {
+      mWriteError = e;
+      // Let recording go on without waiting for the writer thread:
+      mQueue.close();
+    }
+  }
+
+  private boolean readFully(byte[] buffer, int length) {
+    return readFully(buffer, 0, length);
+  }
+
+  private boolean readFully(byte[] buffer, int offset, int length) {
+    while (length > 0) {
+      int read = mQueue.read(buffer, offset, length, true);
+      if (read == -1) return false;
+      offset += read;
+      length -= read;
+    }
+    return true;
+  }
+
+  private static void writeJsonString(Writer writer, CharBuffer text) throws IOException {
+    writer.write('"');
+    while (text.hasRemaining()) {
+      final char c = text.get();
+      switch (c) {
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        default:
+          if (c < 32) {
+            writer.write(String.format(Locale.US, "\\u%04x", (int) c));
+          } else {
+            writer.write(c);
+          }
+      }
+    }
+    writer.write('"');
+  }
+
+}
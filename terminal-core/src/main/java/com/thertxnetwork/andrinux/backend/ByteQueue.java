@@ -0,0 +1,156 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A circular byte buffer allowing one producer and one consumer thread, without locks.
+ * <p>
+ * The producer only advances the write position and the consumer only advances the read position, both counting the
+ * bytes ever passed through the queue, so each side sees the other's progress through a single volatile read. A side
+ * parks only when the queue is full, or empty for a blocking read, after publishing itself so that the other side
+ * unparks it once it has made progress. A full queue wakes the producer once it is at most half full, so a consumer
+ * must keep reading until then.
+ */
+public final class ByteQueue {
+
+  private final byte[] mBuffer;
+  private final int mMask;
+  private final AtomicLong mWritePosition = new AtomicLong();
+  private final AtomicLong mReadPosition = new AtomicLong();
+  private volatile boolean mOpen = true;
+  /**
+   * The producer or consumer thread while parked, or about to park, waiting for the other side.
+   */
+  private volatile Thread mWaitingProducer;
+  private volatile Thread mWaitingConsumer;
+
+  private volatile int mHighWaterMark;
+  private volatile long mProducerStallNanos;
+
+  /**
+   * @param capacity the number of bytes the queue holds, rounded up to a power of two.
+   */
+  public ByteQueue(int capacity) {
+    if (capacity <= 0 || capacity > (1 << 30)) throw new IllegalArgumentException("capacity=" + capacity);
+    mBuffer = new byte[Integer.highestOneBit(2 * capacity - 1)];
+    mMask = mBuffer.length - 1;
+  }
+
+  public int getCapacity() {
+    return mBuffer.length;
+  }
+
+  /**
+   * The largest number of bytes stored at once, as seen by the producer after writing.
+   */
+  public int getHighWaterMark() {
+    return mHighWaterMark;
+  }
+
+  /**
+   * The time the producer has spent waiting for the consumer to make room, in nanoseconds.
+   */
+  public long getProducerStallNanos() {
+    return mProducerStallNanos;
+  }
+
+  /**
+   * The number of bytes which can be written without waiting. Exact for the producer, the consumer only making more
+   * room meanwhile.
+   */
+  public int getFreeSpace() {
+    return mBuffer.length - (int) (mWritePosition.get() - mReadPosition.get());
+  }
+
+  public void close() {
+    mOpen = false;
+    LockSupport.unpark(mWaitingProducer);
+    LockSupport.unpark(mWaitingConsumer);
+  }
+
+  public int read(byte[] buffer, boolean block) {
+    return read(buffer, 0, buffer.length, block);
+  }
+
+  /**
+   * Read up to length bytes into the buffer at the offset.
+   *
+   * @param block whether to wait for bytes if the queue is empty.
+   * @return the number of bytes read, 0 if empty and not blocking, or -1 if closed.
+   */
+  public int read(byte[] buffer, int offset, int length, boolean block) {
+    if (offset < 0 || length < 0 || length > buffer.length - offset)
+      throw new IllegalArgumentException("offset=" + offset + ", length=" + length + ", buffer.length=" + buffer.length);
+
+    final long readPosition = mReadPosition.get();
+    long writePosition = mWritePosition.get();
+    while (writePosition == readPosition && mOpen) {
+      if (!block) return 0;
+      mWaitingConsumer = Thread.currentThread();
+      writePosition = mWritePosition.get();
+      if (writePosition == readPosition && mOpen) LockSupport.park(this);
+      mWaitingConsumer = null;
+      writePosition = mWritePosition.get();
+    }
+    if (!mOpen) return -1;
+
+    final int bytesToRead = (int) Math.min(length, writePosition - readPosition);
+    final int head = (int) readPosition & mMask;
+    final int oneRun = Math.min(bytesToRead, mBuffer.length - head);
+    System.arraycopy(mBuffer, head, buffer, offset, oneRun);
+    System.arraycopy(mBuffer, 0, buffer, offset + oneRun, bytesToRead - oneRun);
+    mReadPosition.set(readPosition + bytesToRead);
+
+    // Wake a waiting producer only once it can write a good part of the queue at once, rather than a thread switch
+    // for each small read:
+    if (writePosition - (readPosition + bytesToRead) <= mBuffer.length / 2) LockSupport.unpark(mWaitingProducer);
+    return bytesToRead;
+  }
+
+  /**
+   * Attempt to write the specified portion of the provided buffer to the queue, waiting for room as needed.
+   * <p/>
+   * Returns whether the output was totally written, false if it was closed before.
+   */
+  public boolean write(byte[] buffer, int offset, int lengthToWrite) {
+    if (lengthToWrite + offset > buffer.length) {
+      throw new IllegalArgumentException("length + offset > buffer.length");
+    } else if (lengthToWrite <= 0) {
+      throw new IllegalArgumentException("length <= 0");
+    }
+
+    final int capacity = mBuffer.length;
+    long writePosition = mWritePosition.get();
+    while (lengthToWrite > 0) {
+      long readPosition = mReadPosition.get();
+      if (writePosition - readPosition == capacity && mOpen) {
+        final long stallStart = System.nanoTime();
+        do {
+          mWaitingProducer = Thread.currentThread();
+          readPosition = mReadPosition.get();
+          if (writePosition - readPosition == capacity && mOpen) LockSupport.park(this);
+          mWaitingProducer = null;
+          readPosition = mReadPosition.get();
+        } while (writePosition - readPosition == capacity && mOpen);
+        mProducerStallNanos += System.nanoTime() - stallStart;
+      }
+      if (!mOpen) return false;
+
+      final int bytesToWrite = (int) Math.min(lengthToWrite, capacity - (writePosition - readPosition));
+      final int tail = (int) writePosition & mMask;
+      final int oneRun = Math.min(bytesToWrite, capacity - tail);
+      System.arraycopy(buffer, offset, mBuffer, tail, oneRun);
+      System.arraycopy(buffer, offset + oneRun, mBuffer, 0, bytesToWrite - oneRun);
+      writePosition += bytesToWrite;
+      mWritePosition.set(writePosition);
+      offset += bytesToWrite;
+      lengthToWrite -= bytesToWrite;
+
+      final int storedBytes = (int) (writePosition - readPosition);
+      if (storedBytes > mHighWaterMark) mHighWaterMark = storedBytes;
+      LockSupport.unpark(mWaitingConsumer);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,46 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * The logging of the terminal backend, which goes to the {@link Logger} set by the application, and nowhere until one
+ * is set.
+ */
+public final class EmulatorDebug {
+
+  /**
+   * The tag for a {@link Logger} to log with.
+   */
+  public static final String LOG_TAG = "NeoTerm-Emulator";
+
+  /**
+   * Where the backend logs, such as {@code android.util.Log}. Called from any thread appending to an emulator.
+   */
+  public interface Logger {
+    /**
+     * @param error the cause of the message, or null.
+     */
+    void warn(String message, Throwable error);
+
+    void error(String message, Throwable error);
+  }
+
+  private static volatile Logger sLogger;
+
+  public static void setLogger(Logger logger) {
+    sLogger = logger;
+  }
+
+  static void w(String message) {
+    Logger logger = sLogger;
+    if (logger != null) logger.warn(message, null);
+  }
+
+  static void e(String message) {
+    e(message, null);
+  }
+
+  static void e(String message, Throwable error) {
+    Logger logger = sLogger;
+    if (logger != null) logger.error(message, error);
+  }
+
+}
@@ -0,0 +1,398 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The older part of the transcript of a {@link TerminalBuffer}: rows which have scrolled far enough off the screen to
+ * never be written to again, kept in compact, immutable blocks.
+ * <p>
+ * Each row is packed into its text, without trailing blank cells, and its run-length encoded styles. Rows are grouped
+ * in blocks of {@link #ROWS_PER_BLOCK}, and once the packed blocks take more than {@link #MAX_PACKED_BYTES} the oldest
+ * of them are deflated. A block is unpacked back into {@link TerminalRow}:s when one of its rows is read, and the most
+ * recently read blocks are kept unpacked since reads come in runs of adjacent rows, when rendering the scrolled back
+ * screen or selecting text.
+ * <p>
+ * With a {@link TranscriptSpill}, the oldest full blocks are moved to it instead of being dropped, and their rows come
+ * before the ones kept in memory.
+ */
+final class FrozenTranscript {
+
+  /**
+   * The number of rows packed, and deflated, together.
+   */
+  static final int ROWS_PER_BLOCK = 64;
+  /**
+   * The number of bytes of full blocks kept packed but not deflated, so that a transcript which is not much longer
+   * than the screen does not pay for compression.
+   */
+  static final int MAX_PACKED_BYTES = 1024 * 1024;
+  /**
+   * The number of blocks kept unpacked.
+   */
+  static final int UNPACKED_BLOCKS = 4;
+
+  /**
+   * A block of packed rows, possibly deflated.
+   */
+  static final class Block {
+    byte[] mData;
+    int mLength;
+    /**
+     * The length of the packed rows if {@link #mData} holds them deflated, or -1.
+     */
+    int mInflatedLength = -1;
+    int mRows;
+
+    Block(byte[] data) {
+      mData = data;
+    }
+
+    void ensureCapacity(int bytes) {
+      if (mLength + bytes > mData.length) mData = Arrays.copyOf(mData, Math.max(2 * mData.length, mLength + bytes));
+    }
+  }
+
+  private final int mColumns;
+  private final int mMaxRows;
+  private final ArrayList<Block> mBlocks = new ArrayList<>();
+  /**
+   * The number of rows of the first block which have been dropped to stay within {@link #mMaxRows}.
+   */
+  private int mFirstBlockOffset;
+  private int mRows;
+  /**
+   * The index in {@link #mBlocks} of the oldest full block which is not deflated, and the bytes taken by all of them.
+   */
+  private int mFirstPackedBlock;
+  private int mPackedBytes;
+  /**
+   * Where full blocks go instead of being dropped, or null.
+   */
+  private TranscriptSpill mSpill;
+
+  /**
+   * The unpacked blocks, keyed by the {@link Block} if in memory or by the {@link TranscriptSpill#getFirstBlock()}
+   * based number of the block if spilled.
+   */
+  private final Map<Object, TerminalRow[]> mUnpackedBlocks = new LinkedHashMap<Object, TerminalRow[]>(UNPACKED_BLOCKS + 1, 1f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Object, TerminalRow[]> eldest) {
+      return size() > UNPACKED_BLOCKS;
+    }
+  };
+
+  private Deflater mDeflater;
+  private Inflater mInflater;
+  /**
+   * The packed rows of the last block deflated, to be reused for the next block.
+   */
+  private byte[] mSpareData;
+  private int mBlockCapacity = 1024;
+  private byte[] mDeflateBuffer;
+  private char[] mChars = new char[4];
+  private long[] mReusableStyles;
+
+  /**
+   * @param columns the number of columns of the rows.
+   * @param maxRows the number of rows kept in memory, after which the oldest rows are dropped or spilled.
+   * @param spill   where to move the oldest rows instead of dropping them, or null. Rows already in it, which may be of
+   *                another number of columns, come first.
+   */
+  FrozenTranscript(int columns, int maxRows, TranscriptSpill spill) {
+    if (maxRows < 1) throw new IllegalArgumentException("maxRows=" + maxRows);
+    mColumns = columns;
+    mMaxRows = maxRows;
+    mSpill = spill;
+  }
+
+  int getRows() {
+    return getSpilledRows() + mRows;
+  }
+
+  int getColumns() {
+    return mColumns;
+  }
+
+  private int getSpilledRows() {
+    return (mSpill == null) ? 0 : mSpill.getBlocks() * ROWS_PER_BLOCK;
+  }
+
+  /**
+   * Stop moving rows to the spill and return it, so that its rows are no longer rows of this transcript.
+   */
+  TranscriptSpill detachSpill() {
+    final TranscriptSpill spill = mSpill;
+    if (spill != null) {
+      mSpill = null;
+      mUnpackedBlocks.clear();
+    }
+    return spill;
+  }
+
+  /**
+   * Append a row after the newest one, dropping the oldest row if full. The row is not referenced afterwards.
+   *
+   * @return the dense style array of the row if it was not compacted, see {@link TerminalRow#compactStyles()}.
+   */
+  long[] append(TerminalRow row) {
+    final long[] freedStyles = row.compactStyles();
+    final int lastBlock = mBlocks.size() - 1;
+    Block block = (lastBlock < 0) ? null : mBlocks.get(lastBlock);
+    if (block == null || block.mRows == ROWS_PER_BLOCK) {
+      block = new Block((mSpareData == null || mSpareData.length < mBlockCapacity) ? new byte[mBlockCapacity] : mSpareData);
+      mSpareData = null;
+      mBlocks.add(block);
+    } else if (!mUnpackedBlocks.isEmpty()) {
+      mUnpackedBlocks.remove(block);
+    }
+
+    pack(row, block);
+    if (++block.mRows == ROWS_PER_BLOCK) {
+      // Size the next block after this one, to avoid growing it:
+      mBlockCapacity = block.mLength + block.mLength / 8;
+      mPackedBytes += block.mLength;
+      while (mPackedBytes > MAX_PACKED_BYTES) {
+        Block packedBlock = mBlocks.get(mFirstPackedBlock++);
+        mPackedBytes -= packedBlock.mLength;
+        deflate(packedBlock);
+      }
+    }
+
+    if (mSpill != null) {
+      // Spill whole blocks, as soon as a full one is not needed to keep mMaxRows rows:
+      if (++mRows - ROWS_PER_BLOCK >= mMaxRows) spill(removeFirstBlock());
+    } else if (++mRows > mMaxRows) {
+      mRows--;
+      if (++mFirstBlockOffset == ROWS_PER_BLOCK) {
+        removeFirstBlock();
+        mFirstBlockOffset = 0;
+      }
+    }
+    return freedStyles;
+  }
+
+  private Block removeFirstBlock() {
+    Block block = mBlocks.remove(0);
+    mUnpackedBlocks.remove(block);
+    if (mFirstPackedBlock > 0) {
+      mFirstPackedBlock--;
+    } else {
+      mPackedBytes -= block.mLength;
+    }
+    return block;
+  }
+
+  private void spill(Block block) {
+    mRows -= ROWS_PER_BLOCK;
+    if (block.mInflatedLength < 0) deflate(block);
+    try {
+      mSpill.append(block);
+    } catch (IOException e) {
+      // Give up on the spill rather than leave a gap in the transcript:
+      EmulatorDebug.e("Error spilling transcript, dropping spilled rows", e);
+      detachSpill().close();
+    }
+  }
+
+  /**
+   * Return a row, from 0 for the oldest to {@link #getRows()} - 1 for the newest. The row must not be modified.
+   */
+  TerminalRow getRow(int index) {
+    final int spilledRows = getSpilledRows();
+    if (index < spilledRows) return getSpilledRow(index);
+    index -= spilledRows;
+    if (index < 0 || index >= mRows) throw new IllegalArgumentException("index=" + index + ", mRows=" + mRows);
+    int position = mFirstBlockOffset + index;
+    Block block = mBlocks.get(position / ROWS_PER_BLOCK);
+    TerminalRow[] rows = mUnpackedBlocks.get(block);
+    if (rows == null) {
+      rows = unpack(block);
+      mUnpackedBlocks.put(block, rows);
+    }
+    return rows[position % ROWS_PER_BLOCK];
+  }
+
+  private TerminalRow getSpilledRow(int index) {
+    if (index < 0) throw new IllegalArgumentException("index=" + index);
+    final int spilledBlock = index / ROWS_PER_BLOCK;
+    final Long key = mSpill.getFirstBlock() + spilledBlock;
+    TerminalRow[] rows = mUnpackedBlocks.get(key);
+    if (rows == null) {
+      try {
+        rows = unpack(mSpill.read(spilledBlock));
+      } catch (IOException e) {
+        // Show the row as blank, the rows of the spill should not shift while being read:
+        EmulatorDebug.e("Error reading spilled transcript", e);
+        return new TerminalRow(mColumns, TextStyle.NORMAL);
+      }
+      mUnpackedBlocks.put(key, rows);
+    }
+    return rows[index % ROWS_PER_BLOCK];
+  }
+
+  /**
+   * Pack a row with compacted styles as varints: the number of cells up to the last printing one, shifted left by one
+   * with the line wrap flag in the low bit; the code point plus one of each of those cells, so that
+   * {@link TerminalRow#WIDE_CHAR_CONTINUATION} is 0; the number of cells with combining characters followed by the
+   * column, count and chars of each; and the number of style runs followed by their start columns and styles.
+   */
+  private void pack(TerminalRow row, Block block) {
+    final long[] styleRuns = row.getStyleRuns();
+    int cells = 0;
+    for (int column = mColumns - 1; column >= 0; column--) {
+      if (row.isPrinting(column)) {
+        cells = column + 1;
+        break;
+      }
+    }
+
+    block.ensureCapacity(10 + 3 * cells);
+    byte[] data = block.mData;
+    int length = putVarint(data, block.mLength, (cells << 1) | (row.mLineWrap ? 1 : 0));
+    for (int column = 0; column < cells; column++) {
+      int value = row.getCodePoint(column) + 1;
+      if (value < 0x80) {
+        data[length++] = (byte) value;
+      } else {
+        length = putVarint(data, length, value);
+      }
+    }
+
+    int combiningCells = 0;
+    if (row.hasCombiningChars()) {
+      for (int column = 0; column < cells; column++)
+        if (getCombiningCount(row, column) > 0) combiningCells++;
+    }
+    length = putVarint(data, length, combiningCells);
+    block.mLength = length;
+    for (int column = 0; combiningCells > 0; column++) {
+      int combiningCount = getCombiningCount(row, column);
+      if (combiningCount == 0) continue;
+      int charCount = row.getCharCount(column);
+      if (mChars.length < charCount) mChars = new char[charCount];
+      row.getChars(column, mChars, 0);
+      block.ensureCapacity(10 + 3 * combiningCount);
+      data = block.mData;
+      length = putVarint(data, block.mLength, column);
+      length = putVarint(data, length, combiningCount);
+      for (int i = charCount - combiningCount; i < charCount; i++)
+        length = putVarint(data, length, mChars[i]);
+      block.mLength = length;
+      combiningCells--;
+    }
+
+    block.ensureCapacity(5 + 10 * styleRuns.length);
+    data = block.mData;
+    length = putVarint(data, block.mLength, styleRuns.length / 2);
+    for (long value : styleRuns)
+      length = putVarint(data, length, value);
+    block.mLength = length;
+  }
+
+  private static int getCombiningCount(TerminalRow row, int column) {
+    int codePoint = row.getCodePoint(column);
+    return (codePoint == TerminalRow.WIDE_CHAR_CONTINUATION) ? 0 : row.getCharCount(column) - Character.charCount(codePoint);
+  }
+
+  /**
+   * Write an unsigned varint, of at most 10 bytes.
+   *
+   * @return the offset after the varint.
+   */
+  private static int putVarint(byte[] data, int offset, long value) {
+    while ((value & ~0x7FL) != 0) {
+      data[offset++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    data[offset++] = (byte) value;
+    return offset;
+  }
+
+  private void deflate(Block block) {
+    if (mDeflater == null) {
+      mDeflater = new Deflater(Deflater.BEST_SPEED);
+      mDeflateBuffer = new byte[4096];
+    }
+    mDeflater.reset();
+    mDeflater.setInput(block.mData, 0, block.mLength);
+    mDeflater.finish();
+    int length = 0;
+    while (!mDeflater.finished()) {
+      if (length == mDeflateBuffer.length) mDeflateBuffer = Arrays.copyOf(mDeflateBuffer, 2 * length);
+      length += mDeflater.deflate(mDeflateBuffer, length, mDeflateBuffer.length - length);
+    }
+    mSpareData = block.mData;
+    block.mInflatedLength = block.mLength;
+    block.mData = Arrays.copyOf(mDeflateBuffer, length);
+    block.mLength = length;
+  }
+
+  private TerminalRow[] unpack(Block block) {
+    byte[] data = block.mData;
+    if (block.mInflatedLength >= 0) {
+      if (mInflater == null) mInflater = new Inflater();
+      data = new byte[block.mInflatedLength];
+      mInflater.reset();
+      mInflater.setInput(block.mData, 0, block.mLength);
+      try {
+        for (int length = 0; length < data.length; )
+          length += mInflater.inflate(data, length, data.length - length);
+      } catch (DataFormatException e) {
+        throw new IllegalStateException("Corrupt transcript block", e);
+      }
+    }
+
+    TerminalRow[] rows = new TerminalRow[block.mRows];
+    int[] position = {0};
+    for (int i = 0; i < rows.length; i++) {
+      TerminalRow row = new TerminalRow(mColumns, TextStyle.NORMAL, mReusableStyles);
+      int header = (int) readVarint(data, position);
+      row.mLineWrap = (header & 1) != 0;
+      for (int column = 0, cells = header >>> 1; column < cells; column++) {
+        int codePoint = (int) readVarint(data, position) - 1;
+        // Spilled rows may be wider than the transcript, and are then cut at its last column:
+        if (codePoint == TerminalRow.WIDE_CHAR_CONTINUATION || column >= mColumns) continue;
+        if (column == mColumns - 1 && WcWidth.width(codePoint) == 2) continue;
+        row.setChar(column, codePoint, TextStyle.NORMAL);
+      }
+      for (int combiningCells = (int) readVarint(data, position); combiningCells > 0; combiningCells--) {
+        int column = (int) readVarint(data, position);
+        int combiningCount = (int) readVarint(data, position);
+        if (mChars.length < combiningCount) mChars = new char[combiningCount];
+        for (int j = 0; j < combiningCount; j++)
+          mChars[j] = (char) readVarint(data, position);
+        for (int j = 0; j < combiningCount && column < mColumns; ) {
+          int combiningChar = Character.codePointAt(mChars, j, combiningCount);
+          row.setChar(column, combiningChar, TextStyle.NORMAL);
+          j += Character.charCount(combiningChar);
+        }
+      }
+      long[] styleRuns = new long[2 * (int) readVarint(data, position)];
+      for (int j = 0; j < styleRuns.length; j++)
+        styleRuns[j] = readVarint(data, position);
+      int runsLength = styleRuns.length;
+      while (runsLength > 2 && styleRuns[runsLength - 2] >= mColumns) runsLength -= 2;
+      if (runsLength < styleRuns.length) styleRuns = Arrays.copyOf(styleRuns, runsLength);
+      mReusableStyles = row.setStyleRuns(styleRuns);
+      rows[i] = row;
+    }
+    return rows;
+  }
+
+  private static long readVarint(byte[] data, int[] position) {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = data[position[0]++];
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+  }
+
+}
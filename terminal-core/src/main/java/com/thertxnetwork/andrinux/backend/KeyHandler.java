@@ -1,9 +1,10 @@
 package com.thertxnetwork.andrinux.backend;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
-import static android.view.KeyEvent.*;
+import static com.thertxnetwork.andrinux.backend.KeyCodes.*;
 
 public final class KeyHandler {
 
@@ -13,6 +14,38 @@ public final class KeyHandler {
 
   private static final Map<String, Integer> TERMCAP_TO_KEYCODE = new HashMap<>();
 
+  /**
+   * The number of key codes in the table, {@link KeyCodes#KEYCODE_NUMPAD_EQUALS} being the highest with a code.
+   */
+  private static final int KEYCODES = KEYCODE_NUMPAD_EQUALS + 1;
+  /**
+   * The number of combinations of the three modifiers, and of the cursor and keypad application modes.
+   */
+  private static final int MODIFIER_COMBINATIONS = 8;
+  private static final int MODE_COMBINATIONS = 4;
+  /**
+   * The UTF-8 encoded codes of {@link #getCode(int, int, boolean, boolean)}, indexed by {@link #codeIndex(int, int,
+   * boolean, boolean)}, so that a key press allocates nothing.
+   */
+  private static final byte[][] CODES = new byte[KEYCODES * MODE_COMBINATIONS * MODIFIER_COMBINATIONS][];
+
+  static {
+    for (int keyCode = 0; keyCode < KEYCODES; keyCode++) {
+      for (int modifiers = 0; modifiers < MODIFIER_COMBINATIONS; modifiers++) {
+        final int keyMode = ((modifiers & 1) != 0 ? KEYMOD_SHIFT : 0) | ((modifiers & 2) != 0 ? KEYMOD_ALT : 0)
+          | ((modifiers & 4) != 0 ? KEYMOD_CTRL : 0);
+        for (int modes = 0; modes < MODE_COMBINATIONS; modes++) {
+          final boolean cursorApp = (modes & 1) != 0;
+          final boolean keypadApplication = (modes & 2) != 0;
+          final String code = getCode(keyCode, keyMode, cursorApp, keypadApplication);
+          if (code != null) {
+            CODES[codeIndex(keyCode, keyMode, cursorApp, keypadApplication)] = code.getBytes(StandardCharsets.UTF_8);
+          }
+        }
+      }
+    }
+  }
+
   static {
     // terminfo: http://pubs.opengroup.org/onlinepubs/7990989799/xcurses/terminfo.html
     // termcap: http://man7.org/linux/man-pages/man5/termcap.5.html
@@ -99,6 +132,27 @@ public final class KeyHandler {
     return getCode(keyCode, keyMod, cursorKeysApplication, keypadApplication);
   }
 
+  /**
+   * The code of {@link #getCode(int, int, boolean, boolean)} encoded in UTF-8, from a precomputed table for key modes of
+   * the KEYMOD_* modifiers, for {@link TerminalOutput#write(byte[])}. The array is shared and must not be modified.
+   *
+   * @return the code, or null if the key has none.
+   */
+  public static byte[] getCodeBytes(int keyCode, int keyMode, boolean cursorApp, boolean keypadApplication) {
+    if (keyCode < 0 || keyCode >= KEYCODES || (keyMode & ~(KEYMOD_SHIFT | KEYMOD_ALT | KEYMOD_CTRL)) != 0) {
+      final String code = getCode(keyCode, keyMode, cursorApp, keypadApplication);
+      return (code == null) ? null : code.getBytes(StandardCharsets.UTF_8);
+    }
+    return CODES[codeIndex(keyCode, keyMode, cursorApp, keypadApplication)];
+  }
+
+  private static int codeIndex(int keyCode, int keyMode, boolean cursorApp, boolean keypadApplication) {
+    final int modifiers = ((keyMode & KEYMOD_SHIFT) != 0 ? 1 : 0) | ((keyMode & KEYMOD_ALT) != 0 ? 2 : 0)
+      | ((keyMode & KEYMOD_CTRL) != 0 ? 4 : 0);
+    final int modes = (cursorApp ? 1 : 0) | (keypadApplication ? 2 : 0);
+    return (keyCode * MODE_COMBINATIONS + modes) * MODIFIER_COMBINATIONS + modifiers;
+  }
+
   public static String getCode(int keyCode, int keyMode, boolean cursorApp, boolean keypadApplication) {
     switch (keyCode) {
       case KEYCODE_DPAD_CENTER:
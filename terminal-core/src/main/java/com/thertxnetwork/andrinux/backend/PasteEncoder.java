@@ -0,0 +1,156 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * Pasted text as the bytes to write to the terminal client, encoded a buffer at a time so that a large paste is never
+ * copied or written whole. Escape and C1 control characters are removed, line feeds with or without a preceding
+ * carriage return become carriage returns, and the rest is encoded in UTF-8. In bracketed paste mode the bytes are
+ * framed by "\033[200~" and "\033[201~", which pasted text cannot contain since escape characters are removed.
+ * <p>
+ * Created by {@link TerminalEmulator#createPaste(CharSequence)}, encoded on one thread and cancelled from any.
+ */
+public final class PasteEncoder {
+
+  private static final byte[] BRACKETED_PASTE_START = {27, '[', '2', '0', '0', '~'};
+  private static final byte[] BRACKETED_PASTE_END = {27, '[', '2', '0', '1', '~'};
+
+  /**
+   * The smallest buffer to encode into, which has room for either bracketed paste marker or any encoded character.
+   */
+  public static final int MIN_BUFFER_LENGTH = BRACKETED_PASTE_END.length;
+
+  private final CharSequence mText;
+  private final boolean mBracketed;
+  /**
+   * The index in {@link #mText} of the next character to encode.
+   */
+  private int mIndex;
+  private boolean mStarted, mFinished;
+  /**
+   * If the last character encoded was a carriage return of the text, so that a following line feed is dropped.
+   */
+  private boolean mAfterCarriageReturn;
+  private volatile boolean mCancelled;
+
+  PasteEncoder(CharSequence text, boolean bracketed) {
+    mText = text;
+    mBracketed = bracketed;
+  }
+
+  /**
+   * The number of characters of the text.
+   */
+  public int getLength() {
+    return mText.length();
+  }
+
+  /**
+   * The number of characters of the text encoded so far.
+   */
+  public int getEncodedLength() {
+    return mIndex;
+  }
+
+  /**
+   * Stop encoding the text. The paste is still ended properly, by the closing bracketed paste marker if any.
+   */
+  public void cancel() {
+    mCancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return mCancelled;
+  }
+
+  /**
+   * Encode the next bytes of the paste into the buffer, as many as fit.
+   *
+   * @param buffer at least {@link #MIN_BUFFER_LENGTH} long.
+   * @return the number of bytes encoded into the buffer, or -1 if the paste is complete.
+   */
+  public int encode(byte[] buffer) {
+    if (buffer.length < MIN_BUFFER_LENGTH)
+      throw new IllegalArgumentException("buffer.length=" + buffer.length);
+
+    int position = 0;
+    if (!mStarted) {
+      mStarted = true;
+      if (mBracketed) {
+        System.arraycopy(BRACKETED_PASTE_START, 0, buffer, 0, BRACKETED_PASTE_START.length);
+        position = BRACKETED_PASTE_START.length;
+      }
+    }
+
+    final CharSequence text = mText;
+    final int end = text.length();
+    // Room for a four-byte sequence:
+    final int limit = buffer.length - 4;
+    int i = mIndex;
+    while (i < end && position <= limit && !mCancelled) {
+      char c = text.charAt(i++);
+      if (isRemoved(c)) {
+        continue;
+      } else if (c < 0x80) {
+        if (c == '\n') {
+          if (mAfterCarriageReturn) {
+            mAfterCarriageReturn = false;
+            continue;
+          }
+          c = '\r';
+        } else {
+          mAfterCarriageReturn = (c == '\r');
+        }
+        buffer[position++] = (byte) c;
+        continue;
+      }
+
+      mAfterCarriageReturn = false;
+      if (c < 0x800) {
+        buffer[position++] = (byte) (0b11000000 | (c >> 6));
+        buffer[position++] = (byte) (0b10000000 | (c & 0b111111));
+      } else if (!Character.isSurrogate(c)) {
+        buffer[position++] = (byte) (0b11100000 | (c >> 12));
+        buffer[position++] = (byte) (0b10000000 | ((c >> 6) & 0b111111));
+        buffer[position++] = (byte) (0b10000000 | (c & 0b111111));
+      } else if (Character.isHighSurrogate(c) && isLowSurrogate(text, i = skipRemoved(text, i))) {
+        final int codePoint = Character.toCodePoint(c, text.charAt(i++));
+        buffer[position++] = (byte) (0b11110000 | (codePoint >> 18));
+        buffer[position++] = (byte) (0b10000000 | ((codePoint >> 12) & 0b111111));
+        buffer[position++] = (byte) (0b10000000 | ((codePoint >> 6) & 0b111111));
+        buffer[position++] = (byte) (0b10000000 | (codePoint & 0b111111));
+      } else {
+        // An unpaired surrogate, replaced as by String.getBytes(StandardCharsets.UTF_8):
+        buffer[position++] = '?';
+      }
+    }
+    mIndex = i;
+
+    if ((i == end || mCancelled) && !mFinished) {
+      if (!mBracketed) {
+        mFinished = true;
+      } else if (position + BRACKETED_PASTE_END.length <= buffer.length) {
+        System.arraycopy(BRACKETED_PASTE_END, 0, buffer, position, BRACKETED_PASTE_END.length);
+        position += BRACKETED_PASTE_END.length;
+        mFinished = true;
+      }
+    }
+    return (position == 0 && mFinished) ? -1 : position;
+  }
+
+  /**
+   * The index of the first character from the given one which is not removed, so that surrogates around removed
+   * characters still pair.
+   */
+  private static int skipRemoved(CharSequence text, int index) {
+    while (index < text.length() && isRemoved(text.charAt(index))) index++;
+    return index;
+  }
+
+  private static boolean isRemoved(char c) {
+    return c == 27 || (c >= 0x80 && c <= 0x9F);
+  }
+
+  private static boolean isLowSurrogate(CharSequence text, int index) {
+    return index < text.length() && Character.isLowSurrogate(text.charAt(index));
+  }
+
+}
@@ -0,0 +1,750 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * A circular buffer of {@link TerminalRow}:s which keeps notes about what is visible on a logical screen and the scroll
+ * history.
+ * <p>
+ * See {@link #externalToInternalRow(int)} for how to map from logical screen rows to array indices. Rows of a long
+ * transcript which drop out of the circular buffer are kept in a {@link FrozenTranscript}, see {@link #getRow(int)}.
+ */
+public final class TerminalBuffer {
+
+  /**
+   * The maximum number of transcript rows in {@link #mLines}, older rows are frozen into {@link #mFrozenTranscript}.
+   */
+  public static final int MAX_UNFROZEN_TRANSCRIPT_ROWS = 256;
+
+  /**
+   * The rows, allocated when first written to, so that null is a blank row.
+   */
+  TerminalRow[] mLines;
+  /**
+   * The length of {@link #mLines}.
+   */
+  int mTotalRows;
+  /**
+   * The number of rows and columns visible on the screen.
+   */
+  int mScreenRows, mColumns;
+  /**
+   * The number of rows kept in history.
+   */
+  private int mActiveTranscriptRows = 0;
+  /**
+   * The index in the circular buffer where the visible screen starts.
+   */
+  private int mScreenFirstRow = 0;
+  /**
+   * The transcript rows older than those in {@link #mLines}, or null if all of the transcript fits there. While
+   * {@link #mReflow} is in progress, only the rows frozen since it started.
+   */
+  private FrozenTranscript mFrozenTranscript;
+  /**
+   * The reflow of the frozen rows after a change of the number of columns, or null if none is in progress.
+   */
+  private TranscriptReflow mReflow;
+  /**
+   * The number of rows {@link #mFrozenTranscript} is created to keep.
+   */
+  private final int mMaxFrozenRows;
+  /**
+   * The row returned by {@link #getRow(int)} for rows not allocated in {@link #mLines}, which is never modified, or null
+   * until needed.
+   */
+  private TerminalRow mBlankRow;
+
+  /**
+   * The number of rows the whole screen has scrolled up since {@link #clearDamage()}.
+   */
+  private int mDamageShift;
+  /**
+   * The screen rows and their {@link TerminalRow#mModificationCount} as of {@link #clearDamage()}, or null if all rows
+   * are to be considered damaged.
+   */
+  private TerminalRow[] mDamageRows;
+  private int[] mDamageModificationCounts;
+
+  /**
+   * Create a transcript screen.
+   *
+   * @param columns    the width of the screen in characters.
+   * @param totalRows  the height of the entire text area, in rows of text. Rows of the transcript beyond
+   *                   {@link #MAX_UNFROZEN_TRANSCRIPT_ROWS} are frozen.
+   * @param screenRows the height of just the screen, not including the transcript that holds lines that have scrolled off
+   *                   the top of the screen.
+   */
+  public TerminalBuffer(int columns, int totalRows, int screenRows) {
+    this(columns, totalRows, screenRows, null);
+  }
+
+  /**
+   * Create a transcript screen whose oldest rows are moved to a spill instead of being dropped.
+   *
+   * @param spill where rows beyond totalRows are kept, or null to drop them.
+   */
+  public TerminalBuffer(int columns, int totalRows, int screenRows, TranscriptSpill spill) {
+    mColumns = columns;
+    mTotalRows = Math.max(screenRows, Math.min(totalRows, screenRows + MAX_UNFROZEN_TRANSCRIPT_ROWS));
+    mScreenRows = screenRows;
+    mLines = new TerminalRow[mTotalRows];
+    // Rows reach the spill through the frozen transcript, so have one even for a short transcript:
+    mMaxFrozenRows = Math.max(totalRows - mTotalRows, (spill == null) ? 0 : FrozenTranscript.ROWS_PER_BLOCK);
+    if (mMaxFrozenRows > 0) mFrozenTranscript = new FrozenTranscript(columns, mMaxFrozenRows, spill);
+  }
+
+  public String getTranscriptText() {
+    return getSelectedText(0, -getActiveTranscriptRows(), mColumns, mScreenRows).trim();
+  }
+
+  public String getSelectedText(int selX1, int selY1, int selX2, int selY2) {
+    final StringBuilder builder = new StringBuilder();
+    final int columns = mColumns;
+
+    if (selY1 < -getActiveTranscriptRows()) selY1 = -getActiveTranscriptRows();
+    if (selY2 >= mScreenRows) selY2 = mScreenRows - 1;
+
+    for (int row = selY1; row <= selY2; row++) {
+      int x1 = (row == selY1) ? selX1 : 0;
+      int x2;
+      if (row == selY2) {
+        x2 = selX2 + 1;
+        if (x2 > columns) x2 = columns;
+      } else {
+        x2 = columns;
+      }
+      TerminalRow lineObject = getRow(row);
+      // Selecting the second half of a wide character selects all of it, except at the end of the selection:
+      int x1Column = (x1 < columns && lineObject.getCodePoint(x1) == TerminalRow.WIDE_CHAR_CONTINUATION) ? x1 - 1 : x1;
+      int x2Column = (x2 < columns && lineObject.getCodePoint(x2) == TerminalRow.WIDE_CHAR_CONTINUATION) ? x2 - 1 : x2;
+      if (x2Column == x1Column) {
+        // Selected the start of a wide character.
+        x2Column = Math.min(x2 + 1, columns);
+      }
+      int lastPrintingColumn = -1;
+      boolean rowLineWrap = lineObject.mLineWrap;
+      if (rowLineWrap && x2 == columns) {
+        // If the line was wrapped, we shouldn't lose trailing space:
+        lastPrintingColumn = x2Column - 1;
+      } else {
+        for (int column = x1Column; column < x2Column; ++column)
+          if (lineObject.isPrinting(column)) lastPrintingColumn = column;
+      }
+      if (lastPrintingColumn != -1) lineObject.appendText(x1Column, lastPrintingColumn + 1, builder);
+      if (!rowLineWrap && row < selY2 && row < mScreenRows - 1) builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  public int getActiveTranscriptRows() {
+    return mActiveTranscriptRows + getFrozenRows();
+  }
+
+  public int getActiveRows() {
+    return getActiveTranscriptRows() + mScreenRows;
+  }
+
+  private int getFrozenRows() {
+    if (mReflow != null) return mReflow.getRows();
+    return (mFrozenTranscript == null) ? 0 : mFrozenTranscript.getRows();
+  }
+
+  private TerminalRow getFrozenRow(int index) {
+    return (mReflow != null) ? mReflow.getRow(index) : mFrozenTranscript.getRow(index);
+  }
+
+  /**
+   * Continue reflowing the frozen rows of the transcript after a change of the number of columns, which only reflows
+   * the rows in {@link #mLines} right away. Until reflowed, frozen rows are shown cut or padded to the new width.
+   *
+   * @param deadlineNanos when to stop, as given by {@link System#nanoTime()}.
+   * @return whether rows remain to be reflowed.
+   */
+  public boolean continueReflow(long deadlineNanos) {
+    if (mReflow == null) return false;
+    if (mReflow.reflow(deadlineNanos)) return true;
+    mFrozenTranscript = mReflow.getOutput();
+    mReflow = null;
+    return false;
+  }
+
+  /**
+   * Return a row in the external coordinate system, see {@link #externalToInternalRow(int)}, which may be a frozen
+   * row of the transcript, or a shared blank row if never written to. The row must not be modified.
+   */
+  public TerminalRow getRow(int externalRow) {
+    if (externalRow < -mActiveTranscriptRows && mFrozenTranscript != null)
+      return getFrozenRow(getFrozenRows() + mActiveTranscriptRows + externalRow);
+    final TerminalRow row = mLines[externalToInternalRow(externalRow)];
+    if (row != null) return row;
+    if (mBlankRow == null) mBlankRow = new TerminalRow(mColumns, TextStyle.NORMAL);
+    return mBlankRow;
+  }
+
+  /**
+   * Convert a row value from the public external coordinate system to our internal private coordinate system. Only
+   * valid for the rows in {@link #mLines}, that is, not for frozen rows of the transcript.
+   *
+   * <pre>
+   * - External coordinate system: -getActiveTranscriptRows() to mScreenRows-1, with the screen being 0..mScreenRows-1.
+   * - Internal coordinate system: the mScreenRows lines starting at mScreenFirstRow comprise the screen, while the
+   *   mActiveTranscriptRows lines ending at mScreenFirstRow-1 form the transcript (as a circular buffer).
+   *
+   * External ↔ Internal:
+   *
+   * [ ...                            ]     [ ...                                     ]
+   * [ -mActiveTranscriptRows         ]     [ mScreenFirstRow - mActiveTranscriptRows ]
+   * [ ...                            ]     [ ...                                     ]
+   * [ 0 (visible screen starts here) ]  ↔  [ mScreenFirstRow                         ]
+   * [ ...                            ]     [ ...                                     ]
+   * [ mScreenRows-1                  ]     [ mScreenFirstRow + mScreenRows-1         ]
+   * </pre>
+   *
+   * @param externalRow a row in the external coordinate system.
+   * @return The row corresponding to the input argument in the private coordinate system.
+   */
+  public int externalToInternalRow(int externalRow) {
+    if (externalRow < -mActiveTranscriptRows || externalRow > mScreenRows)
+      throw new IllegalArgumentException("extRow=" + externalRow + ", mScreenRows=" + mScreenRows + ", mActiveTranscriptRows=" + mActiveTranscriptRows);
+    final int internalRow = mScreenFirstRow + externalRow;
+    return (internalRow < 0) ? (mTotalRows + internalRow) : (internalRow % mTotalRows);
+  }
+
+  /**
+   * Return the number of rows the whole screen has scrolled up since the last {@link #clearDamage()}, which moved the
+   * rows without damaging them.
+   */
+  public int getDamageShift() {
+    return mDamageShift;
+  }
+
+  /**
+   * Return whether a screen row has changed since the last {@link #clearDamage()}, other than by scrolling up
+   * {@link #getDamageShift()} rows. A row that was below the screen before scrolling is damaged.
+   */
+  public boolean isRowDamaged(int row) {
+    if (row < 0 || row >= mScreenRows) throw new IllegalArgumentException("row=" + row + ", mScreenRows=" + mScreenRows);
+    final int previousRow = row + mDamageShift;
+    if (mDamageRows == null || mDamageRows.length != mScreenRows || previousRow >= mScreenRows) return true;
+    final TerminalRow line = mLines[externalToInternalRow(row)];
+    return line != mDamageRows[previousRow] || (line != null && line.mModificationCount != mDamageModificationCounts[previousRow]);
+  }
+
+  /**
+   * Note the current screen, against which {@link #isRowDamaged(int)} compares, typically once it has been drawn.
+   */
+  public void clearDamage() {
+    if (mDamageRows == null || mDamageRows.length != mScreenRows) {
+      mDamageRows = new TerminalRow[mScreenRows];
+      mDamageModificationCounts = new int[mScreenRows];
+    }
+    for (int row = 0; row < mScreenRows; row++) {
+      TerminalRow line = mLines[externalToInternalRow(row)];
+      mDamageRows[row] = line;
+      mDamageModificationCounts[row] = (line == null) ? 0 : line.mModificationCount;
+    }
+    mDamageShift = 0;
+  }
+
+  public void setLineWrap(int row) {
+    allocateFullLineIfNecessary(externalToInternalRow(row)).mLineWrap = true;
+  }
+
+  public boolean getLineWrap(int row) {
+    return getRow(row).mLineWrap;
+  }
+
+  public void clearLineWrap(int row) {
+    final TerminalRow line = mLines[externalToInternalRow(row)];
+    if (line != null) line.mLineWrap = false;
+  }
+
+  /**
+   * Resize the screen which this transcript backs. Currently, this only works if the number of columns does not
+   * change or the rows expand (that is, it only works when shrinking the number of rows).
+   *
+   * @param newColumns The number of columns the screen should have.
+   * @param newRows    The number of rows the screen should have.
+   * @param cursor     An int[2] containing the (column, row) cursorColor location.
+   */
+  public void resize(int newColumns, int newRows, int newTotalRows, int[] cursor, long currentStyle, boolean altScreen) {
+    // The rows must hold the screen, which grows past them when a transcript no longer than the screen is resized to
+    // more rows. Unfrozen transcript rows are then kept after the new screen if there is a frozen transcript:
+    if (newTotalRows < newRows) newTotalRows = newRows + ((mFrozenTranscript == null) ? 0 : MAX_UNFROZEN_TRANSCRIPT_ROWS);
+    if (newColumns == mColumns && newRows <= mTotalRows) {
+      // Fast resize where just the rows changed.
+      int shiftDownOfTopRow = mScreenRows - newRows;
+      if (shiftDownOfTopRow > 0 && shiftDownOfTopRow < mScreenRows) {
+        // Shrinking. Check if we can skip blank rows at bottom below cursorColor.
+        for (int i = mScreenRows - 1; i > 0; i--) {
+          if (cursor[1] >= i) break;
+          int r = externalToInternalRow(i);
+          if (mLines[r] == null || mLines[r].isBlank()) {
+            if (--shiftDownOfTopRow == 0) break;
+          }
+        }
+      } else if (shiftDownOfTopRow < 0) {
+        // Negative shift down = expanding. Only move screen up if there is transcript to show:
+        int actualShift = Math.max(shiftDownOfTopRow, -mActiveTranscriptRows);
+        if (shiftDownOfTopRow != actualShift) {
+          // The new lines revealed by the resizing are not all from the transcript. Blank the below ones.
+          for (int i = 0; i < actualShift - shiftDownOfTopRow; i++)
+            allocateFullLineIfNecessary((mScreenFirstRow + mScreenRows + i) % mTotalRows).clear(currentStyle);
+          shiftDownOfTopRow = actualShift;
+        }
+      }
+      mScreenFirstRow += shiftDownOfTopRow;
+      mScreenFirstRow = (mScreenFirstRow < 0) ? (mScreenFirstRow + mTotalRows) : (mScreenFirstRow % mTotalRows);
+      mTotalRows = newTotalRows;
+      mActiveTranscriptRows = altScreen ? 0 : Math.max(0, mActiveTranscriptRows + shiftDownOfTopRow);
+      cursor[1] -= shiftDownOfTopRow;
+      mScreenRows = newRows;
+    } else {
+      // Take the rest of a line continuing from the frozen rows, so that it is reflowed with them. The rows are kept
+      // apart from the frozen transcript, which would drop as many of its oldest rows if full:
+      FrozenTranscript continuation = null;
+      boolean lineWrap = getFrozenRows() > 0 && getFrozenRow(getFrozenRows() - 1).mLineWrap;
+      while (lineWrap && mActiveTranscriptRows > 0) {
+        int row = externalToInternalRow(-mActiveTranscriptRows);
+        if (mLines[row] == null) break;
+        if (continuation == null) continuation = new FrozenTranscript(mColumns, mActiveTranscriptRows, null);
+        lineWrap = mLines[row].mLineWrap;
+        continuation.append(mLines[row]);
+        mLines[row] = null;
+        mActiveTranscriptRows--;
+      }
+
+      // Copy away old state and update new:
+      TerminalRow[] oldLines = mLines;
+      mLines = new TerminalRow[newTotalRows];
+      mBlankRow = null;
+
+      final int oldActiveTranscriptRows = mActiveTranscriptRows;
+      // Only the rows in mLines are reflowed right away, the frozen rows are reflowed by continueReflow() later, and
+      // rows frozen meanwhile come after them. Spilled rows are too many to reflow, they are kept as they are and are
+      // cut at the new number of columns:
+      if (mFrozenTranscript != null) {
+        mReflow = new TranscriptReflow(mReflow, mFrozenTranscript, continuation, newColumns, mMaxFrozenRows);
+        mFrozenTranscript = mReflow.getFrozenTranscript();
+      }
+      final int oldScreenFirstRow = mScreenFirstRow;
+      final int oldScreenRows = mScreenRows;
+      final int oldTotalRows = mTotalRows;
+      final int oldColumns = mColumns;
+      mTotalRows = newTotalRows;
+      mScreenRows = newRows;
+      mActiveTranscriptRows = mScreenFirstRow = 0;
+      mColumns = newColumns;
+      // Unallocated rows are blank in the default style, so the rows of the new screen are allocated if the current
+      // style is another one, such as a background color, for the cells past the reflowed text to keep it. Rows which
+      // scroll in while reflowing are blanked in it by scroll():
+      if (currentStyle != TextStyle.NORMAL) {
+        for (int row = 0; row < newRows; row++) mLines[row] = new TerminalRow(newColumns, currentStyle);
+      }
+
+      int newCursorRow = -1;
+      int newCursorColumn = -1;
+      int oldCursorRow = cursor[1];
+      int oldCursorColumn = cursor[0];
+      boolean newCursorPlaced = false;
+
+      int currentOutputExternalRow = 0;
+      int currentOutputExternalColumn = 0;
+      char[] combiningChars = new char[4];
+
+      // Loop over every character in the initial state.
+      // Blank lines should be skipped only if at end of transcript (just as is done in the "fast" resize), so we
+      // keep track how many blank lines we have skipped if we later on find a non-blank line.
+      int skippedBlankLines = 0;
+      for (int externalOldRow = -oldActiveTranscriptRows; externalOldRow < oldScreenRows; externalOldRow++) {
+        // Do what externalToInternalRow() does but for the old state:
+        int internalOldRow = oldScreenFirstRow + externalOldRow;
+        internalOldRow = (internalOldRow < 0) ? (oldTotalRows + internalOldRow) : (internalOldRow % oldTotalRows);
+        TerminalRow oldLine = oldLines[internalOldRow];
+        boolean cursorAtThisRow = externalOldRow == oldCursorRow;
+        // The cursorColor may be on a row never written to, which we should not skip:
+        if (oldLine == null && cursorAtThisRow && !newCursorPlaced) oldLine = new TerminalRow(oldColumns, TextStyle.NORMAL);
+        if (oldLine == null || (!(!newCursorPlaced && cursorAtThisRow)) && oldLine.isBlank()) {
+          skippedBlankLines++;
+          continue;
+        } else if (skippedBlankLines > 0) {
+          // After skipping some blank lines we encounter a non-blank line. Insert the skipped blank lines.
+          for (int i = 0; i < skippedBlankLines; i++) {
+            if (currentOutputExternalRow == mScreenRows - 1) {
+              scroll(0, mScreenRows, 1, currentStyle);
+            } else {
+              currentOutputExternalRow++;
+            }
+            currentOutputExternalColumn = 0;
+          }
+          skippedBlankLines = 0;
+        }
+
+        int lastNonSpaceColumn = 0;
+        boolean justToCursor = false;
+        if (cursorAtThisRow || oldLine.mLineWrap) {
+          // Take the whole line, either because of cursorColor on it, or if line wrapping.
+          lastNonSpaceColumn = oldColumns;
+          if (cursorAtThisRow) justToCursor = true;
+        } else {
+          for (int column = 0; column < oldColumns; column++)
+            if (oldLine.isPrinting(column)) lastNonSpaceColumn = column + 1;
+        }
+
+        for (int currentOldCol = 0; currentOldCol < lastNonSpaceColumn; currentOldCol++) {
+          int codePoint = oldLine.getCodePoint(currentOldCol);
+          if (codePoint == TerminalRow.WIDE_CHAR_CONTINUATION) continue;
+          int displayWidth = oldLine.getWidth(currentOldCol);
+          long styleAtCol = oldLine.getStyle(currentOldCol);
+
+          // Line wrap as necessary:
+          if (currentOutputExternalColumn + displayWidth > mColumns) {
+            setLineWrap(currentOutputExternalRow);
+            if (currentOutputExternalRow == mScreenRows - 1) {
+              if (newCursorPlaced) newCursorRow--;
+              scroll(0, mScreenRows, 1, currentStyle);
+            } else {
+              currentOutputExternalRow++;
+            }
+            currentOutputExternalColumn = 0;
+          }
+
+          setChar(currentOutputExternalColumn, currentOutputExternalRow, codePoint, styleAtCol);
+          // Combining characters are output to the same cell:
+          int charCount = oldLine.getCharCount(currentOldCol);
+          if (charCount > Character.charCount(codePoint)) {
+            if (combiningChars.length < charCount) combiningChars = new char[charCount];
+            oldLine.getChars(currentOldCol, combiningChars, 0);
+            for (int i = Character.charCount(codePoint); i < charCount; ) {
+              int combiningChar = Character.codePointAt(combiningChars, i);
+              setChar(currentOutputExternalColumn, currentOutputExternalRow, combiningChar, styleAtCol);
+              i += Character.charCount(combiningChar);
+            }
+          }
+
+          if (oldCursorRow == externalOldRow && oldCursorColumn == currentOldCol) {
+            newCursorColumn = currentOutputExternalColumn;
+            newCursorRow = currentOutputExternalRow;
+            newCursorPlaced = true;
+          }
+          currentOutputExternalColumn += displayWidth;
+          if (justToCursor && newCursorPlaced) break;
+        }
+        // Old row has been copied. Check if we need to insert newline if old line was not wrapping:
+        if (externalOldRow != (oldScreenRows - 1) && !oldLine.mLineWrap) {
+          if (currentOutputExternalRow == mScreenRows - 1) {
+            if (newCursorPlaced) newCursorRow--;
+            scroll(0, mScreenRows, 1, currentStyle);
+          } else {
+            currentOutputExternalRow++;
+          }
+          currentOutputExternalColumn = 0;
+        }
+      }
+
+      cursor[0] = newCursorColumn;
+      cursor[1] = newCursorRow;
+    }
+
+    // Handle cursorColor scrolling off screen:
+    if (cursor[0] < 0 || cursor[1] < 0) cursor[0] = cursor[1] = 0;
+    mDamageRows = null;
+
+    // Rows may have moved between the screen and the transcript:
+    for (int row = 0; row < mTotalRows; row++) {
+      TerminalRow line = mLines[row];
+      if (line == null) continue;
+      int externalRow = row - mScreenFirstRow;
+      if (externalRow < 0) externalRow += mTotalRows;
+      if (externalRow < mScreenRows) {
+        line.expandStyles(null);
+      } else {
+        line.compactStyles();
+      }
+    }
+  }
+
+  /**
+   * Rotate rows of the circular buffer, taking wraparound into account, so that the row at distance rows after the
+   * first comes first.
+   *
+   * @param startInternal The first row to be rotated.
+   * @param len           The number of rows to be rotated.
+   * @param distance      The number of rows moved from the start to the end.
+   */
+  private void rotateRows(int startInternal, int len, int distance) {
+    if (distance == 0 || distance == len) return;
+    reverseRows(startInternal, distance);
+    reverseRows(startInternal + distance, len - distance);
+    reverseRows(startInternal, len);
+  }
+
+  private void reverseRows(int startInternal, int len) {
+    final int totalRows = mTotalRows;
+    for (int i = startInternal, j = startInternal + len - 1; i < j; i++, j--) {
+      TerminalRow line = mLines[i % totalRows];
+      mLines[i % totalRows] = mLines[j % totalRows];
+      mLines[j % totalRows] = line;
+    }
+  }
+
+  /**
+   * Blank a row of the circular buffer, leaving it unallocated if it is and the style is the default one.
+   */
+  private void blankRow(int row, long style, long[] reusableStyles) {
+    if (mLines[row] != null) {
+      mLines[row].clear(style, reusableStyles);
+    } else if (style != TextStyle.NORMAL) {
+      mLines[row] = new TerminalRow(mColumns, style, reusableStyles);
+    }
+  }
+
+  /**
+   * Scroll the screen between the margins, as a line feed at the bottom margin does when lines is 1. To scroll the
+   * whole screen of a 24 line screen, the margins would be (0, 24).
+   * <p>
+   * Scrolling up moves the lines scrolled out of the margins into the transcript while the lines outside the margins
+   * stay in place, scrolling down discards them. Rows are moved by reference, so the cost does not grow with the
+   * number of lines times the number of rows outside the margins.
+   *
+   * @param topMargin    First line that is scrolled.
+   * @param bottomMargin One line after the last line that is scrolled.
+   * @param lines        the number of lines to scroll up, or down if negative.
+   * @param style        the style for the newly exposed lines.
+   */
+  public void scroll(int topMargin, int bottomMargin, int lines, long style) {
+    if (topMargin > bottomMargin - 1 || topMargin < 0 || bottomMargin > mScreenRows)
+      throw new IllegalArgumentException("topMargin=" + topMargin + ", bottomMargin=" + bottomMargin + ", mScreenRows=" + mScreenRows);
+    if (lines < 0) {
+      shiftRows(topMargin, bottomMargin, lines, style);
+      return;
+    }
+    if (mTotalRows < mScreenRows)
+      throw new IllegalStateException("mTotalRows=" + mTotalRows + ", mScreenRows=" + mScreenRows);
+
+    // Scrolling part of the screen moves rows to other positions than before, which shows as damage to them:
+    if (topMargin == 0 && bottomMargin == mScreenRows) mDamageShift += lines;
+    while (lines > 0) {
+      final int linesToScroll;
+      if (mTotalRows == mScreenRows) {
+        // No transcript rows to scroll into, so the lines scrolled out are frozen right away, or dropped:
+        linesToScroll = (mFrozenTranscript == null) ? lines : Math.min(lines, bottomMargin - topMargin);
+        if (mFrozenTranscript != null) {
+          for (int row = topMargin; row < topMargin + linesToScroll; row++)
+            freeze(allocateFullLineIfNecessary(externalToInternalRow(row)));
+        }
+        if (topMargin == 0 && bottomMargin == mScreenRows) {
+          // Scrolling the whole screen just moves its location in the ring buffer:
+          mScreenFirstRow = (mScreenFirstRow + linesToScroll) % mTotalRows;
+          for (int row = Math.max(0, mScreenRows - linesToScroll); row < mScreenRows; row++)
+            blankRow(externalToInternalRow(row), style, null);
+        } else {
+          shiftRows(topMargin, bottomMargin, linesToScroll, style);
+        }
+      } else {
+        linesToScroll = Math.min(lines, Math.min(bottomMargin - topMargin, mTotalRows - mScreenRows));
+        scrollIntoTranscript(topMargin, bottomMargin, linesToScroll, style);
+      }
+      lines -= linesToScroll;
+    }
+  }
+
+  /**
+   * Scroll the screen up, for lines no more than the lines between the margins nor the rows of the transcript.
+   */
+  private void scrollIntoTranscript(int topMargin, int bottomMargin, int lines, long style) {
+    final int firstRow = mScreenFirstRow;
+    // The lines scrolled out of the top margin go just above the screen, moving the fixed topMargin lines down so that
+    // they remain on screen in same position:
+    rotateRows(firstRow, topMargin + lines, topMargin);
+    // The rows after the screen, unused or the oldest of the transcript, become the blank lines above the bottom
+    // margin, moving the fixed mScreenRows-bottomMargin lines down so that they remain on screen in same position:
+    rotateRows(firstRow + bottomMargin, mScreenRows - bottomMargin + lines, mScreenRows - bottomMargin);
+
+    // Update the screen location in the ring buffer:
+    mScreenFirstRow = (firstRow + lines) % mTotalRows;
+    // Note that the history has grown if not already full, otherwise the oldest rows of the history are to be reused
+    // as the blank rows and get frozen first, if there is a frozen transcript:
+    final int transcriptGrowth = Math.min(lines, mTotalRows - mScreenRows - mActiveTranscriptRows);
+    mActiveTranscriptRows += transcriptGrowth;
+
+    for (int i = 0; i < lines; i++) {
+      // The row scrolled into the transcript gets compact styles, and hands over its dense styles to a revealed line:
+      final TerminalRow rowToTranscript = mLines[(firstRow + i) % mTotalRows];
+      long[] reusableStyles = (rowToTranscript == null) ? null : rowToTranscript.compactStyles();
+
+      // Blank the newly revealed line above the bottom margin:
+      final int blankRow = externalToInternalRow(bottomMargin - lines + i);
+      if (i >= transcriptGrowth && mFrozenTranscript != null) {
+        // A row never written to is still a row of the transcript:
+        long[] freedStyles = freeze(allocateFullLineIfNecessary(blankRow));
+        if (reusableStyles == null) reusableStyles = freedStyles;
+      }
+      blankRow(blankRow, style, reusableStyles);
+    }
+  }
+
+  /**
+   * Move the lines between the margins up, or down if negative, discarding the lines moved out of the margins and
+   * blanking the lines exposed, without touching the transcript.
+   *
+   * @param topMargin    First line that is moved.
+   * @param bottomMargin One line after the last line that is moved.
+   * @param lines        the number of lines to move up, or down if negative.
+   * @param style        the style for the newly exposed lines.
+   */
+  public void shiftRows(int topMargin, int bottomMargin, int lines, long style) {
+    if (topMargin > bottomMargin - 1 || topMargin < 0 || bottomMargin > mScreenRows)
+      throw new IllegalArgumentException("topMargin=" + topMargin + ", bottomMargin=" + bottomMargin + ", mScreenRows=" + mScreenRows);
+    final int regionRows = bottomMargin - topMargin;
+    final int movedRows = Math.min(Math.abs(lines), regionRows);
+    final int firstRow = externalToInternalRow(topMargin);
+    rotateRows(firstRow, regionRows, (lines > 0) ? movedRows : (regionRows - movedRows));
+    final int firstBlankRow = (lines > 0) ? (bottomMargin - movedRows) : topMargin;
+    for (int row = firstBlankRow; row < firstBlankRow + movedRows; row++)
+      blankRow(externalToInternalRow(row), style, null);
+  }
+
+  /**
+   * Append a row to the frozen transcript, see {@link FrozenTranscript#append(TerminalRow)}.
+   */
+  private long[] freeze(TerminalRow row) {
+    // Rows frozen during a reflow come after the rows being reflowed, so the oldest of them cannot be dropped:
+    if (mReflow != null && mFrozenTranscript.getRows() >= mMaxFrozenRows) continueReflow(Long.MAX_VALUE);
+    return mFrozenTranscript.append(row);
+  }
+
+  /**
+   * Block copy characters from one position in the screen to another. The two positions can overlap. All characters
+   * of the source and destination must be within the bounds of the screen, or else an InvalidParameterException will
+   * be thrown.
+   *
+   * @param sx source X coordinate
+   * @param sy source Y coordinate
+   * @param w  width
+   * @param h  height
+   * @param dx destination X coordinate
+   * @param dy destination Y coordinate
+   */
+  public void blockCopy(int sx, int sy, int w, int h, int dx, int dy) {
+    if (w == 0) return;
+    if (sx < 0 || sx + w > mColumns || sy < 0 || sy + h > mScreenRows || dx < 0 || dx + w > mColumns || dy < 0 || dy + h > mScreenRows)
+      throw new IllegalArgumentException();
+    if (sy == dy) {
+      // Moving cells within rows, where rows never written to have nothing to move:
+      for (int y = 0; y < h; y++) {
+        final TerminalRow row = mLines[externalToInternalRow(sy + y)];
+        if (row != null) row.moveCells(sx, sx + w, dx);
+      }
+      return;
+    }
+    boolean copyingUp = sy > dy;
+    for (int y = 0; y < h; y++) {
+      int y2 = copyingUp ? y : (h - (y + 1));
+      TerminalRow sourceRow = getRow(sy + y2);
+      allocateFullLineIfNecessary(externalToInternalRow(dy + y2)).copyInterval(sourceRow, sx, sx + w, dx);
+    }
+  }
+
+  /**
+   * Block set characters. All characters must be within the bounds of the screen, or else and
+   * InvalidParemeterException will be thrown. Typically this is called with a "val" argument of 32 to clear a block
+   * of characters.
+   */
+  public void blockSet(int sx, int sy, int w, int h, int val, long style) {
+    if (sx < 0 || sx + w > mColumns || sy < 0 || sy + h > mScreenRows) {
+      throw new IllegalArgumentException(
+        "Illegal arguments! blockSet(" + sx + ", " + sy + ", " + w + ", " + h + ", " + val + ", " + mColumns + ", " + mScreenRows + ")");
+    }
+    for (int y = 0; y < h; y++) {
+      final int row = externalToInternalRow(sy + y);
+      // Blanking a row never written to leaves it so:
+      if (mLines[row] == null && val == ' ' && style == TextStyle.NORMAL) continue;
+      allocateFullLineIfNecessary(row).fill(sx, sx + w, val, style);
+    }
+  }
+
+  /**
+   * Block set characters as {@link #blockSet(int, int, int, int, int, long)} does, except in cells with the
+   * {@link TextStyle#CHARACTER_ATTRIBUTE_PROTECTED} attribute.
+   */
+  public void blockSetUnprotected(int sx, int sy, int w, int h, int val, long style) {
+    if (sx < 0 || sx + w > mColumns || sy < 0 || sy + h > mScreenRows) {
+      throw new IllegalArgumentException(
+        "Illegal arguments! blockSetUnprotected(" + sx + ", " + sy + ", " + w + ", " + h + ", " + val + ", " + mColumns + ", " + mScreenRows + ")");
+    }
+    for (int y = 0; y < h; y++) {
+      final int row = externalToInternalRow(sy + y);
+      final TerminalRow line = mLines[row];
+      if (line == null) {
+        // Nothing is protected in a row never written to:
+        if (val != ' ' || style != TextStyle.NORMAL) allocateFullLineIfNecessary(row).fill(sx, sx + w, val, style);
+        continue;
+      }
+      // Fill each run of unprotected cells at once:
+      int runStart = -1;
+      for (int x = sx; x <= sx + w; x++) {
+        boolean isProtected = x == sx + w || (TextStyle.decodeEffect(line.getStyle(x)) & TextStyle.CHARACTER_ATTRIBUTE_PROTECTED) != 0;
+        if (!isProtected && runStart < 0) {
+          runStart = x;
+        } else if (isProtected && runStart >= 0) {
+          line.fill(runStart, x, val, style);
+          runStart = -1;
+        }
+      }
+    }
+  }
+
+  public TerminalRow allocateFullLineIfNecessary(int row) {
+    return (mLines[row] == null) ? (mLines[row] = new TerminalRow(mColumns, TextStyle.NORMAL)) : mLines[row];
+  }
+
+  public void setChar(int column, int row, int codePoint, long style) {
+    if (row >= mScreenRows || column >= mColumns)
+      throw new IllegalArgumentException("row=" + row + ", column=" + column + ", mScreenRows=" + mScreenRows + ", mColumns=" + mColumns);
+    row = externalToInternalRow(row);
+    allocateFullLineIfNecessary(row).setChar(column, codePoint, style);
+  }
+
+  /**
+   * Set a run of printable 7-bit ASCII characters, all of display width 1, starting at the given column.
+   */
+  public void setAsciiChars(int column, int row, byte[] chars, int offset, int length, long style) {
+    if (row >= mScreenRows || column + length > mColumns)
+      throw new IllegalArgumentException("row=" + row + ", column=" + column + ", length=" + length + ", mScreenRows=" + mScreenRows + ", mColumns=" + mColumns);
+    row = externalToInternalRow(row);
+    allocateFullLineIfNecessary(row).setAsciiChars(column, chars, offset, length, style);
+  }
+
+  public long getStyleAt(int externalRow, int column) {
+    return getRow(externalRow).getStyle(column);
+  }
+
+  /**
+   * Support for http://vt100.net/docs/vt510-rm/DECCARA and http://vt100.net/docs/vt510-rm/DECCARA
+   */
+  public void setOrClearEffect(int bits, boolean setOrClear, boolean reverse, boolean rectangular, int leftMargin, int rightMargin, int top, int left,
+                               int bottom, int right) {
+    for (int y = top; y < bottom; y++) {
+      TerminalRow line = allocateFullLineIfNecessary(externalToInternalRow(y));
+      int startOfLine = (rectangular || y == top) ? left : leftMargin;
+      int endOfLine = (rectangular || y + 1 == bottom) ? right : rightMargin;
+      for (int x = startOfLine; x < endOfLine; x++) {
+        long currentStyle = line.getStyle(x);
+        int foreColor = TextStyle.decodeForeColor(currentStyle);
+        int backColor = TextStyle.decodeBackColor(currentStyle);
+        int effect = TextStyle.decodeEffect(currentStyle);
+        if (reverse) {
+          // Clear out the bits to reverse and add them back in reversed:
+          effect = (effect & ~bits) | (bits & ~effect);
+        } else if (setOrClear) {
+          effect |= bits;
+        } else {
+          effect &= ~bits;
+        }
+        line.mStyle[x] = TextStyle.encode(foreColor, backColor, effect);
+      }
+      line.mModificationCount++;
+    }
+  }
+
+}
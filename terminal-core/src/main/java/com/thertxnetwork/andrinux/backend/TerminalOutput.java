@@ -15,6 +15,14 @@ public abstract class TerminalOutput {
     write(bytes, 0, bytes.length);
   }
 
+  /**
+   * Write bytes to the terminal client, such as the precomputed ones of
+   * {@link KeyHandler#getCodeBytes(int, int, boolean, boolean)}, without encoding them as {@link #write(String)} does.
+   */
+  public final void write(byte[] data) {
+    write(data, 0, data.length);
+  }
+
   /**
    * Write bytes to the terminal client.
    */
@@ -0,0 +1,419 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.util.Arrays;
+
+/**
+ * A row in a terminal, composed of a fixed number of cells.
+ * <p>
+ * Each cell holds one code point in {@link #mCodePoints}, so that a column is accessed in constant time. A wide
+ * character occupies its column and the next one, which holds {@link #WIDE_CHAR_CONTINUATION}. Combining characters
+ * are kept in a side table, {@link #mCombiningChars}, which is only allocated for rows containing them.
+ */
+public final class TerminalRow {
+
+  /**
+   * The value of the cell holding the second column of a wide character.
+   */
+  public static final int WIDE_CHAR_CONTINUATION = -1;
+
+  /**
+   * The number of columns in this terminal row.
+   */
+  private final int mColumns;
+  /**
+   * The code point of each cell in the row, or {@link #WIDE_CHAR_CONTINUATION}.
+   */
+  private final int[] mCodePoints;
+  /**
+   * The combining characters following the code point of each cell, or null if no cell in the row has any.
+   */
+  private String[] mCombiningChars;
+  /**
+   * If this row has been line wrapped due to text output at the end of line.
+   */
+  boolean mLineWrap;
+  /**
+   * The style bits of each cell in the row, see {@link TextStyle}. Null for rows in the transcript, which use
+   * {@link #mStyleRuns} instead.
+   */
+  long[] mStyle;
+  /**
+   * The styles of a row in the transcript, run-length encoded as (start column, style) pairs ordered by column.
+   */
+  private long[] mStyleRuns;
+  /**
+   * Incremented on every change to the contents of the row, for {@link TerminalBuffer#isRowDamaged(int)}.
+   */
+  int mModificationCount;
+
+  /**
+   * Construct a blank row (containing only whitespace, ' ') with a specified style.
+   */
+  public TerminalRow(int columns, long style) {
+    this(columns, style, null);
+  }
+
+  /**
+   * Construct a blank row using the given style array if of the right length, as returned from {@link #compactStyles()}.
+   */
+  TerminalRow(int columns, long style, long[] reusableStyles) {
+    mColumns = columns;
+    mCodePoints = new int[columns];
+    clear(style, reusableStyles);
+  }
+
+  /**
+   * NOTE: The sourceX2 is exclusive.
+   */
+  public void copyInterval(TerminalRow line, int sourceX1, int sourceX2, int destinationX) {
+    mModificationCount++;
+    int[] sourceCodePoints = line.mCodePoints;
+    String[] sourceCombiningChars = line.mCombiningChars;
+    if (this == line) {
+      // Overlapping copy within this row.
+      sourceCodePoints = sourceCodePoints.clone();
+      if (sourceCombiningChars != null) sourceCombiningChars = sourceCombiningChars.clone();
+    }
+    if (mStyle == null) expandStyles(null);
+    final long[] sourceStyles = (line.mStyle == null) ? null : (this == line) ? line.mStyle.clone() : line.mStyle;
+
+    for (int column = sourceX1; column < sourceX2; column++, destinationX++) {
+      int codePoint = sourceCodePoints[column];
+      String combiningChars = (sourceCombiningChars == null) ? null : sourceCombiningChars[column];
+      if (codePoint == WIDE_CHAR_CONTINUATION) {
+        // Skip the second half of a wide char already copied, keeping its style, but treat copying only the second
+        // half as copying whitespace.
+        if (column > sourceX1) {
+          mStyle[destinationX] = (sourceStyles == null) ? line.getStyle(column) : sourceStyles[column];
+          continue;
+        }
+        codePoint = ' ';
+        combiningChars = (sourceCombiningChars == null || column == 0) ? null : sourceCombiningChars[column - 1];
+      } else if (column + 1 == sourceX2 && sourceX2 < line.mColumns && sourceCodePoints[sourceX2] == WIDE_CHAR_CONTINUATION) {
+        // The first half of a wide char, whose second half is outside of the interval, is not copied.
+        break;
+      }
+      long style = (sourceStyles == null) ? line.getStyle(column) : sourceStyles[column];
+      setChar(destinationX, codePoint, style);
+      if (combiningChars != null) {
+        for (int i = 0; i < combiningChars.length(); ) {
+          int combiningChar = combiningChars.codePointAt(i);
+          setChar(destinationX, combiningChar, style);
+          i += Character.charCount(combiningChar);
+        }
+      }
+    }
+  }
+
+  /**
+   * Move the cells of the columns from start (inclusive) to end (exclusive) to the columns from destination within
+   * this row, as {@link #copyInterval(TerminalRow, int, int, int)} from this row does, but moving the arrays at once.
+   * Halves of wide characters separated from their other half are cleared to spaces.
+   */
+  public void moveCells(int start, int end, int destination) {
+    final int length = end - start;
+    if (length <= 0 || start == destination) return;
+    mModificationCount++;
+    if (mStyle == null) expandStyles(null);
+    final int[] codePoints = mCodePoints;
+    final int destinationEnd = destination + length;
+    final boolean wideCharAtStartCut = codePoints[start] == WIDE_CHAR_CONTINUATION;
+    final boolean wideCharAtEndCut = end < mColumns && codePoints[end] == WIDE_CHAR_CONTINUATION;
+    final boolean wideCharBeforeDestinationCut = codePoints[destination] == WIDE_CHAR_CONTINUATION;
+
+    System.arraycopy(codePoints, start, codePoints, destination, length);
+    System.arraycopy(mStyle, start, mStyle, destination, length);
+    if (mCombiningChars != null) System.arraycopy(mCombiningChars, start, mCombiningChars, destination, length);
+
+    if (wideCharAtStartCut) clearCell(destination);
+    if (wideCharAtEndCut) clearCell(destinationEnd - 1);
+    if (wideCharBeforeDestinationCut) clearCell(destination - 1);
+    if (destinationEnd < mColumns && codePoints[destinationEnd] == WIDE_CHAR_CONTINUATION) clearCell(destinationEnd);
+  }
+
+  /**
+   * Set a cell to a space, keeping its style.
+   */
+  private void clearCell(int column) {
+    mCodePoints[column] = ' ';
+    if (mCombiningChars != null) mCombiningChars[column] = null;
+  }
+
+  /**
+   * Return the code point in a column, which is {@link #WIDE_CHAR_CONTINUATION} for the second column of a wide
+   * character. Any combining characters following it are available from {@link #getChars(int, char[], int)}.
+   */
+  public int getCodePoint(int column) {
+    return mCodePoints[column];
+  }
+
+  /**
+   * Return the number of columns taken by the character in a column: 2 for wide characters, 0 for the second column
+   * of a wide character and 1 otherwise.
+   */
+  public int getWidth(int column) {
+    if (mCodePoints[column] == WIDE_CHAR_CONTINUATION) return 0;
+    return (column + 1 < mColumns && mCodePoints[column + 1] == WIDE_CHAR_CONTINUATION) ? 2 : 1;
+  }
+
+  /**
+   * Return the number of java chars of the text in a column, including combining characters.
+   */
+  public int getCharCount(int column) {
+    int codePoint = mCodePoints[column];
+    if (codePoint == WIDE_CHAR_CONTINUATION) return 0;
+    String combiningChars = (mCombiningChars == null) ? null : mCombiningChars[column];
+    return Character.charCount(codePoint) + (combiningChars == null ? 0 : combiningChars.length());
+  }
+
+  /**
+   * Copy the java chars of the text in a column, including combining characters, into an array.
+   *
+   * @return the number of chars copied, see {@link #getCharCount(int)}.
+   */
+  public int getChars(int column, char[] destination, int destinationIndex) {
+    int codePoint = mCodePoints[column];
+    if (codePoint == WIDE_CHAR_CONTINUATION) return 0;
+    int count = Character.toChars(codePoint, destination, destinationIndex);
+    String combiningChars = (mCombiningChars == null) ? null : mCombiningChars[column];
+    if (combiningChars != null) {
+      combiningChars.getChars(0, combiningChars.length(), destination, destinationIndex + count);
+      count += combiningChars.length();
+    }
+    return count;
+  }
+
+  /**
+   * Append the text in the columns from start (inclusive) to end (exclusive), including combining characters.
+   */
+  public void appendText(int start, int end, StringBuilder builder) {
+    for (int column = start; column < end; column++) {
+      int codePoint = mCodePoints[column];
+      if (codePoint == WIDE_CHAR_CONTINUATION) continue;
+      builder.appendCodePoint(codePoint);
+      if (mCombiningChars != null && mCombiningChars[column] != null) builder.append(mCombiningChars[column]);
+    }
+  }
+
+  /**
+   * Return if a column contains anything but a space without combining characters.
+   */
+  boolean isPrinting(int column) {
+    return mCodePoints[column] != ' ' || (mCombiningChars != null && mCombiningChars[column] != null);
+  }
+
+  /**
+   * Return if any cell in the row has combining characters.
+   */
+  boolean hasCombiningChars() {
+    return mCombiningChars != null;
+  }
+
+  public void clear(long style) {
+    clear(style, null);
+  }
+
+  /**
+   * Clear the row, using the given style array if it has run-length encoded styles, see {@link #compactStyles()}.
+   */
+  void clear(long style, long[] reusableStyles) {
+    mModificationCount++;
+    Arrays.fill(mCodePoints, ' ');
+    if (mStyle == null) {
+      mStyle = (reusableStyles != null && reusableStyles.length == mColumns) ? reusableStyles : new long[mColumns];
+      mStyleRuns = null;
+    }
+    Arrays.fill(mStyle, style);
+    mCombiningChars = null;
+    mLineWrap = false;
+  }
+
+  /**
+   * Switch to run-length encoded styles, done when the row is scrolled into the transcript where it is no longer
+   * written to.
+   *
+   * @return the dense style array no longer used by this row, which may be passed on to {@link #expandStyles(long[])}
+   * of another row, or null if already encoded.
+   */
+  long[] compactStyles() {
+    final long[] styles = mStyle;
+    if (styles == null) return null;
+    int runs = 1;
+    int firstRunEnd = 0;
+    for (int column = 1; column < mColumns; column++) {
+      if (styles[column] != styles[column - 1]) {
+        if (runs++ == 1) firstRunEnd = column;
+      }
+    }
+    final long[] styleRuns = new long[2 * runs];
+    styleRuns[1] = styles[0];
+    for (int column = firstRunEnd, run = 0; runs > 1 && column < mColumns; column++) {
+      if (styles[column] != styles[column - 1]) {
+        run += 2;
+        styleRuns[run] = column;
+        styleRuns[run + 1] = styles[column];
+      }
+    }
+    mStyleRuns = styleRuns;
+    mStyle = null;
+    return styles;
+  }
+
+  /**
+   * Switch back to a dense style array, done when the row is moved to the screen.
+   *
+   * @param reusableStyles an array to use if of the right length, as returned from {@link #compactStyles()}.
+   */
+  void expandStyles(long[] reusableStyles) {
+    if (mStyle != null) return;
+    final long[] styles = (reusableStyles != null && reusableStyles.length == mColumns) ? reusableStyles : new long[mColumns];
+    final long[] styleRuns = mStyleRuns;
+    for (int run = 0; run < styleRuns.length; run += 2) {
+      int end = (run + 2 < styleRuns.length) ? (int) styleRuns[run + 2] : mColumns;
+      Arrays.fill(styles, (int) styleRuns[run], end, styleRuns[run + 1]);
+    }
+    mStyle = styles;
+    mStyleRuns = null;
+  }
+
+  /**
+   * Return the run-length encoded styles, in the format of {@link #mStyleRuns}, or null if not encoded.
+   */
+  long[] getStyleRuns() {
+    return mStyleRuns;
+  }
+
+  /**
+   * Replace the styles with run-length encoded ones, in the format of {@link #mStyleRuns}.
+   *
+   * @return the dense style array no longer used by this row, or null if already encoded.
+   */
+  long[] setStyleRuns(long[] styleRuns) {
+    final long[] styles = mStyle;
+    mStyleRuns = styleRuns;
+    mStyle = null;
+    return styles;
+  }
+
+  // https://github.com/steven676/Android-Terminal-Emulator/commit/9a47042620bec87617f0b4f5d50568535668fe26
+  public void setChar(int columnToSet, int codePoint, long style) {
+    mModificationCount++;
+    if (mStyle == null) expandStyles(null);
+    mStyle[columnToSet] = style;
+
+    final int newCodePointDisplayWidth = WcWidth.width(codePoint);
+    final int[] codePoints = mCodePoints;
+
+    if (newCodePointDisplayWidth <= 0) {
+      // Combining characters are added to the contents of the column instead of overwriting them, so that they
+      // modify the existing contents. When standing at second half of wide character, they modify the wide char.
+      // FIXME: Put a limit of combining characters.
+      // FIXME: Unassigned characters also get width=0.
+      if (codePoints[columnToSet] == WIDE_CHAR_CONTINUATION) columnToSet--;
+      if (mCombiningChars == null) mCombiningChars = new String[mColumns];
+      String combiningChars = mCombiningChars[columnToSet];
+      String newCombiningChars = new String(Character.toChars(codePoint));
+      mCombiningChars[columnToSet] = (combiningChars == null) ? newCombiningChars : combiningChars.concat(newCombiningChars);
+      return;
+    }
+
+    if (newCodePointDisplayWidth == 2 && columnToSet == mColumns - 1)
+      throw new IllegalArgumentException("Cannot put wide character in last column");
+
+    // Check if we are overwriting the second half of a wide character starting at the previous column:
+    if (codePoints[columnToSet] == WIDE_CHAR_CONTINUATION) {
+      codePoints[columnToSet - 1] = ' ';
+      mStyle[columnToSet - 1] = style;
+      if (mCombiningChars != null) mCombiningChars[columnToSet - 1] = null;
+    }
+    // Check if we are overwriting the first half of a wide character, whose second half should be cleared:
+    final int nextColumn = columnToSet + 1;
+    if (nextColumn < mColumns && codePoints[nextColumn] == WIDE_CHAR_CONTINUATION) {
+      codePoints[nextColumn] = ' ';
+    }
+
+    codePoints[columnToSet] = codePoint;
+    if (mCombiningChars != null) mCombiningChars[columnToSet] = null;
+
+    if (newCodePointDisplayWidth == 2) {
+      // Check if the second half overwrites the first half of a wide character starting at the next column:
+      if (nextColumn + 1 < mColumns && codePoints[nextColumn + 1] == WIDE_CHAR_CONTINUATION) {
+        codePoints[nextColumn + 1] = ' ';
+        mStyle[nextColumn] = style;
+      }
+      codePoints[nextColumn] = WIDE_CHAR_CONTINUATION;
+      if (mCombiningChars != null) mCombiningChars[nextColumn] = null;
+    }
+  }
+
+  /**
+   * Bulk version of {@link #setChar(int, int, long)} for a run of printable 7-bit ASCII, which all have display width 1.
+   */
+  public void setAsciiChars(int columnToSet, byte[] chars, int offset, int length, long style) {
+    if (length == 0) return;
+    final int endColumn = columnToSet + length;
+    prepareSingleWidthRun(columnToSet, endColumn, style);
+    final int[] codePoints = mCodePoints;
+    for (int i = 0; i < length; i++)
+      codePoints[columnToSet + i] = chars[offset + i];
+  }
+
+  /**
+   * Bulk version of {@link #setChar(int, int, long)} setting the columns from start (inclusive) to end (exclusive) to
+   * one code point, as done when erasing.
+   */
+  public void fill(int start, int end, int codePoint, long style) {
+    if (start >= end) return;
+    if (WcWidth.width(codePoint) != 1) {
+      for (int column = start; column < end; column++)
+        setChar(column, codePoint, style);
+      return;
+    }
+    prepareSingleWidthRun(start, end, style);
+    Arrays.fill(mCodePoints, start, end, codePoint);
+  }
+
+  /**
+   * Set the style of a run of columns about to be overwritten by characters of display width 1, and clear their
+   * combining characters and the other halves of wide characters partly overwritten at the edges of the run.
+   */
+  private void prepareSingleWidthRun(int start, int end, long style) {
+    mModificationCount++;
+    if (mStyle == null) expandStyles(null);
+    final int[] codePoints = mCodePoints;
+    if (codePoints[start] == WIDE_CHAR_CONTINUATION) {
+      codePoints[start - 1] = ' ';
+      mStyle[start - 1] = style;
+      if (mCombiningChars != null) mCombiningChars[start - 1] = null;
+    }
+    if (end < mColumns && codePoints[end] == WIDE_CHAR_CONTINUATION) codePoints[end] = ' ';
+
+    Arrays.fill(mStyle, start, end, style);
+    if (mCombiningChars != null) Arrays.fill(mCombiningChars, start, end, null);
+  }
+
+  boolean isBlank() {
+    for (int column = 0; column < mColumns; column++)
+      if (isPrinting(column)) return false;
+    return true;
+  }
+
+  public final long getStyle(int column) {
+    if (mStyle != null) return mStyle[column];
+
+    // Binary search for the last run starting at or before the column.
+    final long[] styleRuns = mStyleRuns;
+    int low = 0;
+    int high = styleRuns.length / 2 - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (styleRuns[2 * mid] <= column) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return styleRuns[2 * low + 1];
+  }
+
+}
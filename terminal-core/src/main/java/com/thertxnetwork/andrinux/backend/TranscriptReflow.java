@@ -0,0 +1,236 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The reflow of the frozen rows of a {@link TerminalBuffer} to a new number of columns, done a few lines at a time
+ * after the resize instead of during it.
+ * <p>
+ * The rows are read from source transcripts, oldest first, and written to an output transcript of the new width. Until
+ * reflowed, a source row is shown cut or padded to the new width. The last source is the transcript where the buffer
+ * freezes rows meanwhile, see {@link #getFrozenTranscript()}, so the order of rows is kept: first the output, with the
+ * spill of the original transcript, then what remains of the sources.
+ */
+final class TranscriptReflow {
+
+  /**
+   * The number of lines reflowed between checks of the deadline.
+   */
+  private static final int LINES_PER_DEADLINE_CHECK = 64;
+  /**
+   * The number of source rows not reflowed yet whose fitted rows are kept, as many as in the unpacked blocks of a
+   * {@link FrozenTranscript}.
+   */
+  private static final int FITTED_ROWS = FrozenTranscript.UNPACKED_BLOCKS * FrozenTranscript.ROWS_PER_BLOCK;
+
+  private static final class Source {
+    final FrozenTranscript mTranscript;
+    /**
+     * The index of the next row of {@link #mTranscript} to reflow.
+     */
+    int mNextRow;
+
+    Source(FrozenTranscript transcript, int nextRow) {
+      mTranscript = transcript;
+      mNextRow = nextRow;
+    }
+
+    int getRemainingRows() {
+      return mTranscript.getRows() - mNextRow;
+    }
+  }
+
+  private final int mColumns;
+  private final ArrayList<Source> mSources = new ArrayList<>();
+  private final FrozenTranscript mOutput;
+  private final FrozenTranscript mFrozenTranscript;
+
+  /**
+   * The output row being filled, and the column to continue at.
+   */
+  private TerminalRow mRow;
+  private int mColumn;
+  private char[] mChars = new char[4];
+
+  /**
+   * The rows shown for recently read source rows of another width, by source row. An unpacked source row is not
+   * modified, and one unpacked again is another key, so that an entry is never stale.
+   */
+  private final Map<TerminalRow, TerminalRow> mFittedRows = new LinkedHashMap<TerminalRow, TerminalRow>(FITTED_ROWS + 1, 1f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<TerminalRow, TerminalRow> eldest) {
+      return size() > FITTED_ROWS;
+    }
+  };
+
+  /**
+   * Start reflowing the rows of a transcript, or of a reflow in progress whose rows, reflowed or not, are then
+   * reflowed again.
+   *
+   * @param previous         the reflow in progress, or null.
+   * @param frozenTranscript the transcript the buffer froze rows into until now, which is the last source of the
+   *                         previous reflow if any.
+   * @param continuation     rows of the buffer continuing the last line of the frozen transcript, or null.
+   * @param columns          the new number of columns.
+   * @param maxRows          the number of rows the output keeps in memory, see {@link FrozenTranscript}.
+   */
+  TranscriptReflow(TranscriptReflow previous, FrozenTranscript frozenTranscript, FrozenTranscript continuation, int columns,
+                   int maxRows) {
+    mColumns = columns;
+    final TranscriptSpill spill;
+    if (previous == null) {
+      spill = frozenTranscript.detachSpill();
+      mSources.add(new Source(frozenTranscript, 0));
+    } else {
+      spill = previous.mOutput.detachSpill();
+      mSources.add(new Source(previous.mOutput, 0));
+      for (Source source : previous.mSources)
+        mSources.add(new Source(source.mTranscript, source.mNextRow));
+    }
+    if (continuation != null) mSources.add(new Source(continuation, 0));
+    mOutput = new FrozenTranscript(columns, maxRows, spill);
+    mFrozenTranscript = new FrozenTranscript(columns, maxRows, null);
+    mSources.add(new Source(mFrozenTranscript, 0));
+    mRow = new TerminalRow(columns, TextStyle.NORMAL);
+  }
+
+  /**
+   * The transcript for the buffer to freeze rows into while reflowing.
+   */
+  FrozenTranscript getFrozenTranscript() {
+    return mFrozenTranscript;
+  }
+
+  /**
+   * The reflowed transcript, which replaces {@link #getFrozenTranscript()} once {@link #reflow(long)} is done.
+   */
+  FrozenTranscript getOutput() {
+    return mOutput;
+  }
+
+  /**
+   * The frozen rows of the buffer, reflowed or not.
+   */
+  int getRows() {
+    int rows = mOutput.getRows();
+    for (Source source : mSources)
+      rows += source.getRemainingRows();
+    return rows;
+  }
+
+  /**
+   * Return a row, from 0 for the oldest to {@link #getRows()} - 1 for the newest. The row must not be modified.
+   */
+  TerminalRow getRow(int index) {
+    final int outputRows = mOutput.getRows();
+    if (index < outputRows) return mOutput.getRow(index);
+    int sourceIndex = index - outputRows;
+    for (Source source : mSources) {
+      int remainingRows = source.getRemainingRows();
+      if (sourceIndex < remainingRows) {
+        TerminalRow row = source.mTranscript.getRow(source.mNextRow + sourceIndex);
+        final int sourceColumns = source.mTranscript.getColumns();
+        if (sourceColumns == mColumns) return row;
+        // Not reflowed yet, show it cut or padded to the new width:
+        TerminalRow fittedRow = mFittedRows.get(row);
+        if (fittedRow == null) {
+          fittedRow = new TerminalRow(mColumns, TextStyle.NORMAL);
+          fittedRow.copyInterval(row, 0, Math.min(sourceColumns, mColumns), 0);
+          fittedRow.mLineWrap = row.mLineWrap;
+          mFittedRows.put(row, fittedRow);
+        }
+        return fittedRow;
+      }
+      sourceIndex -= remainingRows;
+    }
+    throw new IllegalArgumentException("index=" + index + ", rows=" + getRows());
+  }
+
+  /**
+   * Reflow lines until the deadline, as given by {@link System#nanoTime()}, has passed.
+   *
+   * @return whether rows remain to be reflowed.
+   */
+  boolean reflow(long deadlineNanos) {
+    int lines = 0;
+    while (hasSourceRows()) {
+      reflowLine();
+      if (++lines % LINES_PER_DEADLINE_CHECK == 0 && System.nanoTime() - deadlineNanos > 0) break;
+    }
+    return hasSourceRows();
+  }
+
+  private boolean hasSourceRows() {
+    while (mSources.size() > 1 && mSources.get(0).getRemainingRows() == 0)
+      mSources.remove(0);
+    return mSources.get(0).getRemainingRows() > 0;
+  }
+
+  /**
+   * Reflow the source rows of one line, up to and including the first row which does not wrap, or the last row if
+   * every one wraps.
+   */
+  private void reflowLine() {
+    boolean lineWrap;
+    do {
+      final Source source = mSources.get(0);
+      final int sourceColumns = source.mTranscript.getColumns();
+      final TerminalRow row = source.mTranscript.getRow(source.mNextRow++);
+      lineWrap = row.mLineWrap;
+
+      if (mColumn == 0 && sourceColumns == mColumns) {
+        // A row of the new width, as frozen while reflowing, is kept as it is, with the styles of its blank cells:
+        mRow.copyInterval(row, 0, mColumns, 0);
+        if (!lineWrap || !hasSourceRows()) break;
+        mRow.mLineWrap = true;
+        appendRow();
+        continue;
+      }
+
+      // Take the whole row if wrapping, since trailing spaces then belong to the line:
+      int lastColumn = sourceColumns;
+      if (!lineWrap) {
+        while (lastColumn > 0 && !row.isPrinting(lastColumn - 1))
+          lastColumn--;
+      }
+
+      for (int column = 0; column < lastColumn; column++) {
+        final int codePoint = row.getCodePoint(column);
+        if (codePoint == TerminalRow.WIDE_CHAR_CONTINUATION) continue;
+        final int displayWidth = row.getWidth(column);
+        final long style = row.getStyle(column);
+        if (mColumn + displayWidth > mColumns) {
+          mRow.mLineWrap = true;
+          appendRow();
+        }
+
+        mRow.setChar(mColumn, codePoint, style);
+        // Combining characters are output to the same cell:
+        final int charCount = row.getCharCount(column);
+        if (charCount > Character.charCount(codePoint)) {
+          if (mChars.length < charCount) mChars = new char[charCount];
+          row.getChars(column, mChars, 0);
+          for (int i = Character.charCount(codePoint); i < charCount; ) {
+            int combiningChar = Character.codePointAt(mChars, i);
+            mRow.setChar(mColumn, combiningChar, style);
+            i += Character.charCount(combiningChar);
+          }
+        }
+        mColumn += displayWidth;
+      }
+    } while (lineWrap && hasSourceRows());
+
+    // A line still wrapping at the end of the sources continues in the rows of the buffer:
+    mRow.mLineWrap = lineWrap;
+    appendRow();
+  }
+
+  private void appendRow() {
+    long[] freedStyles = mOutput.append(mRow);
+    mRow = new TerminalRow(mColumns, TextStyle.NORMAL, freedStyles);
+    mColumn = 0;
+  }
+
+}
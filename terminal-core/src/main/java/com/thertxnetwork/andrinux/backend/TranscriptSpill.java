@@ -0,0 +1,192 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+
+/**
+ * The oldest part of a very long transcript, kept on disk instead of in memory: the deflated blocks of rows which a
+ * {@link FrozenTranscript} would otherwise drop are appended to files in a directory of its own.
+ * <p>
+ * The blocks are written to segments, each a data file and a memory mapped index file holding the offset and inflated
+ * length of every block in the data file, so that any block is found without reading the others. A segment is full at
+ * half of the maximum size, and the oldest segment is deleted when a third one is started, which keeps the files within
+ * the maximum size while still dropping the oldest rows in large steps.
+ * <p>
+ * Not thread safe, like the {@link TerminalBuffer} using it.
+ */
+public final class TranscriptSpill implements Closeable {
+
+  /**
+   * The bytes of an index entry: the offset of the block in the data file, followed by its inflated length.
+   */
+  private static final int INDEX_ENTRY_BYTES = 12;
+  /**
+   * The number of index entries mapped initially, doubled each time the index is full.
+   */
+  private static final int INITIAL_INDEX_ENTRIES = 1024;
+  /**
+   * The smallest size of a segment, so that a tiny maximum does not delete a segment for every few blocks.
+   */
+  private static final long MIN_SEGMENT_BYTES = 64 * 1024;
+
+  private static final class Segment {
+    final File mDataFile;
+    final File mIndexFile;
+    final RandomAccessFile mData;
+    final RandomAccessFile mIndexData;
+    MappedByteBuffer mIndex;
+    int mBlocks;
+    long mLength;
+
+    Segment(File directory, long number) throws IOException {
+      mDataFile = new File(directory, number + ".dat");
+      mIndexFile = new File(directory, number + ".idx");
+      mData = new RandomAccessFile(mDataFile, "rw");
+      mIndexData = new RandomAccessFile(mIndexFile, "rw");
+      mIndex = mIndexData.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long) INITIAL_INDEX_ENTRIES * INDEX_ENTRY_BYTES);
+    }
+
+    long getOffset(int block) {
+      return mIndex.getLong(block * INDEX_ENTRY_BYTES);
+    }
+
+    int getInflatedLength(int block) {
+      return mIndex.getInt(block * INDEX_ENTRY_BYTES + 8);
+    }
+
+    void append(FrozenTranscript.Block block) throws IOException {
+      if ((mBlocks + 1) * INDEX_ENTRY_BYTES > mIndex.capacity())
+        mIndex = mIndexData.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 2L * mIndex.capacity());
+
+      final FileChannel channel = mData.getChannel();
+      final ByteBuffer buffer = ByteBuffer.wrap(block.mData, 0, block.mLength);
+      while (buffer.hasRemaining())
+        channel.write(buffer, mLength + buffer.position());
+
+      mIndex.putLong(mBlocks * INDEX_ENTRY_BYTES, mLength);
+      mIndex.putInt(mBlocks * INDEX_ENTRY_BYTES + 8, block.mInflatedLength);
+      mBlocks++;
+      mLength += block.mLength;
+    }
+
+    FrozenTranscript.Block read(int block) throws IOException {
+      final long offset = getOffset(block);
+      final long end = (block + 1 < mBlocks) ? getOffset(block + 1) : mLength;
+      final FrozenTranscript.Block result = new FrozenTranscript.Block(new byte[(int) (end - offset)]);
+      final FileChannel channel = mData.getChannel();
+      final ByteBuffer buffer = ByteBuffer.wrap(result.mData);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, offset + buffer.position()) < 0)
+          throw new IOException("Truncated transcript spill " + mDataFile);
+      }
+      result.mLength = result.mData.length;
+      result.mInflatedLength = getInflatedLength(block);
+      result.mRows = FrozenTranscript.ROWS_PER_BLOCK;
+      return result;
+    }
+
+    void delete() {
+      try {
+        mData.close();
+        mIndexData.close();
+      } catch (IOException e) {
+        // Ignore, deleting anyway.
+      }
+      mDataFile.delete();
+      mIndexFile.delete();
+    }
+  }
+
+  private final File mDirectory;
+  private final long mSegmentBytes;
+  private final ArrayDeque<Segment> mSegments = new ArrayDeque<>();
+  /**
+   * The number of segments ever created, to name the next one.
+   */
+  private long mSegmentCount;
+  /**
+   * The number of blocks in the deleted segments.
+   */
+  private long mDeletedBlocks;
+  private int mBlocks;
+  private boolean mClosed;
+
+  /**
+   * @param directory the directory to keep the files in, which is created when needed and deleted on {@link #close()}.
+   * @param maxBytes  the size of the files after which the oldest rows are deleted.
+   */
+  public TranscriptSpill(File directory, long maxBytes) {
+    mDirectory = directory;
+    mSegmentBytes = Math.max(maxBytes / 2, MIN_SEGMENT_BYTES);
+  }
+
+  /**
+   * The number of blocks of {@link FrozenTranscript#ROWS_PER_BLOCK} rows kept.
+   */
+  int getBlocks() {
+    return mBlocks;
+  }
+
+  /**
+   * The number of blocks which have been deleted, which is the number of the oldest block since the first one
+   * appended.
+   */
+  long getFirstBlock() {
+    return mDeletedBlocks;
+  }
+
+  /**
+   * Append a full, deflated block after the newest one.
+   */
+  void append(FrozenTranscript.Block block) throws IOException {
+    if (mClosed) throw new IOException("Transcript spill closed");
+    Segment segment = mSegments.peekLast();
+    if (segment == null || segment.mLength >= mSegmentBytes) {
+      if (segment == null && !mDirectory.isDirectory() && !mDirectory.mkdirs())
+        throw new IOException("Cannot create " + mDirectory);
+      segment = new Segment(mDirectory, mSegmentCount++);
+      mSegments.addLast(segment);
+      if (mSegments.size() > 2) {
+        Segment deletedSegment = mSegments.removeFirst();
+        mBlocks -= deletedSegment.mBlocks;
+        mDeletedBlocks += deletedSegment.mBlocks;
+        deletedSegment.delete();
+      }
+    }
+    segment.append(block);
+    mBlocks++;
+  }
+
+  /**
+   * Read a block, from 0 for the oldest to {@link #getBlocks()} - 1 for the newest.
+   */
+  FrozenTranscript.Block read(int block) throws IOException {
+    if (block < 0 || block >= mBlocks) throw new IllegalArgumentException("block=" + block + ", mBlocks=" + mBlocks);
+    for (Segment segment : mSegments) {
+      if (block < segment.mBlocks) return segment.read(block);
+      block -= segment.mBlocks;
+    }
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Delete the files, after which no more blocks are kept.
+   */
+  @Override
+  public void close() {
+    mClosed = true;
+    for (Segment segment : mSegments)
+      segment.delete();
+    mSegments.clear();
+    mDeletedBlocks += mBlocks;
+    mBlocks = 0;
+    mDirectory.delete();
+  }
+
+}
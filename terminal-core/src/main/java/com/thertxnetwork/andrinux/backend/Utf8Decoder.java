@@ -0,0 +1,154 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * Decodes the UTF-8 of terminal input into code points a run of bytes at a time, keeping the state of a sequence split
+ * between runs.
+ * <p>
+ * A byte which cannot start a sequence decodes to {@link TerminalEmulator#UNICODE_REPLACEMENT_CHAR}, as do overlong
+ * encodings and sequences decoding to a surrogate or an unassigned code point. Sequences decoding to a C1 control
+ * character are dropped. A sequence cut short by a byte which does not continue it decodes to {@link #MALFORMED}, and
+ * that byte is then decoded on its own.
+ */
+public final class Utf8Decoder {
+
+  /**
+   * Decoded in place of a sequence cut short by a byte which does not continue it.
+   */
+  public static final int MALFORMED = -1;
+
+  /**
+   * The state of {@link Character#getType(int)} for each block of 128 code points, see {@link #isAssigned(int)}.
+   */
+  private static final byte BLOCK_UNKNOWN = 0;
+  private static final byte BLOCK_ASSIGNED = 1;
+  private static final byte BLOCK_MIXED = 2;
+  private static final int BLOCK_SHIFT = 7;
+  private static final byte[] BLOCKS = new byte[(Character.MAX_CODE_POINT + 1) >> BLOCK_SHIFT];
+
+  /**
+   * The bits of the current sequence decoded so far.
+   */
+  private int mCodePoint;
+  private int mSequenceLength, mBytesToFollow;
+  private int mDecodedCount;
+
+  /**
+   * If in the middle of a sequence, so that the next byte is not to be taken as 7-bit ASCII even if it is one.
+   */
+  public boolean isInSequence() {
+    return mBytesToFollow != 0;
+  }
+
+  /**
+   * Forget the current sequence, if any.
+   */
+  public void reset() {
+    mBytesToFollow = 0;
+  }
+
+  /**
+   * The number of code points written to the output by the last {@link #decode(byte[], int, int, int[])}.
+   */
+  public int getDecodedCount() {
+    return mDecodedCount;
+  }
+
+  /**
+   * Decode bytes from the start index, stopping at the end index, before a 7-bit ASCII byte which is not inside a
+   * sequence, or once the output is about full. A sequence which is not complete at the end is continued by the next
+   * call.
+   *
+   * @param output where to write the code points, at least 2 long.
+   * @return the index of the first byte in the input which was not consumed.
+   */
+  public int decode(byte[] input, int start, int end, int[] output) {
+    // A byte cutting a sequence short and not starting one itself decodes to two code points:
+    final int outputLimit = output.length - 1;
+    int count = 0;
+    int i = start;
+    while (i < end && count < outputLimit) {
+      final int b = input[i];
+      if (mBytesToFollow == 0) {
+        if (b >= 0) break;
+        i++;
+        if ((b & 0b11100000) == 0b11000000) { // 110xxxxx, a two-byte sequence.
+          mCodePoint = b & 0b00011111;
+          mSequenceLength = 2;
+        } else if ((b & 0b11110000) == 0b11100000) { // 1110xxxx, a three-byte sequence.
+          mCodePoint = b & 0b00001111;
+          mSequenceLength = 3;
+        } else if ((b & 0b11111000) == 0b11110000) { // 11110xxx, a four-byte sequence.
+          mCodePoint = b & 0b00000111;
+          mSequenceLength = 4;
+        } else {
+          // Not a valid UTF-8 sequence start, signal invalid data:
+          output[count++] = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+          continue;
+        }
+        mBytesToFollow = mSequenceLength - 1;
+      } else if ((b & 0b11000000) == 0b10000000) { // 10xxxxxx, a continuation byte.
+        i++;
+        mCodePoint = (mCodePoint << 6) | (b & 0b00111111);
+        if (--mBytesToFollow == 0) {
+          final int codePoint = mCodePoint;
+          if ((codePoint <= 0b1111111 && mSequenceLength > 1) || (codePoint < 0b11111111111 && mSequenceLength > 2)
+            || (codePoint < 0b1111111111111111 && mSequenceLength > 3)) {
+            // Overlong encoding.
+            output[count++] = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+          } else if (codePoint >= 0x80 && codePoint <= 0x9F) {
+            // Sequence decoded to a C1 control character which we ignore. They are not used nowadays and increase the
+            // risk of messing up the terminal state on binary input. XTerm does not allow them in utf-8:
+            // "It is not possible to use a C1 control obtained from decoding the UTF-8 text" -
+            // http://invisible-island.net/xterm/ctlseqs/ctlseqs.htm
+          } else {
+            output[count++] = isAssigned(codePoint) ? codePoint : TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+          }
+        }
+      } else {
+        // Not a UTF-8 continuation byte so replace the entire sequence up to now. The Unicode Standard Version 6.2 –
+        // Core Specification (http://www.unicode.org/versions/Unicode6.2.0/ch03.pdf): "If the converter encounters an
+        // ill-formed UTF-8 code unit sequence which starts with a valid first byte, but which does not continue with
+        // valid successor bytes (see Table 3-7), it must not consume the successor bytes as part of the ill-formed
+        // subsequence whenever those successor bytes themselves constitute part of a well-formed UTF-8 code unit
+        // subsequence."
+        mBytesToFollow = 0;
+        output[count++] = MALFORMED;
+      }
+    }
+    mDecodedCount = count;
+    return i;
+  }
+
+  /**
+   * If the code point is neither unassigned nor a surrogate. Whole blocks of assigned code points, which is where most
+   * text is, are remembered so that {@link Character#getType(int)} is only called once for each of their code points.
+   */
+  static boolean isAssigned(int codePoint) {
+    if (codePoint > Character.MAX_CODE_POINT) return false;
+    final int blockIndex = codePoint >> BLOCK_SHIFT;
+    byte block = BLOCKS[blockIndex];
+    if (block == BLOCK_UNKNOWN) {
+      block = BLOCK_ASSIGNED;
+      for (int c = blockIndex << BLOCK_SHIFT, blockEnd = c + (1 << BLOCK_SHIFT); c < blockEnd; c++) {
+        if (!isAssignedType(c)) {
+          block = BLOCK_MIXED;
+          break;
+        }
+      }
+      // Racing threads store the same value:
+      BLOCKS[blockIndex] = block;
+    }
+    return block == BLOCK_ASSIGNED || isAssignedType(codePoint);
+  }
+
+  private static boolean isAssignedType(int codePoint) {
+    switch (Character.getType(codePoint)) {
+      case Character.UNASSIGNED:
+      case Character.SURROGATE:
+        return false;
+      default:
+        return true;
+    }
+  }
+
+}
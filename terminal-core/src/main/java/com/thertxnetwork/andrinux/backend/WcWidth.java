@@ -0,0 +1,30 @@
+package com.thertxnetwork.andrinux.backend;
+
+/**
+ * Implementation of wcwidth(3), but we return 0 for unprintable characters.
+ * <p>
+ * Combining characters (general category Mn and Me) and a few format characters have width 0, East Asian Wide and
+ * Fullwidth characters have width 2. The widths are precomputed for all code points in {@link WcWidthTable}, which
+ * is generated from the Unicode data by terminal-core/wcwidth.gradle.
+ */
+public final class WcWidth {
+
+  private WcWidth() {
+  }
+
+  /**
+   * Return the terminal display width of a code point: 0, 1 || 2.
+   */
+  public static int width(int ucs) {
+    return WcWidthTable.WIDTHS[(WcWidthTable.BLOCKS[ucs >> WcWidthTable.BLOCK_SHIFT] << WcWidthTable.BLOCK_SHIFT) | (ucs & WcWidthTable.BLOCK_MASK)];
+  }
+
+  /**
+   * The width at an index position in a java char array.
+   */
+  public static int width(char[] chars, int index) {
+    char c = chars[index];
+    return Character.isHighSurrogate(c) ? width(Character.toCodePoint(c, chars[index + 1])) : width(c);
+  }
+
+}
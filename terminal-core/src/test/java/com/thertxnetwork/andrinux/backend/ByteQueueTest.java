@@ -0,0 +1,121 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress and close tests of {@link ByteQueue} with a producer and a consumer thread.
+ */
+public class ByteQueueTest {
+
+  @Test
+  public void capacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(1, new ByteQueue(1).getCapacity());
+    assertEquals(4096, new ByteQueue(4096).getCapacity());
+    assertEquals(8192, new ByteQueue(4097).getCapacity());
+  }
+
+  @Test
+  public void nonBlockingReadOfEmptyQueue() {
+    ByteQueue queue = new ByteQueue(16);
+    assertEquals(0, queue.read(new byte[4], false));
+    assertTrue(queue.write(new byte[]{1, 2, 3}, 0, 3));
+    byte[] buffer = new byte[8];
+    assertEquals(3, queue.read(buffer, 2, 6, false));
+    assertArrayEquals(new byte[]{0, 0, 1, 2, 3, 0, 0, 0}, buffer);
+    assertEquals(3, queue.getHighWaterMark());
+  }
+
+  @Test
+  public void freeSpace() {
+    ByteQueue queue = new ByteQueue(16);
+    assertEquals(16, queue.getFreeSpace());
+    assertTrue(queue.write(new byte[16], 0, 16));
+    assertEquals(0, queue.getFreeSpace());
+    assertEquals(5, queue.read(new byte[5], false));
+    assertEquals(5, queue.getFreeSpace());
+  }
+
+  @Test
+  public void stressSmallQueue() throws Exception {
+    stress(61, 8, 2 * 1024 * 1024);
+  }
+
+  @Test
+  public void stressLargeQueue() throws Exception {
+    stress(64 * 1024, 9000, 64 * 1024 * 1024);
+  }
+
+  /**
+   * Pass totalBytes of a sequence of bytes through the queue in slices of random lengths up to maxSlice, checking that
+   * the consumer gets it unchanged.
+   */
+  private static void stress(int capacity, int maxSlice, long totalBytes) throws Exception {
+    final ByteQueue queue = new ByteQueue(capacity);
+    final AtomicReference<Throwable> producerError = new AtomicReference<>();
+    Thread producer = new Thread(() -> {
+      try {
+        Random random = new Random(1);
+        byte[] slice = new byte[maxSlice];
+        for (long position = 0; position < totalBytes; ) {
+          int length = (int) Math.min(1 + random.nextInt(maxSlice), totalBytes - position);
+          for (int i = 0; i < length; i++) slice[i] = valueAt(position + i);
+          assertTrue(queue.write(slice, 0, length));
+          position += length;
+        }
+      } catch (Throwable t) {
+        producerError.set(t);
+      }
+    }, "ByteQueueTest-producer");
+    producer.start();
+
+    Random random = new Random(2);
+    byte[] buffer = new byte[maxSlice];
+    for (long position = 0; position < totalBytes; ) {
+      int length = 1 + random.nextInt(maxSlice);
+      int read = queue.read(buffer, 0, length, random.nextInt(4) != 0);
+      assertTrue(read >= 0 && read <= length);
+      for (int i = 0; i < read; i++)
+        if (buffer[i] != valueAt(position + i)) fail("Wrong byte at " + (position + i));
+      position += read;
+    }
+    producer.join();
+    assertNull(producerError.get());
+    assertEquals(0, queue.read(buffer, false));
+    assertTrue(queue.getHighWaterMark() <= queue.getCapacity());
+  }
+
+  private static byte valueAt(long position) {
+    return (byte) (position * 31 + (position >>> 13));
+  }
+
+  @Test(timeout = 10000)
+  public void closeWakesBlockedReader() throws Exception {
+    final ByteQueue queue = new ByteQueue(16);
+    final int[] result = new int[1];
+    Thread reader = new Thread(() -> result[0] = queue.read(new byte[4], true));
+    reader.start();
+    Thread.sleep(100);
+    queue.close();
+    reader.join();
+    assertEquals(-1, result[0]);
+  }
+
+  @Test(timeout = 10000)
+  public void closeWakesBlockedWriter() throws Exception {
+    final ByteQueue queue = new ByteQueue(16);
+    final boolean[] result = {true};
+    Thread writer = new Thread(() -> result[0] = queue.write(new byte[64], 0, 64));
+    writer.start();
+    Thread.sleep(100);
+    queue.close();
+    writer.join();
+    assertFalse(result[0]);
+    assertTrue(queue.getProducerStallNanos() > 0);
+  }
+
+}
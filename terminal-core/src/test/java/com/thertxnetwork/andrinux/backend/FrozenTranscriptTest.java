@@ -0,0 +1,124 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips of rows through the packed, deflated and spilled blocks of a {@link FrozenTranscript}.
+ */
+public class FrozenTranscriptTest {
+
+  private static final int COLUMNS = 80;
+
+  @Test
+  public void packedRowsReadBackUnchanged() {
+    FrozenTranscript transcript = new FrozenTranscript(COLUMNS, 1000, null);
+    for (int i = 0; i < 300; i++)
+      transcript.append(row(i));
+
+    assertEquals(300, transcript.getRows());
+    for (int i = 0; i < 300; i++)
+      assertSameRow(i, row(i), transcript.getRow(i));
+  }
+
+  @Test
+  public void oldestRowsDroppedAtBlockBoundaries() {
+    final int block = FrozenTranscript.ROWS_PER_BLOCK;
+    for (int maxRows : new int[]{1, block - 1, block, block + 1, 3 * block}) {
+      for (int rows : new int[]{maxRows, maxRows + 1, maxRows + block - 1, maxRows + block, maxRows + 5 * block + 3}) {
+        FrozenTranscript transcript = new FrozenTranscript(COLUMNS, maxRows, null);
+        for (int i = 0; i < rows; i++)
+          transcript.append(row(i));
+
+        assertEquals(maxRows, transcript.getRows());
+        for (int i = 0; i < maxRows; i++)
+          assertSameRow(rows - maxRows + i, row(rows - maxRows + i), transcript.getRow(i));
+      }
+    }
+  }
+
+  @Test
+  public void deflatedRowsReadBackUnchanged() {
+    // Past FrozenTranscript.MAX_PACKED_BYTES of packed rows, since each row takes more than 100 bytes:
+    final int rows = 2 * FrozenTranscript.MAX_PACKED_BYTES / 100;
+    FrozenTranscript transcript = new FrozenTranscript(COLUMNS, rows, null);
+    for (int i = 0; i < rows; i++)
+      transcript.append(row(i));
+
+    assertEquals(rows, transcript.getRows());
+    // Read the oldest, deflated, rows last, after the blocks kept unpacked have been replaced:
+    for (int i = rows - 1; i >= 0; i--)
+      assertSameRow(i, row(i), transcript.getRow(i));
+  }
+
+  @Test
+  public void spilledRowsComeFirst() throws IOException {
+    File directory = Files.createTempDirectory("spill").toFile();
+    TranscriptSpill spill = new TranscriptSpill(directory, 64 * 1024 * 1024);
+    try {
+      final int maxRows = 100;
+      FrozenTranscript transcript = new FrozenTranscript(COLUMNS, maxRows, spill);
+      for (int rows = 1; rows <= 1000; rows++) {
+        transcript.append(row(rows - 1));
+        // Whole blocks are spilled as soon as the rows in memory are enough without them:
+        assertEquals(rows, transcript.getRows());
+        int inMemory = rows - spill.getBlocks() * FrozenTranscript.ROWS_PER_BLOCK;
+        assertTrue(inMemory < maxRows + FrozenTranscript.ROWS_PER_BLOCK);
+        assertTrue(inMemory >= Math.min(rows, maxRows));
+      }
+
+      for (int i = 0; i < 1000; i++)
+        assertSameRow(i, row(i), transcript.getRow(i));
+    } finally {
+      spill.close();
+    }
+    assertFalse(directory.exists());
+  }
+
+  /**
+   * A row of random text, with wide and combining characters, in random styles, and possibly blank cells of another
+   * style after the text, as left by erasing.
+   */
+  private static TerminalRow row(int index) {
+    Random random = new Random(index);
+    TerminalRow row = new TerminalRow(COLUMNS, TextStyle.NORMAL);
+    long style = TextStyle.NORMAL;
+    int column = 0;
+    for (int length = random.nextInt(COLUMNS); column < length; ) {
+      if (random.nextInt(8) == 0)
+        style = TextStyle.encode(random.nextInt(256), random.nextInt(256), random.nextInt(2) * TextStyle.CHARACTER_ATTRIBUTE_BOLD);
+      int choice = random.nextInt(10);
+      if (choice == 0 && column + 1 < COLUMNS) {
+        row.setChar(column, '中', style);
+        column += 2;
+      } else {
+        row.setChar(column, 'a' + random.nextInt(26), style);
+        if (choice == 1) row.setChar(column, 0x301, style);
+        column++;
+      }
+    }
+    if (random.nextBoolean()) row.fill(column, COLUMNS, ' ', TextStyle.encode(random.nextInt(256), random.nextInt(256), 0));
+    row.mLineWrap = random.nextBoolean();
+    return row;
+  }
+
+  private static void assertSameRow(int index, TerminalRow expected, TerminalRow actual) {
+    StringBuilder expectedText = new StringBuilder();
+    StringBuilder actualText = new StringBuilder();
+    expected.appendText(0, COLUMNS, expectedText);
+    actual.appendText(0, COLUMNS, actualText);
+    assertEquals("text of row " + index, expectedText.toString(), actualText.toString());
+    assertEquals("line wrap of row " + index, expected.mLineWrap, actual.mLineWrap);
+    for (int column = 0; column < COLUMNS; column++) {
+      assertEquals("code point at " + index + "," + column, expected.getCodePoint(column), actual.getCodePoint(column));
+      assertEquals("style at " + index + "," + column, expected.getStyle(column), actual.getStyle(column));
+    }
+  }
+
+}
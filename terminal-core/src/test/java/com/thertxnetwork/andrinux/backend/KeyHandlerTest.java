@@ -0,0 +1,54 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.thertxnetwork.andrinux.backend.KeyHandler.*;
+import static org.junit.Assert.*;
+
+public class KeyHandlerTest {
+
+  private static final int[] KEY_MODES = {
+    0, KEYMOD_SHIFT, KEYMOD_ALT, KEYMOD_CTRL, KEYMOD_SHIFT | KEYMOD_ALT, KEYMOD_SHIFT | KEYMOD_CTRL,
+    KEYMOD_ALT | KEYMOD_CTRL, KEYMOD_SHIFT | KEYMOD_ALT | KEYMOD_CTRL
+  };
+
+  @Test
+  public void codeBytesMatchCodes() {
+    for (int keyCode = -1; keyCode < 300; keyCode++) {
+      for (int keyMode : KEY_MODES) {
+        for (int modes = 0; modes < 4; modes++) {
+          final boolean cursorApp = (modes & 1) != 0;
+          final boolean keypadApplication = (modes & 2) != 0;
+          String code = getCode(keyCode, keyMode, cursorApp, keypadApplication);
+          byte[] bytes = getCodeBytes(keyCode, keyMode, cursorApp, keypadApplication);
+          if (code == null) {
+            assertNull(bytes);
+          } else {
+            assertArrayEquals(code.getBytes(StandardCharsets.UTF_8), bytes);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void codeBytes() {
+    assertArrayEquals(bytes("\033[A"), getCodeBytes(KeyCodes.KEYCODE_DPAD_UP, 0, false, false));
+    assertArrayEquals(bytes("\033OA"), getCodeBytes(KeyCodes.KEYCODE_DPAD_UP, 0, true, false));
+    assertArrayEquals(bytes("\033[1;5A"), getCodeBytes(KeyCodes.KEYCODE_DPAD_UP, KEYMOD_CTRL, true, false));
+    assertArrayEquals(bytes("\033[15;2~"), getCodeBytes(KeyCodes.KEYCODE_F5, KEYMOD_SHIFT, false, false));
+    assertArrayEquals(bytes("\033Oq"), getCodeBytes(KeyCodes.KEYCODE_NUMPAD_1, 0, false, true));
+    assertArrayEquals(bytes("1"), getCodeBytes(KeyCodes.KEYCODE_NUMPAD_1, 0, false, false));
+    assertArrayEquals(bytes("\033\u0008"), getCodeBytes(KeyCodes.KEYCODE_DEL, KEYMOD_ALT | KEYMOD_CTRL, false, false));
+    assertNull(getCodeBytes(KeyCodes.KEYCODE_SPACE, 0, false, false));
+    // The same array for every press:
+    assertSame(getCodeBytes(KeyCodes.KEYCODE_TAB, 0, false, false), getCodeBytes(KeyCodes.KEYCODE_TAB, 0, false, false));
+  }
+
+  private static byte[] bytes(String code) {
+    return code.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
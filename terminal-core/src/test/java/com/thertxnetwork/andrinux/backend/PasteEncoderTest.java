@@ -0,0 +1,73 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of {@link PasteEncoder} against the sanitizing of the whole text with regular expressions which it replaced,
+ * encoding into buffers of different lengths.
+ */
+public class PasteEncoderTest {
+
+  private static final String[] PIECES = {"echo hello", "\r\n", "\n", "\r", "\033", "\033[201~", "\u0085", "\u009b",
+    "é", "漢字", "😀", "\ud83d", "\ude00", "\u0000\u0007\t", " "};
+
+  @Test
+  public void sanitizesAndEncodes() {
+    Random random = new Random(1);
+    for (int test = 0; test < 200; test++) {
+      StringBuilder text = new StringBuilder();
+      for (int i = random.nextInt(300); i > 0; i--) text.append(PIECES[random.nextInt(PIECES.length)]);
+      for (boolean bracketed : new boolean[]{false, true}) {
+        byte[] expected = expectedPaste(text.toString(), bracketed);
+        for (int bufferLength : new int[]{PasteEncoder.MIN_BUFFER_LENGTH, 7, 13, 4096}) {
+          assertArrayEquals(expected, encode(new PasteEncoder(text, bracketed), bufferLength));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void emptyPaste() {
+    assertArrayEquals(new byte[0], encode(new PasteEncoder("\033\u0090", false), 16));
+    assertArrayEquals("\033[200~\033[201~".getBytes(StandardCharsets.UTF_8), encode(new PasteEncoder("", true), 16));
+  }
+
+  @Test
+  public void cancelEndsBracketedPaste() {
+    PasteEncoder paste = new PasteEncoder("a".repeat(100), true);
+    byte[] buffer = new byte[16];
+    assertEquals(13, paste.encode(buffer));
+    assertEquals(7, paste.getEncodedLength());
+    paste.cancel();
+    assertTrue(paste.isCancelled());
+    assertEquals(6, paste.encode(buffer));
+    assertArrayEquals("\033[201~".getBytes(StandardCharsets.UTF_8), Arrays.copyOf(buffer, 6));
+    assertEquals(-1, paste.encode(buffer));
+  }
+
+  private static byte[] encode(PasteEncoder paste, int bufferLength) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[bufferLength];
+    int length;
+    while ((length = paste.encode(buffer)) != -1) {
+      assertTrue(length > 0);
+      out.write(buffer, 0, length);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] expectedPaste(String text, boolean bracketed) {
+    text = text.replaceAll("(\u001B|[\u0080-\u009F])", "");
+    text = text.replaceAll("\r?\n", "\r");
+    if (bracketed) text = "\033[200~" + text + "\033[201~";
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.thertxnetwork.andrinux.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@link TerminalOutput} of emulators under test, which records what the emulator writes back and reports.
+ */
+final class RecordingOutput extends TerminalOutput {
+  final ByteArrayOutputStream mWritten = new ByteArrayOutputStream();
+  final StringBuilder mTitles = new StringBuilder();
+  int mBells;
+
+  @Override
+  public void write(byte[] data, int offset, int count) {
+    mWritten.write(data, offset, count);
+  }
+
+  @Override
+  public void titleChanged(String oldTitle, String newTitle) {
+    mTitles.append(newTitle).append('\n');
+  }
+
+  @Override
+  public void clipboardText(String text) {
+  }
+
+  @Override
+  public void onBell() {
+    mBells++;
+  }
+
+  @Override
+  public void onColorsChanged() {
+  }
+
+  /**
+   * Return what has been written since the last call, as ISO-8859-1 so that each byte is a char.
+   */
+  String take() {
+    String written = mWritten.toString(StandardCharsets.ISO_8859_1);
+    mWritten.reset();
+    return written;
+  }
+}
@@ -1,33 +1,18 @@
 package com.thertxnetwork.andrinux.backend;
 
-import android.util.Base64;
-import android.util.Log;
-
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Stack;
 
 /**
- * Renders text into a screen. Contains all the terminal-specific knowledge and state. Emulates a subset of the X Window
- * System xterm terminal, which in turn is an emulator for a subset of the Digital Equipment Corporation vt100 terminal.
- * <p>
- * References:
- * <ul>
- * <li>http://invisible-island.net/xterm/ctlseqs/ctlseqs.html</li>
- * <li>http://en.wikipedia.org/wiki/ANSI_escape_code</li>
- * <li>http://man.he.net/man4/console_codes</li>
- * <li>http://bazaar.launchpad.net/~leonerd/libvterm/trunk/view/head:/src/state.c</li>
- * <li>http://www.columbia.edu/~kermit/k95manual/iso2022.html</li>
- * <li>http://www.vt100.net/docs/vt510-rm/chapter4</li>
- * <li>http://en.wikipedia.org/wiki/ISO/IEC_2022 - for 7-bit and 8-bit GL GR explanation</li>
- * <li>http://bjh21.me.uk/all-escapes/all-escapes.txt - extensive!</li>
- * <li>http://woldlab.caltech.edu/~diane/kde4.10/workingdir/kubuntu/konsole/doc/developer/old-documents/VT100/techref.
- * html - document for konsole - accessible!</li>
- * </ul>
+ * The {@link TerminalEmulator} as it was before its escape sequences were parsed through a transition table, with the
+ * state changes made by the switches of each state. Kept unchanged for {@link TerminalEmulatorParserTest} to compare the
+ * two parsers on the same input.
  */
-public final class TerminalEmulator {
+final class ReferenceTerminalEmulator {
 
   /**
    * Log unknown or unimplemented escape sequences received from the shell process.
@@ -139,6 +124,45 @@ public final class TerminalEmulator {
    */
   private static final int MAX_OSC_STRING_LENGTH = 8192;
 
+  /**
+   * Byte classes of 7-bit input, see {@link #BYTE_CLASSES}. Controls, including DEL, always go through
+   * {@link #processCodePoint(int)}.
+   */
+  private static final int BYTE_CLASS_CONTROL = 0;
+  private static final int BYTE_CLASS_DIGIT = 1;
+  private static final int BYTE_CLASS_SEPARATOR = 2;
+  private static final int BYTE_CLASS_BACKSLASH = 3;
+  private static final int BYTE_CLASS_OTHER = 4;
+
+  /**
+   * The class of each 7-bit byte.
+   */
+  private static final byte[] BYTE_CLASSES = new byte[128];
+
+  /**
+   * For each escape state, the bit set of byte classes which {@link #collectSequenceRun(byte[], int, int)} consumes in
+   * bulk: parameters of the CSI states whose final bytes are dispatched through {@link #parseArg(int)}, and the
+   * payload of OSC and DCS strings.
+   */
+  private static final int[] BULK_BYTE_CLASSES = new int[ESC_CSI_EXCLAMATION + 1];
+
+  static {
+    for (int b = 32; b < 127; b++)
+      BYTE_CLASSES[b] = BYTE_CLASS_OTHER;
+    for (int b = '0'; b <= '9'; b++)
+      BYTE_CLASSES[b] = BYTE_CLASS_DIGIT;
+    BYTE_CLASSES[';'] = BYTE_CLASS_SEPARATOR;
+    BYTE_CLASSES['\\'] = BYTE_CLASS_BACKSLASH;
+
+    final int parameters = (1 << BYTE_CLASS_DIGIT) | (1 << BYTE_CLASS_SEPARATOR);
+    BULK_BYTE_CLASSES[ESC_CSI] = parameters;
+    BULK_BYTE_CLASSES[ESC_CSI_QUESTIONMARK] = parameters;
+    BULK_BYTE_CLASSES[ESC_CSI_BIGGERTHAN] = parameters;
+    // A backslash ends a device control string, see doDeviceControl(int):
+    BULK_BYTE_CLASSES[ESC_P] = parameters | (1 << BYTE_CLASS_OTHER);
+    BULK_BYTE_CLASSES[ESC_OSC] = parameters | (1 << BYTE_CLASS_OTHER) | (1 << BYTE_CLASS_BACKSLASH);
+  }
+
   /**
    * DECSET 1 - application cursorColor keys.
    */
@@ -181,7 +205,7 @@ public final class TerminalEmulator {
    */
   private static final int DECSET_BIT_MOUSE_PROTOCOL_SGR = 1 << 9;
   /**
-   * DECSET 2004 - see {@link #paste(String)}
+   * DECSET 2004 - see {@link #createPaste(CharSequence)}
    */
   private static final int DECSET_BIT_BRACKETED_PASTE_MODE = 1 << 10;
   /**
@@ -192,6 +216,10 @@ public final class TerminalEmulator {
    * Not really DECSET bit... - http://www.vt100.net/docs/vt510-rm/DECSACE
    */
   private static final int DECSET_BIT_RECTANGULAR_CHANGEATTRIBUTE = 1 << 12;
+  /**
+   * DECSET 2026 - synchronized update, see {@link #isScreenUpdateHeld()}.
+   */
+  private static final int DECSET_BIT_SYNCHRONIZED_UPDATE = 1 << 13;
 
   private String mTitle;
   private final Stack<String> mTitleStack = new Stack<>();
@@ -217,8 +245,10 @@ public final class TerminalEmulator {
    * the alternate screen buffer is active, you cannot scroll back to view saved lines).
    * <p>
    * See http://www.xfree86.org/current/ctlseqs.html#The%20Alternate%20Screen%20Buffer
+   * <p>
+   * Null while not active: it is cleared when switched to, so nothing in it is worth keeping in between.
    */
-  final TerminalBuffer mAltBuffer;
+  TerminalBuffer mAltBuffer;
   /**
    * The current screen buffer, pointing at either {@link #mMainBuffer} or {@link #mAltBuffer}.
    */
@@ -263,7 +293,7 @@ public final class TerminalEmulator {
   private boolean mUseLineDrawingG0, mUseLineDrawingG1, mUseLineDrawingUsesG0 = true;
 
   /**
-   * @see TerminalEmulator#mapDecSetBitToInternalBit(int)
+   * @see ReferenceTerminalEmulator#mapDecSetBitToInternalBit(int)
    */
   private int mCurrentDecSetFlags, mSavedDecSetFlags;
 
@@ -311,9 +341,27 @@ public final class TerminalEmulator {
    */
   private int mScrollCounter = 0;
 
-  private byte mUtf8ToFollow, mUtf8Index;
-  private final byte[] mUtf8InputBuffer = new byte[4];
+  private final Utf8Decoder mUtf8Decoder = new Utf8Decoder();
+  /**
+   * The code points decoded by {@link #mUtf8Decoder} from a run of non-ASCII input.
+   */
+  private final int[] mDecodedCodePoints = new int[1024];
   private int mLastEmittedCodePoint = -1;
+  /**
+   * Where mouse reports are encoded by {@link #sendMouseEvent(int, int, int, boolean)}, long enough for three ints in
+   * the SGR format.
+   */
+  private final byte[] mMouseReport = new byte[48];
+
+  /**
+   * If a synchronized update has ended since the last {@link #isScreenUpdateHeld()}.
+   */
+  private boolean mSynchronizedUpdateEnded;
+
+  /**
+   * Where appended bytes and resizes are recorded, or null if not recording.
+   */
+  private AsciicastRecorder mRecorder;
 
   public final TerminalColors mColors = new TerminalColors();
 
@@ -363,16 +411,24 @@ public final class TerminalEmulator {
         return DECSET_BIT_MOUSE_PROTOCOL_SGR;
       case 2004:
         return DECSET_BIT_BRACKETED_PASTE_MODE;
+      case 2026:
+        return DECSET_BIT_SYNCHRONIZED_UPDATE;
       default:
         return -1;
       // throw new IllegalArgumentException("Unsupported decset: " + decsetBit);
     }
   }
 
-  public TerminalEmulator(TerminalOutput session, int columns, int rows, int transcriptRows) {
+  ReferenceTerminalEmulator(TerminalOutput session, int columns, int rows, int transcriptRows) {
+    this(session, columns, rows, transcriptRows, null);
+  }
+
+  /**
+   * @param transcriptSpill where the main buffer keeps rows beyond transcriptRows, or null to drop them.
+   */
+  ReferenceTerminalEmulator(TerminalOutput session, int columns, int rows, int transcriptRows, TranscriptSpill transcriptSpill) {
     mSession = session;
-    mScreen = mMainBuffer = new TerminalBuffer(columns, transcriptRows, rows);
-    mAltBuffer = new TerminalBuffer(columns, rows, rows);
+    mScreen = mMainBuffer = new TerminalBuffer(columns, transcriptRows, rows, transcriptSpill);
     mRows = rows;
     mColumns = columns;
     mTabStop = new boolean[mColumns];
@@ -399,24 +455,54 @@ public final class TerminalEmulator {
     if (mouseButton == MOUSE_LEFT_BUTTON_MOVED && !isDecsetInternalBitSet(DECSET_BIT_MOUSE_TRACKING_BUTTON_EVENT)) {
       // Do not send tracking.
     } else if (isDecsetInternalBitSet(DECSET_BIT_MOUSE_PROTOCOL_SGR)) {
-      mSession.write(String.format("\033[<%d;%d;%d" + (pressed ? 'M' : 'm'), mouseButton, column, row));
+      // Encoded in place, as drags and wheel scrolls send reports in bursts:
+      final byte[] report = mMouseReport;
+      report[0] = '\033';
+      report[1] = '[';
+      report[2] = '<';
+      int length = appendDecimal(report, 3, mouseButton);
+      report[length++] = ';';
+      length = appendDecimal(report, length, column);
+      report[length++] = ';';
+      length = appendDecimal(report, length, row);
+      report[length++] = (byte) (pressed ? 'M' : 'm');
+      mSession.write(report, 0, length);
     } else {
       mouseButton = pressed ? mouseButton : 3; // 3 for release of all buttons.
       // Clip to screen, and clip to the limits of 8-bit data.
       boolean outOfBounds = column > 255 - 32 || row > 255 - 32;
       if (!outOfBounds) {
-        byte[] data = {'\033', '[', 'M', (byte) (32 + mouseButton), (byte) (32 + column), (byte) (32 + row)};
-        mSession.write(data, 0, data.length);
+        final byte[] report = mMouseReport;
+        report[0] = '\033';
+        report[1] = '[';
+        report[2] = 'M';
+        report[3] = (byte) (32 + mouseButton);
+        report[4] = (byte) (32 + column);
+        report[5] = (byte) (32 + row);
+        mSession.write(report, 0, 6);
       }
     }
   }
 
+  /**
+   * Write the decimal digits of the non-negative value to the buffer at the offset.
+   *
+   * @return the offset after the digits.
+   */
+  private static int appendDecimal(byte[] buffer, int offset, int value) {
+    int end = offset;
+    for (int rest = value; rest >= 10; rest /= 10) end++;
+    for (int i = end; i >= offset; i--, value /= 10) buffer[i] = (byte) ('0' + value % 10);
+    return end + 1;
+  }
+
   public void resize(int columns, int rows) {
     if (mRows == rows && mColumns == columns) {
       return;
     } else if (columns < 2 || rows < 2) {
       throw new IllegalArgumentException("rows=" + rows + ", columns=" + columns);
     }
+    if (mRecorder != null) mRecorder.recordResize(columns, rows);
 
     if (mRows != rows) {
       mRows = rows;
@@ -446,6 +532,16 @@ public final class TerminalEmulator {
     mCursorRow = cursor[1];
   }
 
+  /**
+   * Continue reflowing the transcript after a change of the number of columns, see
+   * {@link TerminalBuffer#continueReflow(long)}.
+   *
+   * @return whether rows remain to be reflowed.
+   */
+  public boolean continueReflow(long deadlineNanos) {
+    return mMainBuffer.continueReflow(deadlineNanos);
+  }
+
   public int getCursorRow() {
     return mCursorRow;
   }
@@ -484,6 +580,25 @@ public final class TerminalEmulator {
     return isDecsetInternalBitSet(DECSET_BIT_MOUSE_TRACKING_PRESS_RELEASE) || isDecsetInternalBitSet(DECSET_BIT_MOUSE_TRACKING_BUTTON_EVENT);
   }
 
+  /**
+   * Whether the screen is in the middle of a synchronized update (DECSET 2026), so that showing it now would show a
+   * partly drawn frame. Returns false if an update has ended since the previous call, even if another has begun, so
+   * that each finished frame gets shown.
+   */
+  public boolean isScreenUpdateHeld() {
+    boolean held = isDecsetInternalBitSet(DECSET_BIT_SYNCHRONIZED_UPDATE) && !mSynchronizedUpdateEnded;
+    mSynchronizedUpdateEnded = false;
+    return held;
+  }
+
+  /**
+   * Record the bytes appended and the resizes from now on, or stop recording if null. The recorder is expected to have
+   * been started with the current size, and is not closed when replaced.
+   */
+  public void setRecorder(AsciicastRecorder recorder) {
+    mRecorder = recorder;
+  }
+
   private void setDefaultTabStops() {
     for (int i = 0; i < mColumns; i++)
       mTabStop[i] = (i & 7) == 0 && i != 0;
@@ -496,78 +611,159 @@ public final class TerminalEmulator {
    * @param length the number of bytes in the array to process
    */
   public void append(byte[] buffer, int length) {
-    for (int i = 0; i < length; i++)
-      processByte(buffer[i]);
-  }
-
-  private void processByte(byte byteToProcess) {
-    if (mUtf8ToFollow > 0) {
-      if ((byteToProcess & 0b11000000) == 0b10000000) {
-        // 10xxxxxx, a continuation byte.
-        mUtf8InputBuffer[mUtf8Index++] = byteToProcess;
-        if (--mUtf8ToFollow == 0) {
-          byte firstByteMask = (byte) (mUtf8Index == 2 ? 0b00011111 : (mUtf8Index == 3 ? 0b00001111 : 0b00000111));
-          int codePoint = (mUtf8InputBuffer[0] & firstByteMask);
-          for (int i = 1; i < mUtf8Index; i++)
-            codePoint = ((codePoint << 6) | (mUtf8InputBuffer[i] & 0b00111111));
-          if (((codePoint <= 0b1111111) && mUtf8Index > 1) || (codePoint < 0b11111111111 && mUtf8Index > 2)
-            || (codePoint < 0b1111111111111111 && mUtf8Index > 3)) {
-            // Overlong encoding.
-            codePoint = UNICODE_REPLACEMENT_CHAR;
-          }
+    if (mRecorder != null) mRecorder.recordOutput(buffer, 0, length);
+    int i = 0;
+    while (i < length) {
+      byte b = buffer[i];
+      if (b < 0 || mUtf8Decoder.isInSequence()) {
+        i = processUtf8Run(buffer, i, length);
+      } else if (b >= 32 && b < 127 && isAsciiFastPathPossible()) {
+        i = emitAsciiRun(buffer, i, length);
+      } else if (b == '\n' && mEscapeState == ESC_NONE) {
+        i = emitLinefeedRun(buffer, i, length);
+      } else if ((BULK_BYTE_CLASSES[mEscapeState] & (1 << BYTE_CLASSES[b])) != 0) {
+        i = collectSequenceRun(buffer, i, length);
+      } else {
+        processCodePoint(b);
+        i++;
+      }
+    }
+  }
 
-          mUtf8Index = mUtf8ToFollow = 0;
+  /**
+   * Process a run of line feeds and carriage returns, with the same result as calling {@link #processCodePoint(int)}
+   * for each byte, but scrolling once for all the line feeds at the bottom margin.
+   *
+   * @return the index of the first byte in the buffer which was not consumed.
+   */
+  private int emitLinefeedRun(byte[] buffer, int start, int end) {
+    int linesToScroll = 0;
+    int i = start;
+    for (; i < end; i++) {
+      if (buffer[i] == '\r') {
+        setCursorCol(mLeftMargin);
+      } else if (buffer[i] != '\n') {
+        break;
+      } else if (mCursorRow == mBottomMargin - 1) {
+        // The cursor stays at the bottom margin while the lines are scrolled:
+        linesToScroll++;
+        mAboutToAutoWrap = false;
+      } else {
+        doLinefeed();
+      }
+    }
+    if (linesToScroll > 0) scrollDown(linesToScroll);
+    return i;
+  }
 
-          if (codePoint >= 0x80 && codePoint <= 0x9F) {
-            // Sequence decoded to a C1 control character which is the same as escape followed by
-            // ((code & 0x7F) + 0x40).
-            // processCodePoint(/* escape (hexadecimal=0x1B, octal=033): */27);
-            // processCodePoint((codePoint & 0x7F) + 0x40);
+  /**
+   * If printable 7-bit ASCII can currently be written by {@link #emitAsciiRun(byte[], int, int)} instead of going
+   * through {@link #processCodePoint(int)} and {@link #emitCodePoint(int)} one byte at a time.
+   */
+  private boolean isAsciiFastPathPossible() {
+    return mEscapeState == ESC_NONE && !mInsertMode && mCursorCol < mRightMargin
+      && !(mUseLineDrawingUsesG0 ? mUseLineDrawingG0 : mUseLineDrawingG1);
+  }
 
-            // Sequence decoded to a C1 control character which we ignore. They are
-            // not used nowadays and increases the risk of messing up the terminal state
-            // on binary input. XTerm does not allow them in utf-8:
-            // "It is not possible to use a C1 control obtained from decoding the
-            // UTF-8 text" - http://invisible-island.net/xterm/ctlseqs/ctlseqs.htm
-          } else {
-            switch (Character.getType(codePoint)) {
-              case Character.UNASSIGNED:
-              case Character.SURROGATE:
-                codePoint = UNICODE_REPLACEMENT_CHAR;
-            }
-            processCodePoint(codePoint);
-          }
+  /**
+   * Output a run of printable 7-bit ASCII, with the same result as calling {@link #emitCodePoint(int)} for each byte,
+   * but writing as many characters as fit before the right margin into the row at once. Must only be called when
+   * {@link #isAsciiFastPathPossible()} is true.
+   *
+   * @return the index of the first byte in the buffer which was not consumed.
+   */
+  private int emitAsciiRun(byte[] buffer, int start, int end) {
+    final boolean autoWrap = isDecsetInternalBitSet(DECSET_BIT_AUTOWRAP);
+    final long style = getStyle();
+    int i = start;
+    while (i < end && buffer[i] >= 32 && buffer[i] < 127) {
+      if (autoWrap && mAboutToAutoWrap && mCursorCol == mRightMargin - 1) {
+        mScreen.setLineWrap(mCursorRow);
+        mCursorCol = mLeftMargin;
+        if (mCursorRow + 1 < mBottomMargin) {
+          mCursorRow++;
+        } else {
+          scrollDown(1);
         }
-      } else {
-        // Not a UTF-8 continuation byte so replace the entire sequence up to now with the replacement char:
-        mUtf8Index = mUtf8ToFollow = 0;
-        emitCodePoint(UNICODE_REPLACEMENT_CHAR);
-        // The Unicode Standard Version 6.2 – Core Specification
-        // (http://www.unicode.org/versions/Unicode6.2.0/ch03.pdf):
-        // "If the converter encounters an ill-formed UTF-8 code unit sequence which starts with a valid first
-        // byte, but which does not continue with valid successor bytes (see Table 3-7), it must not consume the
-        // successor bytes as part of the ill-formed subsequence
-        // whenever those successor bytes themselves constitute part of a well-formed UTF-8 code unit
-        // subsequence."
-        processByte(byteToProcess);
       }
+
+      final int cellsBeforeMargin = mRightMargin - mCursorCol;
+      final int runLimit = Math.min(end, i + cellsBeforeMargin);
+      int runEnd = i + 1;
+      while (runEnd < runLimit && buffer[runEnd] >= 32 && buffer[runEnd] < 127) runEnd++;
+      final int runLength = runEnd - i;
+      mScreen.setAsciiChars(mCursorCol, mCursorRow, buffer, i, runLength, style);
+
+      if (!autoWrap && runLength == cellsBeforeMargin) {
+        // Without autowrap every following character overwrites the last column, so only the final one remains:
+        int lastIndex = runEnd - 1;
+        while (runEnd < end && buffer[runEnd] >= 32 && buffer[runEnd] < 127) runEnd++;
+        if (runEnd - 1 != lastIndex) mScreen.setChar(mRightMargin - 1, mCursorRow, buffer[runEnd - 1], style);
+      }
+
+      mLastEmittedCodePoint = buffer[runEnd - 1];
+      if (autoWrap) mAboutToAutoWrap = (mCursorCol + runLength == mRightMargin);
+      mCursorCol = Math.min(mCursorCol + runLength, mRightMargin - 1);
+      i = runEnd;
+    }
+    return i;
+  }
+
+  /**
+   * Consume a run of bytes of the classes in {@link #BULK_BYTE_CLASSES} for the current escape state, with the same
+   * result as calling {@link #processCodePoint(int)} for each byte: the digits and separators of CSI parameters are parsed
+   * straight into {@link #mArgs}, and OSC and DCS payload is appended to {@link #mOSCOrDeviceControlArgs} while it is
+   * below its maximum length.
+   *
+   * @return the index of the first byte in the buffer which was not consumed.
+   */
+  private int collectSequenceRun(byte[] buffer, int start, int end) {
+    final int bulkClasses = BULK_BYTE_CLASSES[mEscapeState];
+    int i = start;
+    if (mEscapeState == ESC_OSC || mEscapeState == ESC_P) {
+      // OSC strings stop growing at the maximum length, device control strings are dropped once past it:
+      int room = MAX_OSC_STRING_LENGTH - mOSCOrDeviceControlArgs.length() + (mEscapeState == ESC_P ? 1 : 0);
+      final int runLimit = Math.min(end, start + Math.max(room, 0));
+      while (i < runLimit && buffer[i] >= 0 && (bulkClasses & (1 << BYTE_CLASSES[buffer[i]])) != 0)
+        mOSCOrDeviceControlArgs.append((char) buffer[i++]);
     } else {
-      if ((byteToProcess & 0b10000000) == 0) { // The leading bit is not set so it is a 7-bit ASCII character.
-        processCodePoint(byteToProcess);
-        return;
-      } else if ((byteToProcess & 0b11100000) == 0b11000000) { // 110xxxxx, a two-byte sequence.
-        mUtf8ToFollow = 1;
-      } else if ((byteToProcess & 0b11110000) == 0b11100000) { // 1110xxxx, a three-byte sequence.
-        mUtf8ToFollow = 2;
-      } else if ((byteToProcess & 0b11111000) == 0b11110000) { // 11110xxx, a four-byte sequence.
-        mUtf8ToFollow = 3;
+      int argIndex = mArgIndex;
+      while (i < end && buffer[i] >= 0 && (bulkClasses & (1 << BYTE_CLASSES[buffer[i]])) != 0) {
+        final int b = buffer[i++];
+        if (b == ';') {
+          if (argIndex < mArgs.length) argIndex++;
+        } else if (argIndex < mArgs.length) {
+          final int oldValue = mArgs[argIndex];
+          mArgs[argIndex] = (oldValue >= 0 ? oldValue * 10 : 0) + (b - '0');
+        }
+      }
+      mArgIndex = argIndex;
+    }
+
+    if (i == start) {
+      processCodePoint(buffer[i++]);
+    }
+    return i;
+  }
+
+  /**
+   * Decode a run of UTF-8 input through {@link #mUtf8Decoder}, up to the next 7-bit ASCII byte which is not part of a
+   * sequence, and process the code points.
+   *
+   * @return the index of the first byte in the buffer which was not consumed.
+   */
+  private int processUtf8Run(byte[] buffer, int start, int end) {
+    final int next = mUtf8Decoder.decode(buffer, start, end, mDecodedCodePoints);
+    final int[] codePoints = mDecodedCodePoints;
+    for (int i = 0, count = mUtf8Decoder.getDecodedCount(); i < count; i++) {
+      final int codePoint = codePoints[i];
+      if (codePoint == Utf8Decoder.MALFORMED) {
+        emitCodePoint(UNICODE_REPLACEMENT_CHAR);
       } else {
-        // Not a valid UTF-8 sequence start, signal invalid data:
-        processCodePoint(UNICODE_REPLACEMENT_CHAR);
-        return;
+        processCodePoint(codePoint);
       }
-      mUtf8InputBuffer[mUtf8Index++] = byteToProcess;
     }
+    return next;
   }
 
   public void processCodePoint(int b) {
@@ -721,10 +917,14 @@ public final class TerminalEmulator {
                   int bottom = Math.min(getArg(argIndex++, mRows, true) + effectiveTopMargin, effectiveBottomMargin);
                   int right = Math.min(getArg(argIndex, mColumns, true) + effectiveLeftMargin, effectiveRightMargin);
                   long style = getStyle();
-                  for (int row = top - 1; row < bottom; row++)
-                    for (int col = left - 1; col < right; col++)
-                      if (!selective || (TextStyle.decodeEffect(mScreen.getStyleAt(row, col)) & TextStyle.CHARACTER_ATTRIBUTE_PROTECTED) == 0)
-                        mScreen.setChar(col, row, fillChar, keepVisualAttributes ? mScreen.getStyleAt(row, col) : style);
+                  if (!selective) {
+                    mScreen.blockSet(left - 1, top - 1, right - left + 1, bottom - top + 1, fillChar, style);
+                  } else {
+                    for (int row = top - 1; row < bottom; row++)
+                      for (int col = left - 1; col < right; col++)
+                        if ((TextStyle.decodeEffect(mScreen.getStyleAt(row, col)) & TextStyle.CHARACTER_ATTRIBUTE_PROTECTED) == 0)
+                          mScreen.setChar(col, row, fillChar, keepVisualAttributes ? mScreen.getStyleAt(row, col) : style);
+                  }
                 }
                 break;
               case 'r': // "${CSI}${TOP}${LEFT}${BOTTOM}${RIGHT}${ATTRIBUTES}$r"
@@ -847,10 +1047,10 @@ public final class TerminalEmulator {
                 value = (mScreen == mAltBuffer) ? 1 : 2;
               } else {
                 int internalBit = mapDecSetBitToInternalBit(mode);
-                if (internalBit == -1) {
+                if (internalBit != -1) {
                   value = isDecsetInternalBitSet(internalBit) ? 1 : 2; // 1=set, 2=reset.
                 } else {
-                  Log.e(EmulatorDebug.LOG_TAG, "Got DECRQM for unrecognized private DEC mode=" + mode);
+                  EmulatorDebug.e("Got DECRQM for unrecognized private DEC mode=" + mode);
                   value = 0; // 0=not recognized, 3=permanently set, 4=permanently reset
                 }
               }
@@ -989,7 +1189,7 @@ public final class TerminalEmulator {
                   case "&8": // Undo key - ignore.
                     break;
                   default:
-                    Log.w(EmulatorDebug.LOG_TAG, "Unhandled termcap/terminfo name: '" + trans + "'");
+                    EmulatorDebug.w("Unhandled termcap/terminfo name: '" + trans + "'");
                 }
                 // Respond with invalid request:
                 mSession.write("\033P0+r" + part + "\033\\");
@@ -1001,12 +1201,12 @@ public final class TerminalEmulator {
                 mSession.write("\033P1+r" + part + "=" + hexEncoded + "\033\\");
               }
             } else {
-              Log.e(EmulatorDebug.LOG_TAG, "Invalid device termcap/terminfo name of odd length: " + part);
+              EmulatorDebug.e("Invalid device termcap/terminfo name of odd length: " + part);
             }
           }
         } else {
           if (LOG_ESCAPE_SEQUENCES)
-            Log.e(EmulatorDebug.LOG_TAG, "Unrecognized device control string: " + dcs);
+            EmulatorDebug.e("Unrecognized device control string: " + dcs);
         }
         finishSequence();
       }
@@ -1066,13 +1266,7 @@ public final class TerminalEmulator {
             unknownSequence(b);
             break;
         }
-        long style = getStyle();
-        for (int row = startRow; row < endRow; row++) {
-          for (int col = startCol; col < endCol; col++) {
-            if ((TextStyle.decodeEffect(mScreen.getStyleAt(row, col)) & TextStyle.CHARACTER_ATTRIBUTE_PROTECTED) == 0)
-              mScreen.setChar(col, row, fillChar, style);
-          }
-        }
+        if (startRow >= 0) mScreen.blockSetUnprotected(startCol, startRow, endCol - startCol, endRow - startRow, fillChar, getStyle());
         break;
       case 'h':
       case 'l':
@@ -1098,7 +1292,7 @@ public final class TerminalEmulator {
           int externalBit = mArgs[i];
           int internalBit = mapDecSetBitToInternalBit(externalBit);
           if (internalBit == -1) {
-            Log.w(EmulatorDebug.LOG_TAG, "Ignoring request to save/recall decset bit=" + externalBit);
+            EmulatorDebug.w("Ignoring request to save/recall decset bit=" + externalBit);
           } else {
             if (b == 's') {
               mSavedDecSetFlags |= internalBit;
@@ -1181,7 +1375,11 @@ public final class TerminalEmulator {
       case 1049: {
         // Set: Save cursorColor as in DECSC and use Alternate Screen Buffer, clearing it first.
         // Reset: Use Normal Screen Buffer and restore cursorColor as in DECRC.
-        TerminalBuffer newScreen = setting ? mAltBuffer : mMainBuffer;
+        TerminalBuffer newScreen = mMainBuffer;
+        if (setting) {
+          if (mAltBuffer == null) mAltBuffer = new TerminalBuffer(mColumns, mRows, mRows);
+          newScreen = mAltBuffer;
+        }
         if (newScreen != mScreen) {
           boolean resized = !(newScreen.mColumns == mColumns && newScreen.mScreenRows == mRows);
           if (setting) saveCursor();
@@ -1198,15 +1396,21 @@ public final class TerminalEmulator {
           }
           // Check if buffer size needs to be updated:
           if (resized) resizeScreen();
-          // Clear new screen if alt buffer:
+          // Clear new screen if alt buffer, or release it:
           if (newScreen == mAltBuffer)
             newScreen.blockSet(0, 0, mColumns, mRows, ' ', getStyle());
+          else
+            mAltBuffer = null;
         }
         break;
       }
       case 2004:
         // Bracketed paste mode - setting bit is enough.
         break;
+      case 2026:
+        // Synchronized update - setting bit is enough to begin one, but an ended one is shown even if another begins:
+        if (!setting) mSynchronizedUpdateEnded = true;
+        break;
       default:
         unknownParameter(externalBit);
         break;
@@ -1285,7 +1489,7 @@ public final class TerminalEmulator {
         // (1) enables this feature for keys except for those with well-known behavior, e.g., Tab, Backarrow and
         // some special control character cases, e.g., Control-Space to make a NUL.
         // (2) enables this feature for keys including the exceptions listed.
-        Log.e(EmulatorDebug.LOG_TAG, "(ignored) CSI > MODIFY RESOURCE: " + getArg0(-1) + " to " + getArg1(-1));
+        EmulatorDebug.e("(ignored) CSI > MODIFY RESOURCE: " + getArg0(-1) + " to " + getArg1(-1));
         break;
       default:
         parseArg(b);
@@ -1309,7 +1513,7 @@ public final class TerminalEmulator {
       }
     } else {
       if (newCursorRow == mBottomMargin) {
-        scrollDownOneLine();
+        scrollDown(1);
         newCursorRow = mBottomMargin - 1;
       }
       setCursorRow(newCursorRow);
@@ -1392,8 +1596,7 @@ public final class TerminalEmulator {
         // http://www.vt100.net/docs/vt100-ug/chapter3.html: "Move the active position to the same horizontal
         // position on the preceding line. If the active position is at the top margin, a scroll down is performed".
         if (mCursorRow <= mTopMargin) {
-          mScreen.blockCopy(0, mTopMargin, mColumns, mBottomMargin - (mTopMargin + 1), 0, mTopMargin + 1);
-          blockClear(0, mTopMargin, mColumns);
+          mScreen.scroll(mTopMargin, mBottomMargin, -1, getStyle());
         } else {
           mCursorRow--;
         }
@@ -1557,9 +1760,7 @@ public final class TerminalEmulator {
       {
         int linesAfterCursor = mBottomMargin - mCursorRow;
         int linesToInsert = Math.min(getArg0(1), linesAfterCursor);
-        int linesToMove = linesAfterCursor - linesToInsert;
-        mScreen.blockCopy(0, mCursorRow, mColumns, linesToMove, 0, mCursorRow + linesToInsert);
-        blockClear(0, mCursorRow, mColumns, linesToInsert);
+        if (linesToInsert > 0) mScreen.scroll(mCursorRow, mBottomMargin, -linesToInsert, getStyle());
       }
       break;
       case 'M': // "${CSI}${N}M" - delete N lines (DL).
@@ -1567,9 +1768,7 @@ public final class TerminalEmulator {
         mAboutToAutoWrap = false;
         int linesAfterCursor = mBottomMargin - mCursorRow;
         int linesToDelete = Math.min(getArg0(1), linesAfterCursor);
-        int linesToMove = linesAfterCursor - linesToDelete;
-        mScreen.blockCopy(0, mCursorRow + linesToDelete, mColumns, linesToMove, 0, mCursorRow);
-        blockClear(0, mCursorRow + linesToMove, mColumns, linesToDelete);
+        if (linesToDelete > 0) mScreen.shiftRows(mCursorRow, mBottomMargin, linesToDelete, getStyle());
       }
       break;
       case 'P': // "${CSI}{N}P" - delete ${N} characters (DCH).
@@ -1588,9 +1787,7 @@ public final class TerminalEmulator {
       }
       break;
       case 'S': { // "${CSI}${N}S" - scroll up ${N} lines (default = 1) (SU).
-        final int linesToScroll = getArg0(1);
-        for (int i = 0; i < linesToScroll; i++)
-          scrollDownOneLine();
+        scrollDown(getArg0(1));
         break;
       }
       case 'T':
@@ -1602,8 +1799,7 @@ public final class TerminalEmulator {
           final int linesToScrollArg = getArg0(1);
           final int linesBetweenTopAndBottomMargins = mBottomMargin - mTopMargin;
           final int linesToScroll = Math.min(linesBetweenTopAndBottomMargins, linesToScrollArg);
-          mScreen.blockCopy(0, mTopMargin, mColumns, linesBetweenTopAndBottomMargins - linesToScroll, 0, mTopMargin + linesToScroll);
-          blockClear(0, mTopMargin, mColumns, linesToScroll);
+          if (linesToScroll > 0) mScreen.scroll(mTopMargin, mBottomMargin, -linesToScroll, getStyle());
         } else {
           // "${CSI}${func};${startx};${starty};${firstrow};${lastrow}T" - initiate highlight mouse tracking.
           unimplementedSequence(b);
@@ -1837,7 +2033,7 @@ public final class TerminalEmulator {
         int firstArg = mArgs[i + 1];
         if (firstArg == 2) {
           if (i + 4 > mArgIndex) {
-            Log.w(EmulatorDebug.LOG_TAG, "Too few CSI" + code + ";2 RGB arguments");
+            EmulatorDebug.w("Too few CSI" + code + ";2 RGB arguments");
           } else {
             int red = mArgs[i + 2], green = mArgs[i + 3], blue = mArgs[i + 4];
             if (red < 0 || green < 0 || blue < 0 || red > 255 || green > 255 || blue > 255) {
@@ -1863,7 +2059,7 @@ public final class TerminalEmulator {
             }
           } else {
             if (LOG_ESCAPE_SEQUENCES)
-              Log.w(EmulatorDebug.LOG_TAG, "Invalid color index: " + color);
+              EmulatorDebug.w("Invalid color index: " + color);
           }
         } else {
           finishSequenceAndLogError("Invalid ISO-8613-3 SGR first argument: " + firstArg);
@@ -1880,7 +2076,7 @@ public final class TerminalEmulator {
         mBackColor = code - 100 + 8;
       } else {
         if (LOG_ESCAPE_SEQUENCES)
-          Log.w(EmulatorDebug.LOG_TAG, String.format("SGR unknown code %d", code));
+          EmulatorDebug.w(String.format("SGR unknown code %d", code));
       }
     }
   }
@@ -2013,10 +2209,11 @@ public final class TerminalEmulator {
       case 52: // Manipulate Selection Data. Skip the optional first selection parameter(s).
         int startIndex = textParameter.indexOf(";") + 1;
         try {
-          String clipboardText = new String(Base64.decode(textParameter.substring(startIndex), 0), StandardCharsets.UTF_8);
+          byte[] clipboardBytes = Base64.getMimeDecoder().decode(textParameter.substring(startIndex));
+          String clipboardText = new String(clipboardBytes, StandardCharsets.UTF_8);
           mSession.clipboardText(clipboardText);
         } catch (Exception e) {
-          Log.e(EmulatorDebug.LOG_TAG, "OSC Manipulate selection, invalid string '" + textParameter + "");
+          EmulatorDebug.e("OSC Manipulate selection, invalid string '" + textParameter + "");
         }
         break;
       case 104:
@@ -2111,15 +2308,19 @@ public final class TerminalEmulator {
     setCursorRowCol(newRow, newCol);
   }
 
-  private void scrollDownOneLine() {
-    mScrollCounter++;
+  /**
+   * Scroll the lines between the margins up, as that many line feeds at the bottom margin would.
+   */
+  private void scrollDown(int lines) {
+    mScrollCounter += lines;
     if (mLeftMargin != 0 || mRightMargin != mColumns) {
       // Horizontal margin: Do not put anything into scroll history, just non-margin part of screen up.
-      mScreen.blockCopy(mLeftMargin, mTopMargin + 1, mRightMargin - mLeftMargin, mBottomMargin - mTopMargin - 1, mLeftMargin, mTopMargin);
-      // .. and blank bottom row between margins:
-      mScreen.blockSet(mLeftMargin, mBottomMargin - 1, mRightMargin - mLeftMargin, 1, ' ', mEffect);
+      final int linesToMove = Math.min(lines, mBottomMargin - mTopMargin);
+      mScreen.blockCopy(mLeftMargin, mTopMargin + linesToMove, mRightMargin - mLeftMargin, mBottomMargin - mTopMargin - linesToMove, mLeftMargin, mTopMargin);
+      // .. and blank bottom rows between margins:
+      mScreen.blockSet(mLeftMargin, mBottomMargin - linesToMove, mRightMargin - mLeftMargin, linesToMove, ' ', mEffect);
     } else {
-      mScreen.scrollDownOneLine(mTopMargin, mBottomMargin, getStyle());
+      mScreen.scroll(mTopMargin, mBottomMargin, lines, getStyle());
     }
   }
 
@@ -2176,17 +2377,18 @@ public final class TerminalEmulator {
   }
 
   private void unimplementedSequence(int b) {
-    logError("Unimplemented sequence char '" + (char) b + "' (U+" + String.format("%04x", b) + ")");
+    if (LOG_ESCAPE_SEQUENCES)
+      logError("Unimplemented sequence char '" + (char) b + "' (U+" + String.format("%04x", b) + ")");
     finishSequence();
   }
 
   private void unknownSequence(int b) {
-    logError("Unknown sequence char '" + (char) b + "' (numeric value=" + b + ")");
+    if (LOG_ESCAPE_SEQUENCES) logError("Unknown sequence char '" + (char) b + "' (numeric value=" + b + ")");
     finishSequence();
   }
 
   private void unknownParameter(int parameter) {
-    logError("Unknown parameter: " + parameter);
+    if (LOG_ESCAPE_SEQUENCES) logError("Unknown parameter: " + parameter);
     finishSequence();
   }
 
@@ -2216,7 +2418,7 @@ public final class TerminalEmulator {
   }
 
   private void finishSequenceAndLogError(String error) {
-    if (LOG_ESCAPE_SEQUENCES) Log.w(EmulatorDebug.LOG_TAG, error);
+    if (LOG_ESCAPE_SEQUENCES) EmulatorDebug.w(error);
     finishSequence();
   }
 
@@ -2347,7 +2549,7 @@ public final class TerminalEmulator {
         if (mCursorRow + 1 < mBottomMargin) {
           mCursorRow++;
         } else {
-          scrollDownOneLine();
+          scrollDown(1);
         }
       }
     } else if (cursorInLastColumn && displayWidth == 2) {
@@ -2435,7 +2637,7 @@ public final class TerminalEmulator {
     mSavedDecSetFlags = mSavedStateMain.mSavedDecFlags = mSavedStateAlt.mSavedDecFlags = mCurrentDecSetFlags;
 
     // XXX: Should we set terminal driver back to IUTF8 with termios?
-    mUtf8Index = mUtf8ToFollow = 0;
+    mUtf8Decoder.reset();
 
     mColors.reset();
     mSession.onColorsChanged();
@@ -2469,19 +2671,21 @@ public final class TerminalEmulator {
   }
 
   /**
-   * If DECSET 2004 is set, prefix paste with "\033[200~" and suffix with "\033[201~".
+   * Prepare a paste of the text, to be encoded in pieces by the caller. If DECSET 2004 is set, the paste is prefixed
+   * with "\033[200~" and suffixed with "\033[201~".
    */
-  public void paste(String text) {
-    // First: Always remove escape key and C1 control characters [0x80,0x9F]:
-    text = text.replaceAll("(\u001B|[\u0080-\u009F])", "");
-    // Second: Convert DOS (\r\n) CRLF newlines and linefeeds (\n) into carriage returns (\r==13).
-    text = text.replaceAll("\r?\n", "\r");
+  public PasteEncoder createPaste(CharSequence text) {
+    return new PasteEncoder(text, isDecsetInternalBitSet(DECSET_BIT_BRACKETED_PASTE_MODE));
+  }
 
-    // Then: Implement bracketed paste mode if enabled:
-    boolean bracketed = isDecsetInternalBitSet(DECSET_BIT_BRACKETED_PASTE_MODE);
-    if (bracketed) mSession.write("\033[200~");
-    mSession.write(text);
-    if (bracketed) mSession.write("\033[201~");
+  /**
+   * Write a paste of the text to the client at once, see {@link #createPaste(CharSequence)}.
+   */
+  public void paste(String text) {
+    PasteEncoder paste = createPaste(text);
+    byte[] buffer = new byte[4096];
+    int length;
+    while ((length = paste.encode(buffer)) != -1) mSession.write(buffer, 0, length);
   }
 
   /**
@@ -2499,7 +2703,7 @@ public final class TerminalEmulator {
 
   @Override
   public String toString() {
-    return "TerminalEmulator[size=" + mScreen.mColumns + "x" + mScreen.mScreenRows + ", margins={" + mTopMargin + "," + mRightMargin + "," + mBottomMargin
+    return "ReferenceTerminalEmulator[size=" + mScreen.mColumns + "x" + mScreen.mScreenRows + ", margins={" + mTopMargin + "," + mRightMargin + "," + mBottomMargin
       + "," + mLeftMargin + "}]";
   }
 
@@ -0,0 +1,192 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TerminalBufferTest {
+
+  @Test
+  public void resizeKeepsCurrentBackground() {
+    TerminalEmulator emulator = new TerminalEmulator(new RecordingOutput(), 20, 5, 100);
+    byte[] input = "\033[44mtext\r\nmore".getBytes(StandardCharsets.US_ASCII);
+    emulator.append(input, input.length);
+
+    // A change of the number of columns reflows the rows into new ones:
+    emulator.resize(30, 5);
+    TerminalBuffer screen = emulator.getScreen();
+    assertEquals("text", screen.getSelectedText(0, 0, 29, 0).trim());
+    // Past the reflowed text, and on the rows below it:
+    assertEquals(4, TextStyle.decodeBackColor(screen.getStyleAt(0, 25)));
+    assertEquals(4, TextStyle.decodeBackColor(screen.getStyleAt(4, 0)));
+
+    emulator.resize(15, 4);
+    assertEquals(4, TextStyle.decodeBackColor(emulator.getScreen().getStyleAt(3, 14)));
+  }
+
+  @Test
+  public void screenGrowsPastTotalRows() {
+    // A transcript no longer than the screen, resized to more rows with and without a change of the number of columns:
+    for (int columns : new int[]{80, 20}) {
+      TerminalEmulator emulator = new TerminalEmulator(new RecordingOutput(), 80, 24, 24);
+      for (int line = 0; line < 30; line++)
+        append(emulator, "line " + line + " " + "x".repeat(100) + "\r\n");
+      emulator.resize(columns, 40);
+      assertEquals(40, emulator.getScreen().mScreenRows);
+      assertTrue(emulator.getScreen().getTranscriptText().endsWith("line 29 " + "x".repeat(100)));
+
+      for (int line = 0; line < 50; line++)
+        append(emulator, "after " + line + "\r\n");
+      assertTrue(emulator.getScreen().getTranscriptText().endsWith("after 48\nafter 49"));
+      assertEquals(39, emulator.getCursorRow());
+    }
+  }
+
+  @Test
+  public void resizeKeepsLineContinuingFromFrozenRows() {
+    final int frozenRows = 128;
+    TerminalEmulator emulator = new TerminalEmulator(new RecordingOutput(), 10, 5,
+      5 + TerminalBuffer.MAX_UNFROZEN_TRANSCRIPT_ROWS + frozenRows);
+    for (int line = 0; line < 300; line++)
+      append(emulator, "L" + line + "\r\n");
+    StringBuilder longLine = new StringBuilder();
+    for (int i = 0; i < 2900; i++)
+      longLine.append((char) ('a' + i % 26));
+    append(emulator, longLine.toString());
+
+    // The line starts in the frozen rows and continues through all of the unfrozen ones:
+    emulator.resize(80, 5);
+    emulator.continueReflow(Long.MAX_VALUE);
+    TerminalBuffer screen = emulator.getScreen();
+    assertEquals(frozenRows, screen.getActiveTranscriptRows());
+    // Where the line continues from the rows reflowed later into those of the screen, the last reflowed row is padded:
+    assertTrue(screen.getTranscriptText().replace(" ", "").endsWith("L298\nL299\n" + longLine));
+  }
+
+  @Test
+  public void incrementalReflowMatchesSynchronousReflow() {
+    for (boolean resizeTwice : new boolean[]{false, true}) {
+      final int totalRows = 6 + TerminalBuffer.MAX_UNFROZEN_TRANSCRIPT_ROWS + 1000;
+      TerminalEmulator synchronous = new TerminalEmulator(new RecordingOutput(), 20, 6, totalRows);
+      TerminalEmulator incremental = new TerminalEmulator(new RecordingOutput(), 20, 6, totalRows);
+      Random random = new Random(resizeTwice ? 2 : 1);
+      String output = randomLines(random, 1500, 60);
+      append(synchronous, output);
+      append(incremental, output);
+
+      synchronous.resize(45, 6);
+      synchronous.continueReflow(Long.MAX_VALUE);
+      incremental.resize(45, 6);
+      if (resizeTwice) {
+        incremental.continueReflow(System.nanoTime());
+        synchronous.resize(30, 8);
+        synchronous.continueReflow(Long.MAX_VALUE);
+        incremental.resize(30, 8);
+      }
+      // Output arriving during the reflow is frozen after the rows still to reflow:
+      for (int i = 0; i < 20; i++) {
+        output = randomLines(random, 30, 60);
+        append(synchronous, output);
+        append(incremental, output);
+        incremental.continueReflow(System.nanoTime());
+      }
+      incremental.continueReflow(Long.MAX_VALUE);
+      assertSameRows(synchronous.getScreen(), incremental.getScreen());
+    }
+  }
+
+  @Test
+  public void reflowKeepsTextOfFrozenRows() {
+    final int totalRows = 5 + TerminalBuffer.MAX_UNFROZEN_TRANSCRIPT_ROWS + 5000;
+    TerminalEmulator emulator = new TerminalEmulator(new RecordingOutput(), 10, 5, totalRows);
+    Random random = new Random(3);
+    StringBuilder text = new StringBuilder();
+    for (int line = 0; line < 800; line++) {
+      StringBuilder letters = new StringBuilder();
+      for (int i = random.nextInt(60); i > 0; i--)
+        letters.append((char) ('a' + random.nextInt(26)));
+      text.append(letters).append('\n');
+      append(emulator, letters + "\r\n");
+    }
+
+    // Wider, narrower, and back, each reflowing rows of the width before:
+    for (int columns : new int[]{33, 7, 80, 10}) {
+      emulator.resize(columns, 5);
+      emulator.continueReflow(Long.MAX_VALUE);
+      assertEquals("at " + columns + " columns", text.toString().trim(), emulator.getScreen().getTranscriptText());
+    }
+  }
+
+  @Test
+  public void scrollRegionBelowTopLineScrollsIntoTranscript() {
+    final int totalRows = 5 + TerminalBuffer.MAX_UNFROZEN_TRANSCRIPT_ROWS + 100;
+    TerminalEmulator emulator = new TerminalEmulator(new RecordingOutput(), 10, 5, totalRows);
+    for (int line = 0; line < 400; line++)
+      append(emulator, "T" + line + "\r\n");
+    append(emulator, "top\r\nA\r\nB\r\nC\r\nbottom");
+    TerminalBuffer screen = emulator.getScreen();
+    final int transcriptRows = screen.getActiveTranscriptRows();
+    assertEquals(totalRows - 5, transcriptRows);
+    assertTrue(screen.getTranscriptText().startsWith("T44\nT45\n"));
+
+    // The lines scrolled out of rows 2 to 4 go to the transcript, under the fixed top line, dropping frozen rows:
+    append(emulator, "\033[2;4r\033[4;1H");
+    for (int line = 0; line < 10; line++)
+      append(emulator, "\r\nR" + line);
+    assertEquals(transcriptRows, screen.getActiveTranscriptRows());
+    assertTrue(screen.getTranscriptText().startsWith("T54\nT55\n"));
+    assertEquals("T399\nA\nB\nC\nR0\nR1\nR2\nR3\nR4\nR5\nR6", screen.getSelectedText(0, -11, 10, -1).trim());
+    assertEquals("top\nR7\nR8\nR9\nbottom", screen.getSelectedText(0, 0, 10, 4).trim());
+
+    // Without the margins, the whole screen scrolls:
+    append(emulator, "\033[r\033[5;1H\r\nafter");
+    assertEquals(transcriptRows, screen.getActiveTranscriptRows());
+    assertTrue(screen.getTranscriptText().startsWith("T55\n"));
+    assertEquals("R6\ntop", screen.getSelectedText(0, -2, 10, -1).trim());
+    assertEquals("R7\nR8\nR9\nbottom\nafter", screen.getSelectedText(0, 0, 10, 4).trim());
+  }
+
+  /**
+   * Lines of random length, with wide and combining characters, in random colors.
+   */
+  private static String randomLines(Random random, int lines, int maxLength) {
+    StringBuilder output = new StringBuilder();
+    for (int line = 0; line < lines; line++) {
+      for (int i = random.nextInt(maxLength); i > 0; i--) {
+        int choice = random.nextInt(20);
+        if (choice == 0) {
+          output.append("\033[3").append(random.nextInt(8)).append('m');
+        } else if (choice == 1) {
+          output.append('中');
+        } else if (choice == 2) {
+          output.append("e\u0301");
+        } else {
+          output.append((char) ('a' + random.nextInt(26)));
+        }
+      }
+      output.append("\r\n");
+    }
+    return output.toString();
+  }
+
+  private static void assertSameRows(TerminalBuffer expected, TerminalBuffer actual) {
+    assertEquals(expected.getActiveTranscriptRows(), actual.getActiveTranscriptRows());
+    assertEquals(expected.mColumns, actual.mColumns);
+    for (int row = -expected.getActiveTranscriptRows(); row < expected.mScreenRows; row++) {
+      assertEquals("text of row " + row, expected.getSelectedText(0, row, expected.mColumns, row),
+        actual.getSelectedText(0, row, actual.mColumns, row));
+      assertEquals("line wrap of row " + row, expected.getLineWrap(row), actual.getLineWrap(row));
+      for (int column = 0; column < expected.mColumns; column++)
+        assertEquals("style at " + row + "," + column, expected.getStyleAt(row, column), actual.getStyleAt(row, column));
+    }
+  }
+
+  private static void append(TerminalEmulator emulator, String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    emulator.append(bytes, bytes.length);
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the mouse reports of {@link TerminalEmulator#sendMouseEvent(int, int, int, boolean)}.
+ */
+public class TerminalEmulatorMouseTest {
+
+  @Test
+  public void sgrReports() {
+    RecordingOutput output = new RecordingOutput();
+    TerminalEmulator emulator = new TerminalEmulator(output, 300, 120, 100);
+    emulator.append("\033[?1002h\033[?1006h".getBytes(StandardCharsets.US_ASCII), 16);
+
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_LEFT_BUTTON, 1, 1, true);
+    assertEquals("\033[<0;1;1M", output.take());
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_LEFT_BUTTON_MOVED, 10, 99, true);
+    assertEquals("\033[<32;10;99M", output.take());
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_LEFT_BUTTON, 300, 120, false);
+    assertEquals("\033[<0;300;120m", output.take());
+    // Clipped to the screen:
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_WHEELDOWN_BUTTON, 1000, -5, true);
+    assertEquals("\033[<65;300;1M", output.take());
+  }
+
+  @Test
+  public void legacyReports() {
+    RecordingOutput output = new RecordingOutput();
+    TerminalEmulator emulator = new TerminalEmulator(output, 300, 120, 100);
+    emulator.append("\033[?1000h".getBytes(StandardCharsets.US_ASCII), 8);
+
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_WHEELUP_BUTTON, 5, 7, true);
+    assertEquals("\033[M" + (char) (32 + 64) + (char) (32 + 5) + (char) (32 + 7), output.take());
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_LEFT_BUTTON, 5, 7, false);
+    assertEquals("\033[M" + (char) (32 + 3) + (char) (32 + 5) + (char) (32 + 7), output.take());
+    // Beyond what a byte can report:
+    emulator.sendMouseEvent(TerminalEmulator.MOUSE_LEFT_BUTTON, 250, 7, true);
+    assertEquals("", output.take());
+  }
+
+}
@@ -0,0 +1,154 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Differential tests of the parser of {@link TerminalEmulator}, which feed the same streams through
+ * {@link TerminalEmulator#append(byte[], int)} in chunks of random lengths, through
+ * {@link TerminalEmulator#processCodePoint(int)} one code point at a time, and through the switch-dispatched parser of
+ * {@link ReferenceTerminalEmulator}, and check that all end with the same screen state and output.
+ */
+public class TerminalEmulatorParserTest {
+
+  private static final int COLUMNS = 80;
+  private static final int ROWS = 24;
+
+  @Test
+  public void shellSession() {
+    StringBuilder stream = new StringBuilder();
+    Random random = new Random(1);
+    for (int line = 0; line < 500; line++) {
+      stream.append("\033]0;user@host: ~/dir").append(line % 7).append('\007');
+      stream.append("\033[1;32muser@host\033[0m:\033[1;34m~/dir\033[0m$ ls -l\r\n");
+      for (int entry = 0; entry < 5; entry++) {
+        stream.append("-rw-r--r-- 1 user user ").append(random.nextInt(100000)).append(" \033[38;5;")
+          .append(random.nextInt(256)).append("mfile").append(entry).append("\033[0m 中文\r\n");
+      }
+    }
+    assertSameResult(stream.toString());
+  }
+
+  @Test
+  public void fullScreenApplication() {
+    StringBuilder stream = new StringBuilder("\033[?1049h\033[?25l\033[2;23r");
+    Random random = new Random(2);
+    for (int frame = 0; frame < 300; frame++) {
+      stream.append("\033[H\033[2J");
+      for (int row = 1; row <= ROWS; row++) {
+        stream.append("\033[").append(row).append(";1H\033[38;2;").append(random.nextInt(256)).append(';')
+          .append(random.nextInt(256)).append(';').append(random.nextInt(256)).append("m").append(row * frame)
+          .append("\033[K\033[").append(1 + random.nextInt(COLUMNS)).append("G\033[")
+          .append(random.nextInt(4)).append("@\033[").append(random.nextInt(4)).append('P');
+      }
+      stream.append("\033[3L\033[2M\033[?7l").append("wide 字符 text ".repeat(8)).append("\033[?7h\033M\r\n");
+    }
+    stream.append("\033[r\033[?25h\033[?1049l");
+    assertSameResult(stream.toString());
+  }
+
+  @Test
+  public void stringsAndReports() {
+    StringBuilder stream = new StringBuilder();
+    stream.append("\033]2;window title\033\\\033]1;icon\033x\033\\");
+    stream.append("\033P$q\"p\033\\\033P+q544e;436f\033\\\033[6n\033[?6n\033[5n\033[18t\033[>c");
+    // More parameters than kept, and values which overflow:
+    stream.append("\033[1;2;3;4;5;6;7;8;9;10;11;12;13;14;15;16;17;18;19;20;21m\033[99999999999999999999Cx");
+    // Strings beyond the maximum length:
+    stream.append("\033]0;").append("t".repeat(10000)).append('\007').append("after osc");
+    stream.append("\033P").append("d".repeat(10000)).append("\033\\after dcs");
+    // Controls inside sequences:
+    stream.append("\033[1\r;2Hcr\033]0;a\nb\007\033[3\0338;4H\033[5;\030m");
+    // Sequences with intermediate bytes, and character sets:
+    stream.append("\033[4 q\033[2*x\033[1\"q\033[2'}\033[1'~\033[?1049$p\033[?7$p\033[!p\033#8\033[5;5H\033[1;1;3;3$z");
+    stream.append("\033(0lqk\033(B\033)0\016xx\017\033%G\033[2$r\033[1;1;2;2;1$r\033[1;1;2;2;5;6$v");
+    // Escapes and non-ASCII inside strings, and strings cut short:
+    stream.append("\033]2;a\033b\033]2;é\033é\007\033P+q\033x\033\\\033]0;\033\033[Hx\033P\030y\033]0;\032z");
+    assertSameResult(stream.toString());
+  }
+
+  @Test
+  public void exhaustiveTransitions() {
+    // Every state reached by up to two bytes after an ESC, followed by each byte:
+    final String[] prefixes = {"", "\033", "\033#", "\033(", "\033)", "\033[", "\033[?", "\033[>", "\033[$", "\033[?$",
+      "\033[!", "\033[\"", "\033['", "\033[*", "\033[ ", "\033]", "\033]\033", "\033P", "\033P\033", "\033%"};
+    StringBuilder stream = new StringBuilder();
+    for (String prefix : prefixes) {
+      for (int b = 0; b < 128; b++) {
+        stream.append(prefix).appendCodePoint(b).append("\033[1;1Hx\033\\\007\030");
+      }
+      stream.append(prefix).append("ü\030");
+    }
+    assertSameResult(stream.toString());
+  }
+
+  @Test
+  public void randomSequences() {
+    final String[] pieces = {"\033[", "\033[?", "\033[>", "\033]", "\033P", "\033", "\033\\", "\007", ";", "0", "1", "9",
+      "12", "m", "H", "J", "K", "h", "l", "r", "@", "P", "L", "M", "$", "q", "\"", "x", "\r", "\n", "\b", "\t", " ",
+      "text", "中", "é", "\\", "25", "1049", "7", "38;5;", "#", "(", ")", "!", "'", "*", "}", "v", "p", "\030",
+      "\016", "\017", "\0"};
+    for (int seed = 0; seed < 200; seed++) {
+      Random random = new Random(seed);
+      StringBuilder stream = new StringBuilder();
+      for (int i = 0; i < 2000; i++)
+        stream.append(pieces[random.nextInt(pieces.length)]);
+      assertSameResult(stream.toString());
+    }
+  }
+
+  private static void assertSameResult(String stream) {
+    byte[] bytes = stream.getBytes(StandardCharsets.UTF_8);
+
+    RecordingOutput bulkOutput = new RecordingOutput();
+    TerminalEmulator bulk = new TerminalEmulator(bulkOutput, COLUMNS, ROWS, 100);
+    Random random = new Random(bytes.length);
+    for (int offset = 0; offset < bytes.length; ) {
+      int length = Math.min(1 + random.nextInt(300), bytes.length - offset);
+      byte[] chunk = new byte[length];
+      System.arraycopy(bytes, offset, chunk, 0, length);
+      bulk.append(chunk, length);
+      offset += length;
+    }
+
+    RecordingOutput singleOutput = new RecordingOutput();
+    TerminalEmulator single = new TerminalEmulator(singleOutput, COLUMNS, ROWS, 100);
+    stream.codePoints().forEach(single::processCodePoint);
+
+    RecordingOutput referenceOutput = new RecordingOutput();
+    ReferenceTerminalEmulator reference = new ReferenceTerminalEmulator(referenceOutput, COLUMNS, ROWS, 100);
+    reference.append(bytes, bytes.length);
+
+    final String expected = describe(reference.getScreen(), reference.getCursorRow(), reference.getCursorCol(),
+      reference.isAlternateBufferActive(), reference.isShowingCursor(), reference.getTitle(), referenceOutput);
+    assertEquals(expected, describe(single.getScreen(), single.getCursorRow(), single.getCursorCol(),
+      single.isAlternateBufferActive(), single.isShowingCursor(), single.getTitle(), singleOutput));
+    assertEquals(expected, describe(bulk.getScreen(), bulk.getCursorRow(), bulk.getCursorCol(),
+      bulk.isAlternateBufferActive(), bulk.isShowingCursor(), bulk.getTitle(), bulkOutput));
+  }
+
+  /**
+   * The state of an emulator compared by {@link #assertSameResult(String)}, which are of different classes.
+   */
+  private static String describe(TerminalBuffer screen, int cursorRow, int cursorCol, boolean alternateBufferActive,
+                                 boolean showingCursor, String title, RecordingOutput output) {
+    StringBuilder description = new StringBuilder(screen.getTranscriptText()).append('\n');
+    for (int row = 0; row < ROWS; row++) {
+      description.append("styles of row ").append(row).append(':');
+      for (int column = 0; column < COLUMNS; column++)
+        description.append(' ').append(screen.getStyleAt(row, column));
+      description.append('\n');
+    }
+    description.append("cursor=").append(cursorRow).append(',').append(cursorCol)
+      .append(" alternateBuffer=").append(alternateBufferActive).append(" showingCursor=").append(showingCursor)
+      .append(" title=").append(title).append(" bells=").append(output.mBells).append('\n');
+    description.append("titles:\n").append(output.mTitles);
+    description.append("written:\n").append(new String(output.mWritten.toByteArray(), StandardCharsets.UTF_8));
+    return description.toString();
+  }
+
+}
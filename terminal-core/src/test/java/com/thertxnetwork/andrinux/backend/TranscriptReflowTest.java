@@ -0,0 +1,34 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranscriptReflowTest {
+
+  @Test
+  public void rowsNotReflowedAreFittedOnce() {
+    FrozenTranscript transcript = new FrozenTranscript(10, 1000, null);
+    for (int i = 0; i < 500; i++) {
+      TerminalRow row = new TerminalRow(10, TextStyle.NORMAL);
+      row.setChar(0, 'a' + i % 26, TextStyle.NORMAL);
+      row.mLineWrap = (i % 3 == 0);
+      transcript.append(row);
+    }
+
+    TranscriptReflow reflow = new TranscriptReflow(null, transcript, null, 20, 1000);
+    TerminalRow fittedRow = reflow.getRow(99);
+    assertEquals('a' + 99 % 26, fittedRow.getCodePoint(0));
+    assertTrue(fittedRow.mLineWrap);
+    // Drawing the same rows again does not fit them again:
+    for (int i = 0; i < 200; i++)
+      reflow.getRow(i);
+    assertSame(fittedRow, reflow.getRow(99));
+
+    // Rows read since take the place of those read first:
+    for (int i = 200; i < 500; i++)
+      reflow.getRow(i);
+    assertNotSame(fittedRow, reflow.getRow(99));
+  }
+
+}
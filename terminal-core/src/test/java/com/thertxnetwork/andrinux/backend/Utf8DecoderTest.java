@@ -0,0 +1,98 @@
+package com.thertxnetwork.andrinux.backend;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of {@link Utf8Decoder}, over whole inputs and inputs split into runs of every length.
+ */
+public class Utf8DecoderTest {
+
+  private static final int REPLACEMENT = TerminalEmulator.UNICODE_REPLACEMENT_CHAR;
+  private static final int MALFORMED = Utf8Decoder.MALFORMED;
+
+  @Test
+  public void validText() {
+    String text = "漢字 Привет мир 😀👍🏽 é́ 한국어";
+    assertDecodes(text.codePoints().toArray(), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void invalidStartBytes() {
+    assertDecodes(new int[]{REPLACEMENT, REPLACEMENT, 'a', REPLACEMENT}, bytes(0x80, 0xBF, 'a', 0xF8));
+  }
+
+  @Test
+  public void overlongEncodings() {
+    assertDecodes(new int[]{REPLACEMENT, REPLACEMENT, REPLACEMENT}, bytes(0xC0, 0x80, 0xE0, 0x80, 0x80, 0xF0, 0x80, 0x80, 0x80));
+  }
+
+  @Test
+  public void c1ControlsAreDropped() {
+    assertDecodes(new int[]{'a', 'b'}, bytes('a', 0xC2, 0x80, 0xC2, 0x9B, 'b'));
+  }
+
+  @Test
+  public void surrogatesAndUnassigned() {
+    assertDecodes(new int[]{REPLACEMENT, REPLACEMENT, REPLACEMENT},
+      bytes(0xED, 0xA0, 0x80, 0xF4, 0x90, 0x80, 0x80, 0xF7, 0xBF, 0xBF, 0xBF));
+    assertFalse(Utf8Decoder.isAssigned(0x0378));
+    assertTrue(Utf8Decoder.isAssigned(0x037A));
+  }
+
+  @Test
+  public void truncatedSequences() {
+    assertDecodes(new int[]{MALFORMED, 'a', MALFORMED, 0x4E2D, MALFORMED, REPLACEMENT},
+      bytes(0xE4, 0xB8, 'a', 0xF0, 0x9F, 0xE4, 0xB8, 0xAD, 0xC3, 0xFF));
+  }
+
+  @Test
+  public void stopsBeforeAsciiAndWhenOutputIsFull() {
+    Utf8Decoder decoder = new Utf8Decoder();
+    byte[] input = bytes(0xC3, 0xA9, 0xC3, 0xA9, 0xC3, 0xA9, 'a');
+    int[] output = new int[3];
+    assertEquals(4, decoder.decode(input, 0, input.length, output));
+    assertEquals(2, decoder.getDecodedCount());
+    assertEquals(6, decoder.decode(input, 4, input.length, output));
+    assertEquals(1, decoder.getDecodedCount());
+    assertEquals(6, decoder.decode(input, 6, input.length, output));
+    assertEquals(0, decoder.getDecodedCount());
+  }
+
+  /**
+   * Decode the input as a terminal would, taking 7-bit ASCII bytes as they are between the runs of the decoder, whole
+   * and split into runs of each length.
+   */
+  private static void assertDecodes(int[] expected, byte[] input) {
+    for (int runLength = input.length; runLength > 0; runLength--) {
+      Utf8Decoder decoder = new Utf8Decoder();
+      int[] decoded = new int[2 * input.length];
+      int decodedCount = 0;
+      int[] output = new int[4];
+      for (int runStart = 0; runStart < input.length; runStart += runLength) {
+        int runEnd = Math.min(input.length, runStart + runLength);
+        int i = runStart;
+        while (i < runEnd) {
+          if (input[i] >= 0 && !decoder.isInSequence()) {
+            decoded[decodedCount++] = input[i++];
+          } else {
+            i = decoder.decode(input, i, runEnd, output);
+            for (int j = 0; j < decoder.getDecodedCount(); j++) decoded[decodedCount++] = output[j];
+          }
+        }
+      }
+      assertArrayEquals("run length " + runLength, expected, Arrays.copyOf(decoded, decodedCount));
+    }
+  }
+
+  private static byte[] bytes(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) bytes[i] = (byte) values[i];
+    return bytes;
+  }
+
+}